@@ -0,0 +1,92 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The input files of the benchmarks, by size: {@code sample} is the bundled sample file, and
+ * {@code 10M}, {@code 100M} and {@code 1G} are files of about that size written by a
+ * {@link LedgerGenerator} with its default settings. Generated files are kept in
+ * {@code sieport-benchmarks} under {@code java.io.tmpdir} and reused by later runs.
+ */
+public final class BenchmarkFiles {
+
+    public static final String SAMPLE = "sample";
+
+    private static final long PROBE_VOUCHERS = 10_000;
+    private static final Path DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "sieport-benchmarks");
+
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * Returns the file of {@code size}, generating it first if needed.
+     */
+    public static synchronized Path get(String size) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path file = DIRECTORY.resolve("sie4-" + size + ".se");
+            if (!Files.exists(file)) {
+                Path temp = Files.createTempFile(DIRECTORY, "sie4-", ".tmp");
+                if (SAMPLE.equals(size)) {
+                    Files.write(temp, sample());
+                } else {
+                    generate(temp, parseSize(size));
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long parseSize(String size) {
+        long unit = switch (size.charAt(size.length() - 1)) {
+            case 'K' -> 1L << 10;
+            case 'M' -> 1L << 20;
+            case 'G' -> 1L << 30;
+            default -> throw new IllegalArgumentException("Unknown size: " + size);
+        };
+        return Long.parseLong(size.substring(0, size.length() - 1)) * unit;
+    }
+
+    private static byte[] sample() throws IOException {
+        try (InputStream in = BenchmarkFiles.class.getResourceAsStream("/SIE4-sample.SE")) {
+            if (in == null) {
+                throw new IllegalStateException("SIE4-sample.SE is not on the classpath");
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Writes a file of about {@code bytes} with the default {@link LedgerGenerator} settings. The
+     * number of vouchers is estimated from the size of a smaller file.
+     */
+    private static void generate(Path file, long bytes) {
+        CountingOutputStream probe = new CountingOutputStream();
+        LedgerGenerator.builder().vouchers(PROBE_VOUCHERS).build().write(probe);
+        long vouchers = Math.max(1, bytes * PROBE_VOUCHERS / probe.count);
+        LedgerGenerator.builder().vouchers(vouchers).build().write(file);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SIE4Document#from(List)} and {@link SIE4Document#getItems()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class DocumentBenchmark {
+
+    @Param({"sample", "10M", "100M", "1G"})
+    public String size;
+
+    private SIE4Document document;
+    private List<SIE4Item> items;
+
+    @Setup
+    public void setUp() {
+        document = SIE4.parse(BenchmarkFiles.get(size), SIE4.ParseOptions.COMPACT);
+        items = document.getItems();
+    }
+
+    @Benchmark
+    public SIE4Document from() {
+        return SIE4Document.from(items);
+    }
+
+    @Benchmark
+    public List<SIE4Item> getItems() {
+        return document.getItems();
+    }
+}
@@ -0,0 +1,354 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4Writer;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generates synthetic SIE 4E and 4I files of any size for benchmarks and soak tests. The output is
+ * determined by the settings and the seed, so the same generator always writes the same bytes.
+ *
+ * <p>The identification, accounts, dimensions and objects are built with
+ * {@link SIE4Document.Builder}, and the vouchers are streamed through a {@link SIE4Writer} one at a
+ * time, so memory use does not depend on the number of vouchers. The vouchers of a 4E file are
+ * generated twice: first to sum the movements per account for the {@code #UB} and {@code #RES}
+ * balances, then to write them. The balances therefore agree with the vouchers.
+ *
+ * <pre>{@code
+ * LedgerGenerator generator = LedgerGenerator.builder()
+ *         .seed(42)
+ *         .accounts(400)
+ *         .vouchers(10_000_000)
+ *         .build();
+ * generator.write(Path.of("large.se"));
+ * }</pre>
+ */
+public final class LedgerGenerator {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final String SPECIAL_CHARACTERS = "åäöÅÄÖéÉüÜ";
+    // accounts below this are balance accounts, the rest result accounts
+    private static final int FIRST_RESULT_ACCOUNT = 3000;
+
+    private final long seed;
+    private final int year;
+    private final int[] accountNos;
+    private final int dimensions;
+    private final int objectsPerDimension;
+    private final long vouchers;
+    private final int minTransactions;
+    private final int maxTransactions;
+    private final int minTextLength;
+    private final int maxTextLength;
+    private final double specialCharacterRatio;
+
+    private LedgerGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.year = builder.year;
+        this.accountNos = new int[builder.accounts];
+        for (int i = 0; i < accountNos.length; i++) {
+            accountNos[i] = 1000 + (int) ((long) i * 8000 / accountNos.length);
+        }
+        this.dimensions = builder.dimensions;
+        this.objectsPerDimension = builder.objectsPerDimension;
+        this.vouchers = builder.vouchers;
+        this.minTransactions = builder.minTransactions;
+        this.maxTransactions = builder.maxTransactions;
+        this.minTextLength = builder.minTextLength;
+        this.maxTextLength = builder.maxTextLength;
+        this.specialCharacterRatio = builder.specialCharacterRatio;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes a SIE 4E file to {@code path}, or a SIE 4I file without balances if {@code options}
+     * contains {@link SIE4.FileOptions#SIE4I}. With {@link SIE4.FileOptions#KSUMMA}, a checksum is
+     * written.
+     */
+    public void write(Path path, SIE4.FileOptions... options) {
+        Objects.requireNonNull(path, "path must not be null");
+        try (SIE4Writer writer = SIE4.writer(path, options)) {
+            write(writer, Arrays.asList(options).contains(SIE4.FileOptions.SIE4I));
+        }
+    }
+
+    /**
+     * Writes a SIE 4E or 4I file to {@code outputStream}, like {@link #write(Path, SIE4.FileOptions...)}.
+     * The stream is not closed.
+     */
+    public void write(OutputStream outputStream, SIE4.FileOptions... options) {
+        Objects.requireNonNull(outputStream, "outputStream must not be null");
+        try (SIE4Writer writer = SIE4.writer(outputStream, options)) {
+            write(writer, Arrays.asList(options).contains(SIE4.FileOptions.SIE4I));
+        }
+    }
+
+    private void write(SIE4Writer writer, boolean sie4i) {
+        long[] movements = null;
+        if (!sie4i) {
+            long[] sums = new long[accountNos.length];
+            forEachVoucher(ver -> {
+                for (SIE4Item.Transaction transaction : ver.transactions()) {
+                    int account = Arrays.binarySearch(accountNos, transaction.accountNo());
+                    sums[account] += transaction.amount().unscaledValue().longValueExact();
+                }
+            });
+            movements = sums;
+        }
+        for (SIE4Item item : header(movements).getItems()) {
+            writer.writeItem(item);
+        }
+        forEachVoucher(writer::writeItem);
+    }
+
+    /**
+     * Builds everything but the vouchers, with balances from {@code movements} in öre per account,
+     * or without balances if it is {@code null}.
+     */
+    private SIE4Document header(long[] movements) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SIE4Document.Builder builder = SIE4Document.builder()
+                .flagga(SIE4Item.Flagga.UNSET)
+                .program(new SIE4Item.Program("SIEPort LedgerGenerator", "1.0"))
+                .format(SIE4Item.Format.pc8())
+                .gen(new SIE4Item.Gen(LocalDate.of(year + 1, 1, 15), Optional.empty()))
+                .sietyp(SIE4Item.Sietyp.SIE_4)
+                .orgnr(String.format("55%04d-%04d", random.nextInt(10_000), random.nextInt(10_000)))
+                .fnamn(name(random) + " AB")
+                .addRar(new SIE4Item.Rar(YearNumber.CURRENT_YEAR, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)),
+                        new SIE4Item.Rar(YearNumber.PREV_YEAR, LocalDate.of(year - 1, 1, 1), LocalDate.of(year - 1, 12, 31)))
+                .kptyp("BAS2014")
+                .valuta("SEK");
+
+        List<SIE4Item.Konto> konto = new ArrayList<>(accountNos.length);
+        List<SIE4Item.Ktyp> ktyp = new ArrayList<>(accountNos.length);
+        for (int accountNo : accountNos) {
+            konto.add(new SIE4Item.Konto(accountNo, name(random)));
+            ktyp.add(new SIE4Item.Ktyp(accountNo, accountType(accountNo)));
+        }
+        builder.konto(konto).ktyp(ktyp);
+
+        for (int dimensionNo = 1; dimensionNo <= dimensions; dimensionNo++) {
+            builder.addDim(new SIE4Item.Dim(dimensionNo, name(random)));
+            for (int objectNo = 1; objectNo <= objectsPerDimension; objectNo++) {
+                builder.addObjekt(new SIE4Item.Objekt(dimensionNo, Integer.toString(objectNo), name(random)));
+            }
+        }
+
+        if (movements != null) {
+            List<SIE4Item.Ib> ib = new ArrayList<>();
+            List<SIE4Item.Ub> ub = new ArrayList<>();
+            List<SIE4Item.Res> res = new ArrayList<>();
+            for (int i = 0; i < accountNos.length; i++) {
+                if (accountNos[i] < FIRST_RESULT_ACCOUNT) {
+                    long opening = random.nextLong(-10_000_000, 10_000_000);
+                    ib.add(new SIE4Item.Ib(YearNumber.CURRENT_YEAR, accountNos[i], BigDecimal.valueOf(opening, 2), Optional.empty()));
+                    ub.add(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, accountNos[i], BigDecimal.valueOf(opening + movements[i], 2), Optional.empty()));
+                } else {
+                    res.add(new SIE4Item.Res(YearNumber.CURRENT_YEAR, accountNos[i], BigDecimal.valueOf(movements[i], 2), Optional.empty()));
+                }
+            }
+            builder.ib(ib).ub(ub).res(res);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Passes the vouchers to {@code consumer} in date order. Each call generates the same vouchers.
+     */
+    private void forEachVoucher(Consumer<SIE4Item.Ver> consumer) {
+        SplittableRandom random = new SplittableRandom(~seed);
+        LocalDate start = LocalDate.of(year, 1, 1);
+        int days = start.lengthOfYear();
+        for (long i = 0; i < vouchers; i++) {
+            LocalDate date = start.plusDays(i * days / vouchers);
+            int rows = random.nextInt(minTransactions, maxTransactions + 1);
+            List<SIE4Item.Transaction> transactions = new ArrayList<>(rows);
+            long balance = 0;
+            for (int row = 0; row < rows; row++) {
+                long amount = row < rows - 1 ? random.nextLong(-1_000_000, 1_000_000) : -balance;
+                balance += amount;
+                transactions.add(new SIE4Item.Transaction.Trans(accountNos[random.nextInt(accountNos.length)],
+                        BigDecimal.valueOf(amount, 2), objectReferences(random), Optional.empty(), Optional.empty(),
+                        Optional.empty(), Optional.empty()));
+            }
+            String text = text(random, random.nextInt(minTextLength, maxTextLength + 1));
+            consumer.accept(new SIE4Item.Ver(date, Optional.of("A"), Optional.of(Long.toString(i + 1)),
+                    text.isEmpty() ? Optional.empty() : Optional.of(text), Optional.of(date), Optional.empty(), transactions));
+        }
+    }
+
+    /** Returns a reference to a random object in about half of the dimensions. */
+    private List<ObjectReference> objectReferences(SplittableRandom random) {
+        if (dimensions == 0) {
+            return List.of();
+        }
+        List<ObjectReference> references = new ArrayList<>(dimensions);
+        for (int dimensionNo = 1; dimensionNo <= dimensions; dimensionNo++) {
+            if (random.nextBoolean()) {
+                references.add(ObjectReference.of(dimensionNo, Integer.toString(random.nextInt(objectsPerDimension) + 1)));
+            }
+        }
+        return references;
+    }
+
+    private String name(SplittableRandom random) {
+        return text(random, random.nextInt(Math.max(minTextLength, 1), Math.max(maxTextLength, 1) + 1));
+    }
+
+    /** Returns words of lowercase letters with some CP437 special characters, {@code length} long. */
+    private String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (i > 0 && i < length - 1 && text.charAt(i - 1) != ' ' && random.nextInt(6) == 0) {
+                text.append(' ');
+            } else if (random.nextDouble() < specialCharacterRatio) {
+                text.append(SPECIAL_CHARACTERS.charAt(random.nextInt(SPECIAL_CHARACTERS.length())));
+            } else {
+                text.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+        }
+        return text.toString();
+    }
+
+    private static SIE4Item.Ktyp.AccountType accountType(int accountNo) {
+        if (accountNo < 2000) {
+            return SIE4Item.Ktyp.AccountType.T;
+        } else if (accountNo < 3000) {
+            return SIE4Item.Ktyp.AccountType.S;
+        } else if (accountNo < 4000) {
+            return SIE4Item.Ktyp.AccountType.I;
+        }
+        return SIE4Item.Ktyp.AccountType.K;
+    }
+
+    /**
+     * Writes a SIE 4E file: {@code LedgerGenerator <file> [vouchers] [seed]}.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: LedgerGenerator <file> [vouchers] [seed]");
+            System.exit(1);
+        }
+        Builder builder = builder();
+        if (args.length > 1) {
+            builder.vouchers(Long.parseLong(args[1]));
+        }
+        if (args.length > 2) {
+            builder.seed(Long.parseLong(args[2]));
+        }
+        builder.build().write(Path.of(args[0]));
+    }
+
+    /**
+     * Settings of a {@link LedgerGenerator}. The defaults give a file of about 1 MB.
+     */
+    public static class Builder {
+        private long seed = 1;
+        private int year = 2024;
+        private int accounts = 200;
+        private int dimensions = 2;
+        private int objectsPerDimension = 20;
+        private long vouchers = 5_000;
+        private int minTransactions = 2;
+        private int maxTransactions = 8;
+        private int minTextLength = 0;
+        private int maxTextLength = 30;
+        private double specialCharacterRatio = 0.05;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** The current financial year, which is also the calendar year. */
+        public Builder year(int year) {
+            if (year < 1001 || year > 9998) {
+                throw new IllegalArgumentException("year must be between 1001 and 9998: " + year);
+            }
+            this.year = year;
+            return this;
+        }
+
+        /** The number of accounts, spread evenly over 1000 to 8999. */
+        public Builder accounts(int accounts) {
+            if (accounts < 1 || accounts > 8000) {
+                throw new IllegalArgumentException("accounts must be between 1 and 8000: " + accounts);
+            }
+            this.accounts = accounts;
+            return this;
+        }
+
+        /** The number of dimensions, and of objects in each. */
+        public Builder dimensions(int dimensions, int objectsPerDimension) {
+            if (dimensions < 0 || objectsPerDimension < 1) {
+                throw new IllegalArgumentException("dimensions must not be negative and objectsPerDimension must be positive");
+            }
+            this.dimensions = dimensions;
+            this.objectsPerDimension = objectsPerDimension;
+            return this;
+        }
+
+        public Builder vouchers(long vouchers) {
+            if (vouchers < 0) {
+                throw new IllegalArgumentException("vouchers must not be negative: " + vouchers);
+            }
+            this.vouchers = vouchers;
+            return this;
+        }
+
+        /** The range of the number of {@code #TRANS} rows per voucher, inclusive. */
+        public Builder transactionsPerVoucher(int min, int max) {
+            if (min < 2 || max < min) {
+                throw new IllegalArgumentException("transactions per voucher must be at least 2 and min must not exceed max");
+            }
+            this.minTransactions = min;
+            this.maxTransactions = max;
+            return this;
+        }
+
+        /** The range of the length of texts and names, inclusive. Names are at least one character. */
+        public Builder textLength(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("text length must not be negative and min must not exceed max");
+            }
+            this.minTextLength = min;
+            this.maxTextLength = max;
+            return this;
+        }
+
+        /** The share of text characters that are CP437 special characters such as å, ä and ö. */
+        public Builder specialCharacterRatio(double specialCharacterRatio) {
+            if (!(specialCharacterRatio >= 0 && specialCharacterRatio <= 1)) {
+                throw new IllegalArgumentException("specialCharacterRatio must be between 0 and 1: " + specialCharacterRatio);
+            }
+            this.specialCharacterRatio = specialCharacterRatio;
+            return this;
+        }
+
+        public LedgerGenerator build() {
+            return new LedgerGenerator(this);
+        }
+    }
+}
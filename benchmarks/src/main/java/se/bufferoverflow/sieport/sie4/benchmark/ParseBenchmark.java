@@ -0,0 +1,69 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Handler;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SIE4#parse(Path, SIE4.ParseOptions...)} into a document, sequentially and compact on
+ * several threads, and streamed to a {@link SIE4Handler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ParseBenchmark {
+
+    @Param({"sample", "10M", "100M", "1G"})
+    public String size;
+
+    private Path file;
+
+    @Setup
+    public void setUp() {
+        file = BenchmarkFiles.get(size);
+    }
+
+    @Benchmark
+    public SIE4Document parse() {
+        return SIE4.parse(file);
+    }
+
+    @Benchmark
+    public SIE4Document parseCompactParallel() {
+        return SIE4.parse(file, SIE4.ParseOptions.COMPACT, SIE4.ParseOptions.PARALLEL);
+    }
+
+    @Benchmark
+    public long parseWithHandler() {
+        TransCounter counter = new TransCounter();
+        SIE4.parse(file, counter);
+        return counter.count;
+    }
+
+    private static final class TransCounter implements SIE4Handler {
+        long count;
+
+        @Override
+        public void onTrans(SIE4Item.Transaction.Trans trans) {
+            count++;
+        }
+    }
+}
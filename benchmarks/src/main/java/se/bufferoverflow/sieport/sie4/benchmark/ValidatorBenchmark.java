@@ -0,0 +1,57 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.ledger.BalanceVerifier;
+import se.bufferoverflow.sieport.sie4.validator.ValidationError;
+import se.bufferoverflow.sieport.sie4.validator.Validator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SIE 4E rules of {@link Validator} over the items of a document, and
+ * {@link BalanceVerifier#verify(SIE4Document)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ValidatorBenchmark {
+
+    @Param({"sample", "10M", "100M", "1G"})
+    public String size;
+
+    private SIE4Document document;
+    private List<SIE4Item> items;
+
+    @Setup
+    public void setUp() {
+        document = SIE4.parse(BenchmarkFiles.get(size), SIE4.ParseOptions.COMPACT);
+        items = document.getItems();
+    }
+
+    @Benchmark
+    public List<ValidationError> validateSie4e() {
+        return Validator.validateSie4e(items);
+    }
+
+    @Benchmark
+    public List<ValidationError> verifyBalances() {
+        return BalanceVerifier.verify(document);
+    }
+}
@@ -0,0 +1,92 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.benchmark.BenchmarkFiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Fields#tokenize(byte[], int, int)} and {@link InFieldMapper#toModel(byte[], int, int)} for
+ * the lines of one label of the sample file, one line per operation, on the raw line bytes as the
+ * parser sees them. The cost of a line does not depend on the size of the file, so these are
+ * parameterized by label instead.
+ *
+ * <p>{@link #tokenizeFieldsLegacyString()} measures the legacy String API
+ * {@link AbstractFieldParser#tokenizeFields(String)}, which encodes the string and decodes every
+ * token; the parser does not use it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FieldParserBenchmark {
+
+    @Param({"KONTO", "KTYP", "SRU", "OBJEKT", "IB", "UB", "RES", "TRANS"})
+    public String label;
+
+    private byte[][] lines;
+    private int fieldsStart;
+    private String[] fields;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> matching;
+        try {
+            matching = Files.readAllLines(BenchmarkFiles.get(BenchmarkFiles.SAMPLE), SIE4.SIE4_CHARSET).stream()
+                    .map(String::strip)
+                    .filter(line -> line.startsWith("#" + label + " "))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (matching.isEmpty()) {
+            throw new IllegalStateException("The sample has no #" + label + " lines");
+        }
+        lines = matching.stream().map(line -> line.getBytes(SIE4.SIE4_CHARSET)).toArray(byte[][]::new);
+        // after the '#', the label and a space
+        fieldsStart = label.length() + 2;
+        fields = matching.stream().map(line -> line.substring(fieldsStart)).toArray(String[]::new);
+    }
+
+    private int nextLine() {
+        int line = next;
+        next = line + 1 == lines.length ? 0 : line + 1;
+        return line;
+    }
+
+    @Benchmark
+    public Object tokenize() {
+        byte[] line = lines[nextLine()];
+        return Fields.tokenize(line, fieldsStart, line.length);
+    }
+
+    @Benchmark
+    public List<String> tokenizeFieldsLegacyString() {
+        return AbstractFieldParser.tokenizeFields(fields[nextLine()]);
+    }
+
+    @Benchmark
+    public SIE4Item toModel() {
+        byte[] line = lines[nextLine()];
+        return InFieldMapper.toModel(line, 0, line.length);
+    }
+}
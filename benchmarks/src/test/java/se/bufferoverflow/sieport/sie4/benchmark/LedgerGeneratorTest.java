@@ -0,0 +1,86 @@
+package se.bufferoverflow.sieport.sie4.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.ledger.BalanceVerifier;
+import se.bufferoverflow.sieport.sie4.validator.Validator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerGeneratorTest {
+
+    private static LedgerGenerator.Builder small() {
+        return LedgerGenerator.builder()
+                .accounts(50)
+                .dimensions(2, 5)
+                .vouchers(500)
+                .transactionsPerVoucher(2, 6)
+                .textLength(0, 20)
+                .specialCharacterRatio(0.2);
+    }
+
+    private static byte[] bytes(LedgerGenerator generator, SIE4.FileOptions... options) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(out, options);
+        return out.toByteArray();
+    }
+
+    @Test
+    void write_sameSeed_writesSameBytes() {
+        assertThat(bytes(small().seed(7).build())).isEqualTo(bytes(small().seed(7).build()));
+        assertThat(bytes(small().seed(7).build())).isNotEqualTo(bytes(small().seed(8).build()));
+    }
+
+    @Test
+    void write_sie4e_isValidAndBalanced(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("generated.se");
+        small().build().write(file, SIE4.FileOptions.KSUMMA);
+
+        SIE4Document document = SIE4.parse(file, SIE4.ParseOptions.VALIDATE);
+
+        assertThat(document.getVer()).hasSize(500)
+                .allSatisfy(ver -> assertThat(ver.transactions()).hasSizeBetween(2, 6));
+        assertThat(document.getKonto()).hasSize(50);
+        assertThat(document.getObjekt()).hasSize(10);
+        assertThat(document.getIb()).isNotEmpty();
+        assertThat(BalanceVerifier.verify(document)).isEmpty();
+    }
+
+    @Test
+    void write_sie4i_hasNoBalances(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("generated.si");
+        small().build().write(file, SIE4.FileOptions.SIE4I);
+
+        SIE4Document document = SIE4.parse(file);
+
+        assertThat(Validator.validateSie4i(document.getItems())).isEmpty();
+        assertThat(document.getIb()).isEmpty();
+        assertThat(document.getVer()).hasSize(500);
+    }
+
+    @Test
+    void write_specialCharacters_areWrittenInCp437(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("generated.se");
+        small().specialCharacterRatio(1).build().write(file);
+
+        assertThat(new String(Files.readAllBytes(file), SIE4.SIE4_CHARSET)).containsAnyOf("å", "ä", "ö");
+        assertThat(SIE4.parse(file).getKonto()).extracting(SIE4Item.Konto::accountName)
+                .allSatisfy(name -> assertThat(name).matches("[åäöÅÄÖéÉüÜ ]+"));
+    }
+
+    @Test
+    void builder_invalidSettings_shouldThrow() {
+        assertThatThrownBy(() -> LedgerGenerator.builder().accounts(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LedgerGenerator.builder().transactionsPerVoucher(1, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LedgerGenerator.builder().textLength(5, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LedgerGenerator.builder().specialCharacterRatio(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
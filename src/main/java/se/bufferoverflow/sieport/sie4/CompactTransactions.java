@@ -0,0 +1,285 @@
+package se.bufferoverflow.sieport.sie4;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, primitive-backed list of the transactions of a {@link SIE4Item.Ver}, used when parsing
+ * with {@link SIE4.ParseOptions#COMPACT}.
+ *
+ * <p>The transactions of all vouchers in a file share one set of columns: amounts are stored as an
+ * unscaled {@code long} and a scale, dates as epoch days, absent optionals as {@code null} or a
+ * sentinel, and equal object reference lists and signatures are stored once. {@link #get(int)}
+ * materialises a {@link SIE4Item.Transaction} record on every call, so callers that only need
+ * account and amount should use {@link #accountNo(int)} and {@link #amountInMinorUnits(int)}.
+ *
+ * <p>The list is equal to any other list containing equal transactions.
+ */
+public final class CompactTransactions extends AbstractList<SIE4Item.Transaction> implements RandomAccess {
+
+    private final Store store;
+    private final int from;
+    private final int size;
+
+    private CompactTransactions(Store store, int from, int to) {
+        this.store = store;
+        this.from = from;
+        this.size = to - from;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public SIE4Item.Transaction get(int index) {
+        int row = row(index);
+        int accountNo = store.accounts[row];
+        BigDecimal amount = store.amount(row);
+        List<ObjectReference> objectReferences = store.objectReferences[row];
+        Optional<LocalDate> transactionDate = Optional.ofNullable(store.transactionDate(row));
+        Optional<String> text = Optional.ofNullable(store.texts[row]);
+        Optional<BigDecimal> quantity = Optional.ofNullable(store.quantities == null ? null : store.quantities[row]);
+        Optional<String> sign = Optional.ofNullable(store.signs[row]);
+        return switch (store.types[row]) {
+            case Store.TRANS -> new SIE4Item.Transaction.Trans(accountNo, amount, objectReferences, transactionDate, text, quantity, sign);
+            case Store.RTRANS -> new SIE4Item.Transaction.Rtrans(accountNo, amount, objectReferences, transactionDate, text, quantity, sign);
+            default -> new SIE4Item.Transaction.Btrans(accountNo, amount, objectReferences, transactionDate, text, quantity, sign);
+        };
+    }
+
+    /** Returns the item type, {@code TRANS}, {@code RTRANS} or {@code BTRANS}, of transaction {@code index}. */
+    public SIE4ItemType itemType(int index) {
+        return switch (store.types[row(index)]) {
+            case Store.TRANS -> SIE4ItemType.TRANS;
+            case Store.RTRANS -> SIE4ItemType.RTRANS;
+            default -> SIE4ItemType.BTRANS;
+        };
+    }
+
+    /** Returns the account number of transaction {@code index} without materialising it. */
+    public int accountNo(int index) {
+        return store.accounts[row(index)];
+    }
+
+    /** Returns the object references of transaction {@code index} without materialising it. */
+    public List<ObjectReference> objectReferences(int index) {
+        return store.objectReferences[row(index)];
+    }
+
+    /** Returns the transaction date of transaction {@code index} without materialising it. */
+    public Optional<LocalDate> transactionDate(int index) {
+        return Optional.ofNullable(store.transactionDate(row(index)));
+    }
+
+    /** Returns the text of transaction {@code index} without materialising it. */
+    public Optional<String> text(int index) {
+        return Optional.ofNullable(store.texts[row(index)]);
+    }
+
+    /** Returns the amount of transaction {@code index}. */
+    public BigDecimal amount(int index) {
+        return store.amount(row(index));
+    }
+
+    /**
+     * Returns the amount of transaction {@code index} in minor units, e.g. öre for SEK, without
+     * creating a {@link BigDecimal}.
+     *
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit in a {@code long}
+     */
+    public long amountInMinorUnits(int index) {
+        int row = row(index);
+        int scale = store.scales[row];
+        if (store.overflow != null && store.overflow[row] != null || scale > 2) {
+            return store.amount(row).movePointRight(2).longValueExact();
+        }
+        long unscaled = store.amounts[row];
+        return scale == 2 ? unscaled : Math.multiplyExact(unscaled, scale == 1 ? 10L : 100L);
+    }
+
+    /**
+     * The sum of the {@code TRANS} amounts, as {@link SIE4Item.Ver} requires it. Equal, including
+     * scale, to summing the materialised amounts with {@link BigDecimal#add(BigDecimal)}.
+     */
+    BigDecimal transactionSum() {
+        long sum = 0;
+        int scale = -1;
+        for (int row = from; row < from + size; row++) {
+            if (store.types[row] != Store.TRANS) {
+                continue;
+            }
+            if (store.overflow != null && store.overflow[row] != null
+                    || scale >= 0 && store.scales[row] != scale) {
+                return slowTransactionSum();
+            }
+            scale = store.scales[row];
+            long amount = store.amounts[row];
+            long result = sum + amount;
+            // overflow if both operands have the opposite sign of the result
+            if (((sum ^ result) & (amount ^ result)) < 0) {
+                return slowTransactionSum();
+            }
+            sum = result;
+        }
+        return scale < 0 ? BigDecimal.ZERO : BigDecimal.valueOf(sum, scale);
+    }
+
+    private BigDecimal slowTransactionSum() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int row = from; row < from + size; row++) {
+            if (store.types[row] == Store.TRANS) {
+                sum = sum.add(store.amount(row));
+            }
+        }
+        return sum;
+    }
+
+    private int row(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return from + index;
+    }
+
+    /**
+     * Column storage shared by the transaction lists of one parse. Rows are appended with
+     * {@link #add(SIE4Item.Transaction)} and handed out as immutable lists with {@link #listFrom(int)}.
+     * Not thread-safe.
+     */
+    static final class Store {
+        static final byte TRANS = 0;
+        static final byte RTRANS = 1;
+        static final byte BTRANS = 2;
+        static final int NO_DATE = Integer.MIN_VALUE;
+
+        private int size;
+        private byte[] types = new byte[64];
+        private int[] accounts = new int[64];
+        private long[] amounts = new long[64];
+        private byte[] scales = new byte[64];
+        private int[] transactionDates = new int[64];
+        private List<ObjectReference>[] objectReferences = newListArray(64);
+        private String[] texts = new String[64];
+        private String[] signs = new String[64];
+        // Allocated only for the rare values that do not fit the primitive columns, and for quantities
+        private BigDecimal[] overflow;
+        private LocalDate[] farDates;
+        private BigDecimal[] quantities;
+        private final Map<List<ObjectReference>, List<ObjectReference>> referenceLists = new HashMap<>();
+        private final Map<String, String> signatures = new HashMap<>();
+
+        /** Returns the number of rows, which is the start of the next list. */
+        int size() {
+            return size;
+        }
+
+        void add(SIE4Item.Transaction transaction) {
+            if (size == types.length) {
+                grow();
+            }
+            int row = size++;
+            types[row] = switch (transaction) {
+                case SIE4Item.Transaction.Trans ignored -> TRANS;
+                case SIE4Item.Transaction.Rtrans ignored -> RTRANS;
+                case SIE4Item.Transaction.Btrans ignored -> BTRANS;
+            };
+            accounts[row] = transaction.accountNo();
+            setAmount(row, transaction.amount());
+            setTransactionDate(row, transaction.transactionDate().orElse(null));
+            objectReferences[row] = transaction.objectReferences().isEmpty()
+                    ? List.of()
+                    : referenceLists.computeIfAbsent(transaction.objectReferences(), List::copyOf);
+            texts[row] = transaction.text().orElse(null);
+            signs[row] = transaction.sign().map(sign -> signatures.computeIfAbsent(sign, s -> s)).orElse(null);
+            if (transaction.quantity().isPresent()) {
+                if (quantities == null) {
+                    quantities = new BigDecimal[types.length];
+                }
+                quantities[row] = transaction.quantity().get();
+            }
+        }
+
+        /** Returns the rows from {@code from} up to the current size as an immutable list. */
+        CompactTransactions listFrom(int from) {
+            return new CompactTransactions(this, from, size);
+        }
+
+        BigDecimal amount(int row) {
+            if (overflow != null && overflow[row] != null) {
+                return overflow[row];
+            }
+            return BigDecimal.valueOf(amounts[row], scales[row]);
+        }
+
+        LocalDate transactionDate(int row) {
+            int epochDay = transactionDates[row];
+            if (epochDay != NO_DATE) {
+                return LocalDate.ofEpochDay(epochDay);
+            }
+            return farDates == null ? null : farDates[row];
+        }
+
+        private void setTransactionDate(int row, LocalDate date) {
+            transactionDates[row] = NO_DATE;
+            if (date == null) {
+                return;
+            }
+            long epochDay = date.toEpochDay();
+            if (epochDay > NO_DATE && epochDay <= Integer.MAX_VALUE) {
+                transactionDates[row] = (int) epochDay;
+                return;
+            }
+            if (farDates == null) {
+                farDates = new LocalDate[types.length];
+            }
+            farDates[row] = date;
+        }
+
+        private void setAmount(int row, BigDecimal amount) {
+            if (amount.scale() >= 0 && amount.scale() <= Byte.MAX_VALUE && amount.unscaledValue().bitLength() < Long.SIZE) {
+                amounts[row] = amount.unscaledValue().longValue();
+                scales[row] = (byte) amount.scale();
+                return;
+            }
+            if (overflow == null) {
+                overflow = new BigDecimal[types.length];
+            }
+            overflow[row] = amount;
+        }
+
+        private void grow() {
+            int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            accounts = Arrays.copyOf(accounts, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            scales = Arrays.copyOf(scales, capacity);
+            transactionDates = Arrays.copyOf(transactionDates, capacity);
+            objectReferences = Arrays.copyOf(objectReferences, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            signs = Arrays.copyOf(signs, capacity);
+            if (overflow != null) {
+                overflow = Arrays.copyOf(overflow, capacity);
+            }
+            if (farDates != null) {
+                farDates = Arrays.copyOf(farDates, capacity);
+            }
+            if (quantities != null) {
+                quantities = Arrays.copyOf(quantities, capacity);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<ObjectReference>[] newListArray(int capacity) {
+            return (List<ObjectReference>[]) new List<?>[capacity];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package se.bufferoverflow.sieport.sie4;
+
+import java.math.BigDecimal;
+
+/**
+ * Drives a {@link SIE4Handler} from the events of an {@link ItemScanner}.
+ */
+final class HandlerDriver {
+
+    private HandlerDriver() {
+    }
+
+    static void run(ItemScanner scanner, SIE4Handler handler) {
+        int transactionCount = 0;
+        BigDecimal sum = BigDecimal.ZERO;
+        while (true) {
+            switch (scanner.advance()) {
+                case ITEM -> dispatch(scanner.item(), handler);
+                case VER_START -> {
+                    transactionCount = 0;
+                    sum = BigDecimal.ZERO;
+                    handler.onVerStart(scanner.verHeader());
+                }
+                case TRANSACTION -> {
+                    transactionCount++;
+                    switch (scanner.item()) {
+                        case SIE4Item.Transaction.Trans trans -> {
+                            sum = sum.add(trans.amount());
+                            handler.onTrans(trans);
+                        }
+                        case SIE4Item.Transaction.Rtrans rtrans -> handler.onRtrans(rtrans);
+                        case SIE4Item.Transaction.Btrans btrans -> handler.onBtrans(btrans);
+                        default -> throw new IllegalStateException("Unexpected transaction: " + scanner.item());
+                    }
+                }
+                case VER_END -> {
+                    // Same checks as the SIE4Item.Ver constructor, without materialising the voucher
+                    if (transactionCount < 2) {
+                        throw new SIE4Exception("VER items must have at least two transactions");
+                    }
+                    if (sum.compareTo(BigDecimal.ZERO) != 0) {
+                        throw new SIE4Exception("VER transaction items must have a zero sum, was: " + sum);
+                    }
+                    handler.onVerEnd();
+                }
+                case END -> {
+                    handler.onEnd();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void dispatch(SIE4Item item, SIE4Handler handler) {
+        switch (item) {
+            case SIE4Item.Flagga it -> handler.onFlagga(it);
+            case SIE4Item.Program it -> handler.onProgram(it);
+            case SIE4Item.Format it -> handler.onFormat(it);
+            case SIE4Item.Gen it -> handler.onGen(it);
+            case SIE4Item.Sietyp it -> handler.onSietyp(it);
+            case SIE4Item.Prosa it -> handler.onProsa(it);
+            case SIE4Item.Ftyp it -> handler.onFtyp(it);
+            case SIE4Item.Fnr it -> handler.onFnr(it);
+            case SIE4Item.OrgNr it -> handler.onOrgnr(it);
+            case SIE4Item.Bkod it -> handler.onBkod(it);
+            case SIE4Item.Adress it -> handler.onAdress(it);
+            case SIE4Item.Fnamn it -> handler.onFnamn(it);
+            case SIE4Item.Rar it -> handler.onRar(it);
+            case SIE4Item.Taxar it -> handler.onTaxar(it);
+            case SIE4Item.Omfattn it -> handler.onOmfattn(it);
+            case SIE4Item.Kptyp it -> handler.onKptyp(it);
+            case SIE4Item.Valuta it -> handler.onValuta(it);
+            case SIE4Item.Konto it -> handler.onKonto(it);
+            case SIE4Item.Ktyp it -> handler.onKtyp(it);
+            case SIE4Item.Enhet it -> handler.onEnhet(it);
+            case SIE4Item.Sru it -> handler.onSru(it);
+            case SIE4Item.Dim it -> handler.onDim(it);
+            case SIE4Item.Underdim it -> handler.onUnderdim(it);
+            case SIE4Item.Objekt it -> handler.onObjekt(it);
+            case SIE4Item.Ib it -> handler.onIb(it);
+            case SIE4Item.Ub it -> handler.onUb(it);
+            case SIE4Item.Oib it -> handler.onOib(it);
+            case SIE4Item.Oub it -> handler.onOub(it);
+            case SIE4Item.Res it -> handler.onRes(it);
+            case SIE4Item.Psaldo it -> handler.onPsaldo(it);
+            case SIE4Item.Pbudget it -> handler.onPbudget(it);
+            default -> throw new IllegalStateException("Unexpected top-level item: " + item.itemType());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package se.bufferoverflow.sieport.sie4;
+
+import se.bufferoverflow.sieport.sie4.parser.InFieldMapper;
+import se.bufferoverflow.sieport.sie4.parser.SIE4LineReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Line-level scanner shared by {@link SIE4Reader} and the {@link SIE4Handler} driver. Turns the
+ * input into a flat sequence of {@link Event events}: top-level items, and for each {@code #VER}
+ * block a start event, one event per transaction and an end event. Lines are handed to the parser
+ * as raw CP437 bytes and nothing but the current line is retained. A {@code #KSUMMA} checksum is
+ * verified along the way.
+ */
+final class ItemScanner implements Closeable {
+
+    enum Event { ITEM, VER_START, TRANSACTION, VER_END, END }
+
+    private static final Logger LOG = Logger.getLogger(ItemScanner.class.getName());
+
+    private final SIE4LineReader reader;
+    private final Closeable owned;
+    private final KsummaVerifier ksumma;
+    private SIE4Item item;
+    private VerHeader verHeader;
+    // the #VER line of the current block, kept as bytes for error messages; -1 outside a block
+    private byte[] verLine = new byte[128];
+    private int verLineLength = -1;
+
+    ItemScanner(InputStream inputStream, boolean closeStream) {
+        this(new SIE4LineReader(Objects.requireNonNull(inputStream, "inputStream must not be null")),
+                closeStream ? inputStream : null);
+    }
+
+    /**
+     * @param reader the lines to scan
+     * @param owned closed together with the scanner, or {@code null}
+     */
+    ItemScanner(SIE4LineReader reader, Closeable owned) {
+        this(reader, owned, new KsummaVerifier());
+    }
+
+    /**
+     * @param ksumma verifies the {@code #KSUMMA} checksum, or {@code null} if the lines are only
+     *               part of a file and the caller verifies it
+     */
+    ItemScanner(SIE4LineReader reader, Closeable owned, KsummaVerifier ksumma) {
+        this.reader = reader;
+        this.owned = owned;
+        this.ksumma = ksumma;
+    }
+
+    /**
+     * Advances to the next event.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the data is malformed
+     */
+    Event advance() {
+        item = null;
+        try {
+            while (reader.nextLine()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                byte[] line = reader.buffer();
+                int start = reader.lineStart();
+                int end = reader.lineEnd();
+
+                if (ksumma != null && ksumma.accept(line, start, end)) {
+                    continue;
+                }
+
+                if (line[start] == '{') {
+                    continue;
+                }
+
+                if (line[start] == '}') {
+                    if (verLineLength < 0) {
+                        throw new SIE4Exception("Unexpected end of VER block without #VER: " + reader.lineAsString());
+                    }
+                    verLineLength = -1;
+                    return Event.VER_END;
+                }
+
+                if (isVerLine(line, start, end)) {
+                    if (verLineLength >= 0) {
+                        throw new SIE4Exception("Unclosed VER block before " + reader.lineAsString() + ": " + verLine());
+                    }
+                    verHeader = InFieldMapper.toVerHeader(line, start, end);
+                    if (verLine.length < end - start) {
+                        verLine = new byte[end - start];
+                    }
+                    System.arraycopy(line, start, verLine, 0, end - start);
+                    verLineLength = end - start;
+                    return Event.VER_START;
+                }
+
+                SIE4Item parsed = InFieldMapper.toModel(line, start, end);
+                if (parsed == null) {
+                    continue;
+                }
+                if (verLineLength >= 0) {
+                    if (!(parsed instanceof SIE4Item.Transaction)) {
+                        throw new SIE4Exception("All subItems must be transactions");
+                    }
+                    item = parsed;
+                    return Event.TRANSACTION;
+                }
+                if (parsed instanceof SIE4Item.Transaction) {
+                    LOG.warning("Skipping transaction item outside VER block: " + reader.lineAsString());
+                    continue;
+                }
+                item = parsed;
+                return Event.ITEM;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (verLineLength >= 0) {
+            throw new SIE4Exception("Unclosed VER block at end of file: " + verLine());
+        }
+        if (ksumma != null) {
+            ksumma.finish();
+        }
+        return Event.END;
+    }
+
+    private String verLine() {
+        return new String(verLine, 0, verLineLength, SIE4.SIE4_CHARSET);
+    }
+
+    /** The item of the current {@link Event#ITEM} or {@link Event#TRANSACTION} event. */
+    SIE4Item item() {
+        return item;
+    }
+
+    /** The header of the {@code #VER} block currently, or most recently, being scanned. */
+    VerHeader verHeader() {
+        return verHeader;
+    }
+
+    @Override
+    public void close() {
+        if (owned != null) {
+            try {
+                owned.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static boolean isVerLine(byte[] line, int start, int end) {
+        return end - start >= 4
+                && line[start] == '#'
+                && (line[start + 1] | 0x20) == 'v'
+                && (line[start + 2] | 0x20) == 'e'
+                && (line[start + 3] | 0x20) == 'r'
+                // no CP437 byte above 0x7F decodes to whitespace
+                && (end - start == 4 || Character.isWhitespace((char) (line[start + 4] & 0xFF)));
+    }
+}
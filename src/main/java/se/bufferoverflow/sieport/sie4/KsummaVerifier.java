@@ -0,0 +1,59 @@
+package se.bufferoverflow.sieport.sie4;
+
+import se.bufferoverflow.sieport.sie4.parser.KsummaChecksum;
+
+import java.util.logging.Logger;
+
+/**
+ * Verifies the {@code #KSUMMA} checksum of a file while its lines are scanned, so that no second
+ * pass over the file is needed. Every non-blank line must be passed to {@link #accept} in file
+ * order, followed by {@link #finish()} at the end of the file.
+ */
+final class KsummaVerifier {
+
+    private static final Logger LOG = Logger.getLogger(KsummaVerifier.class.getName());
+
+    // non-null between the opening and the closing #KSUMMA
+    private KsummaChecksum checksum;
+
+    /**
+     * Adds a line to the checksum, or verifies the checksum if it is the closing {@code #KSUMMA}.
+     *
+     * @return {@code true} if the line is a {@code #KSUMMA} item, which should not be parsed further
+     * @throws SIE4Exception if the checksum does not match
+     */
+    boolean accept(byte[] line, int start, int end) {
+        if (!KsummaChecksum.isKsummaLine(line, start, end)) {
+            if (checksum != null) {
+                checksum.update(line, start, end);
+            }
+            return false;
+        }
+        long expected = KsummaChecksum.value(line, start, end);
+        if (expected == KsummaChecksum.NO_VALUE) {
+            if (checksum != null) {
+                throw new SIE4Exception("Unexpected #KSUMMA without checksum inside a checksummed section");
+            }
+            checksum = new KsummaChecksum();
+        } else if (checksum == null) {
+            LOG.warning("Skipping #KSUMMA " + expected + " without a preceding #KSUMMA: checksum not verified");
+        } else {
+            if (checksum.getValue() != expected) {
+                throw new SIE4Exception("#KSUMMA checksum mismatch, file has " + expected + " but the content gives " + checksum.getValue());
+            }
+            checksum = null;
+        }
+        return true;
+    }
+
+    /**
+     * Called at the end of the file.
+     *
+     * @throws SIE4Exception if a checksum was started but never closed, as in a truncated file
+     */
+    void finish() {
+        if (checksum != null) {
+            throw new SIE4Exception("Missing closing #KSUMMA at end of file");
+        }
+    }
+}
@@ -1,8 +1,46 @@
 package se.bufferoverflow.sieport.sie4;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public record ObjectReference(int dimensionNo, String objectNo) {
+    // shared references per dimension 0 to CACHED_DIMENSIONS - 1, up to CACHE_LIMIT in total
+    private static final int CACHED_DIMENSIONS = 64;
+    private static final int CACHE_LIMIT = 16_384;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ConcurrentHashMap<String, ObjectReference>[] CACHE = new ConcurrentHashMap[CACHED_DIMENSIONS];
+    private static final AtomicInteger CACHE_SIZE = new AtomicInteger();
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the reference to object {@code objectNo} in dimension {@code dimensionNo}. References
+     * are shared instances until {@value #CACHE_LIMIT} distinct ones have been created, so objects
+     * that are referenced from many transactions take no extra memory.
+     */
     public static ObjectReference of(int dimensionNo, String objectNo) {
-        return new ObjectReference(dimensionNo, objectNo);
+        if (dimensionNo < 0 || dimensionNo >= CACHED_DIMENSIONS || objectNo == null) {
+            return new ObjectReference(dimensionNo, objectNo);
+        }
+        ConcurrentHashMap<String, ObjectReference> objects = CACHE[dimensionNo];
+        ObjectReference reference = objects.get(objectNo);
+        if (reference != null) {
+            return reference;
+        }
+        reference = new ObjectReference(dimensionNo, objectNo);
+        if (CACHE_SIZE.get() >= CACHE_LIMIT) {
+            return reference;
+        }
+        ObjectReference existing = objects.putIfAbsent(objectNo, reference);
+        if (existing != null) {
+            return existing;
+        }
+        CACHE_SIZE.incrementAndGet();
+        return reference;
     }
 
     @Override
@@ -0,0 +1,206 @@
+package se.bufferoverflow.sieport.sie4;
+
+import se.bufferoverflow.sieport.sie4.parser.SIE4LineReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Parses SIE4 data on several threads. The input is split sequentially into chunks of whole lines,
+ * cut only between {@code #VER} blocks, and each chunk is parsed by its own {@link SIE4Reader}.
+ * The results are joined in file order, so the items, and the first error thrown, are the same as
+ * for a sequential parse. The {@code #KSUMMA} checksum is verified while splitting. The chunks
+ * that are done can be joined during the split, so that the items can be checked before the whole
+ * input has been read.
+ *
+ * <p>Splitting is much faster than parsing, so the splitter waits for the oldest chunk before it
+ * submits another once a limit of chunks is in flight. Otherwise the raw bytes of most of the input
+ * would be queued in the executor next to the parsed items.
+ */
+final class ParallelParser {
+
+    static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private ParallelParser() {
+    }
+
+    static List<SIE4Item> parse(SIE4LineReader lines, int chunkSize, Executor executor, boolean compact) {
+        return parse(lines, chunkSize, executor, compact, null);
+    }
+
+    /**
+     * Parses with at most {@link #maxChunksInFlight(Executor)} chunks in flight.
+     *
+     * @param onItem called with each item in file order, as soon as the chunks before it have been
+     *               parsed, or {@code null}; an exception it throws stops the parse
+     */
+    static List<SIE4Item> parse(SIE4LineReader lines, int chunkSize, Executor executor, boolean compact,
+                                Consumer<SIE4Item> onItem) {
+        return parse(lines, chunkSize, maxChunksInFlight(executor), executor, compact, onItem);
+    }
+
+    /**
+     * @param maxChunksInFlight the number of chunks submitted but not yet joined, at most
+     * @param onItem called with each item in file order, as soon as the chunks before it have been
+     *               parsed, or {@code null}; an exception it throws stops the parse
+     */
+    static List<SIE4Item> parse(SIE4LineReader lines, int chunkSize, int maxChunksInFlight, Executor executor,
+                                boolean compact, Consumer<SIE4Item> onItem) {
+        Chunks chunks = new Chunks(executor, maxChunksInFlight, compact, onItem);
+        KsummaVerifier ksumma = new KsummaVerifier();
+        try {
+            byte[] chunk = new byte[chunkSize];
+            int length = 0;
+            boolean inVer = false;
+            while (lines.nextLine()) {
+                if (lines.isBlank()) {
+                    continue;
+                }
+                byte[] line = lines.buffer();
+                int start = lines.lineStart();
+                int end = lines.lineEnd();
+
+                try {
+                    ksumma.accept(line, start, end);
+                } catch (SIE4Exception e) {
+                    // a sequential parse reports errors in the lines before the checksum first
+                    if (length > 0) {
+                        chunks.submit(chunk, length);
+                    }
+                    chunks.join(true);
+                    throw e;
+                }
+
+                // Structural errors are left to the chunk parsers, which report them as usual
+                boolean unclosedVer = false;
+                if (ItemScanner.isVerLine(line, start, end)) {
+                    unclosedVer = inVer;
+                    inVer = true;
+                } else if (line[start] == '}') {
+                    inVer = false;
+                }
+
+                int needed = length + end - start + 1;
+                if (needed > chunk.length) {
+                    chunk = Arrays.copyOf(chunk, Math.max(needed, chunk.length * 2));
+                }
+                System.arraycopy(line, start, chunk, length, end - start);
+                length += end - start;
+                chunk[length++] = '\n';
+
+                if (unclosedVer) {
+                    // the chunk would otherwise grow until the end of the input, its parser reports the error
+                    chunks.submit(chunk, length);
+                    chunks.join(true);
+                    chunk = new byte[chunkSize];
+                    length = 0;
+                } else if (!inVer && length >= chunkSize) {
+                    chunks.submit(chunk, length);
+                    chunk = new byte[chunkSize];
+                    length = 0;
+                    if (onItem != null) {
+                        chunks.join(false);
+                    }
+                }
+            }
+            if (length > 0) {
+                chunks.submit(chunk, length);
+            }
+            ksumma.finish();
+        } catch (IOException e) {
+            chunks.join(true);
+            throw new UncheckedIOException(e);
+        }
+        return chunks.join(true);
+    }
+
+    /** Twice the parallelism of {@code executor}, so that every thread has a chunk ready. */
+    static int maxChunksInFlight(Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return 2 * Math.max(1, parallelism);
+    }
+
+    /** The submitted chunks, joined in file order. */
+    private static final class Chunks {
+        private final Executor executor;
+        private final int maxInFlight;
+        private final boolean compact;
+        private final Consumer<SIE4Item> onItem;
+        private final List<CompletableFuture<List<SIE4Item>>> futures = new ArrayList<>();
+        private final List<SIE4Item> items = new ArrayList<>();
+        private int joined;
+
+        Chunks(Executor executor, int maxInFlight, boolean compact, Consumer<SIE4Item> onItem) {
+            this.executor = executor;
+            this.maxInFlight = maxInFlight;
+            this.compact = compact;
+            this.onItem = onItem;
+        }
+
+        /** Submits a chunk, first waiting for the oldest ones while {@code maxInFlight} are in flight. */
+        void submit(byte[] chunk, int length) {
+            while (futures.size() - joined >= maxInFlight) {
+                joinNext();
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                List<SIE4Item> chunkItems = new ArrayList<>();
+                ItemScanner scanner = new ItemScanner(new SIE4LineReader(new ByteArrayInputStream(chunk, 0, length)), null, null);
+                try (SIE4Reader reader = new SIE4Reader(scanner, compact)) {
+                    reader.forEachRemaining(chunkItems::add);
+                }
+                return chunkItems;
+            }, executor));
+        }
+
+        /**
+         * Joins the chunks in order, waiting for each one if {@code wait}, otherwise only as long as
+         * the next one is done. Returns the items joined so far.
+         */
+        List<SIE4Item> join(boolean wait) {
+            while (joined < futures.size() && (wait || futures.get(joined).isDone())) {
+                joinNext();
+            }
+            return items;
+        }
+
+        private void joinNext() {
+            try {
+                List<SIE4Item> chunkItems = futures.get(joined).join();
+                if (onItem != null) {
+                    chunkItems.forEach(onItem);
+                }
+                items.addAll(chunkItems);
+                // the items are kept in order, the future with its own copy of them is not needed
+                futures.set(joined, null);
+                joined++;
+            } catch (CompletionException e) {
+                cancelRest();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            } catch (RuntimeException | Error e) {
+                cancelRest();
+                throw e;
+            }
+        }
+
+        private void cancelRest() {
+            futures.subList(joined + 1, futures.size()).forEach(future -> future.cancel(false));
+        }
+    }
+}
@@ -4,24 +4,65 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public record Period(int year, int month) {
 
     public static final DateTimeFormatter SIE4_PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
 
+    // periods of the years FIRST_CACHED_YEAR to LAST_CACHED_YEAR, created on first use
+    private static final int FIRST_CACHED_YEAR = 1900;
+    private static final int LAST_CACHED_YEAR = 2199;
+    private static final AtomicReferenceArray<Period> CACHE = new AtomicReferenceArray<>((LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1) * 12);
+
     public Period {
         ChronoField.YEAR.checkValidValue(year);
         ChronoField.MONTH_OF_YEAR.checkValidValue(month);
     }
 
+    /**
+     * Returns the period {@code year}-{@code month}. Periods from 1900 to 2199 are shared instances.
+     */
     public static Period of(int year, int month) {
-        return new Period(year, month);
+        if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR || month < 1 || month > 12) {
+            return new Period(year, month);
+        }
+        int index = (year - FIRST_CACHED_YEAR) * 12 + month - 1;
+        Period period = CACHE.getPlain(index);
+        if (period == null) {
+            Period created = new Period(year, month);
+            period = CACHE.compareAndExchange(index, null, created);
+            if (period == null) {
+                period = created;
+            }
+        }
+        return period;
     }
 
+    /**
+     * Parses a period in the form {@code yyyyMM}. Six digits within the cached years are read
+     * directly; anything else goes through {@link #SIE4_PERIOD_FORMATTER}.
+     */
     public static Period of(String periodString) {
         if (periodString == null || periodString.isBlank()) {
             throw new SIE4Exception("Period string cannot be null or blank");
         }
+        if (periodString.length() == 6) {
+            int value = 0;
+            int i = 0;
+            for (; i < 6; i++) {
+                int digit = periodString.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            int year = value / 100;
+            int month = value % 100;
+            if (i == 6 && year >= FIRST_CACHED_YEAR && year <= LAST_CACHED_YEAR && month >= 1 && month <= 12) {
+                return Period.of(year, month);
+            }
+        }
         TemporalAccessor accessor = SIE4_PERIOD_FORMATTER.parse(periodString);
         return Period.of(accessor.get(ChronoField.YEAR), accessor.get(ChronoField.MONTH_OF_YEAR));
     }
@@ -1,31 +1,32 @@
 package se.bufferoverflow.sieport.sie4;
 
 import se.bufferoverflow.sieport.sie4.parser.InFieldMapper;
+import se.bufferoverflow.sieport.sie4.parser.SIE4LineReader;
 import se.bufferoverflow.sieport.sie4.validator.ValidationError;
 import se.bufferoverflow.sieport.sie4.validator.Validator;
-import se.bufferoverflow.sieport.sie4.writer.OutFieldMapper;
+import se.bufferoverflow.sieport.sie4.writer.SIE4LineWriter;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Comparator;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -57,8 +58,6 @@ public class SIE4 {
     /** Date formatter for the {@code yyyyMMdd} pattern used throughout the SIE4 format. */
     public static final DateTimeFormatter SIE4_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
 
-    private static final Logger LOG = Logger.getLogger(SIE4.class.getName());
-
     private SIE4() {
     }
 
@@ -71,8 +70,21 @@ public class SIE4 {
      * @throws SIE4Exception if the file is malformed
      */
     public static SIE4Document parse(Path path) {
+        return parse(path, new ParseOptions[0]);
+    }
+
+    /**
+     * Parses a SIE4 file at the given path.
+     *
+     * @param path path to the SIE4 file
+     * @param options optional {@link ParseOptions}
+     * @return the parsed document
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the file is malformed
+     */
+    public static SIE4Document parse(Path path, ParseOptions... options) {
         Objects.requireNonNull(path, "path must not be null");
-        return parse(path.toFile());
+        return parse(path.toFile(), options);
     }
 
     /**
@@ -84,12 +96,21 @@ public class SIE4 {
      * @throws SIE4Exception if the file is malformed
      */
     public static SIE4Document parse(File file) {
+        return parse(file, new ParseOptions[0]);
+    }
+
+    /**
+     * Parses a SIE4 file.
+     *
+     * @param file the SIE4 file
+     * @param options optional {@link ParseOptions}
+     * @return the parsed document
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the file is malformed
+     */
+    public static SIE4Document parse(File file, ParseOptions... options) {
         Objects.requireNonNull(file, "file must not be null");
-        try (var is = new FileInputStream(file)) {
-            return parse(is);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return withLineReader(file, options, lines -> parse(lines, options));
     }
 
     /**
@@ -102,49 +123,168 @@ public class SIE4 {
      * @throws SIE4Exception if the data is malformed
      */
     public static SIE4Document parse(InputStream inputStream) {
+        return parse(inputStream, new ParseOptions[0]);
+    }
+
+    /**
+     * Parses SIE4 data from an input stream. The stream is <em>not</em> closed by this method;
+     * the caller is responsible for closing it. {@link ParseOptions#MEMORY_MAP} does not apply to a
+     * stream and is ignored.
+     *
+     * @param inputStream the stream to read from; must be encoded in {@link #SIE4_CHARSET}
+     * @param options optional {@link ParseOptions}
+     * @return the parsed document
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the data is malformed
+     */
+    public static SIE4Document parse(InputStream inputStream, ParseOptions... options) {
         Objects.requireNonNull(inputStream, "inputStream must not be null");
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, SIE4_CHARSET));
-            List<String> verBuffer = new ArrayList<>();
-            List<SIE4Item> result = new ArrayList<>();
+        return parse(new SIE4LineReader(inputStream), options);
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmedLine = line.strip();
+    /**
+     * Parses a SIE4 file at the given path, reporting each item to {@code handler} as it is read
+     * instead of building a {@link SIE4Document}.
+     *
+     * @param path path to the SIE4 file
+     * @param handler receives the parsed items in file order
+     * @param options optional {@link ParseOptions}
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the file is malformed
+     * @see SIE4Handler
+     */
+    public static void parse(Path path, SIE4Handler handler, ParseOptions... options) {
+        Objects.requireNonNull(path, "path must not be null");
+        parse(path.toFile(), handler, options);
+    }
 
-                if (trimmedLine.isEmpty()) {
-                    continue;
-                }
+    /**
+     * Parses a SIE4 file, reporting each item to {@code handler} as it is read instead of building
+     * a {@link SIE4Document}.
+     *
+     * @param file the SIE4 file
+     * @param handler receives the parsed items in file order
+     * @param options optional {@link ParseOptions}
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the file is malformed
+     * @see SIE4Handler
+     */
+    public static void parse(File file, SIE4Handler handler, ParseOptions... options) {
+        Objects.requireNonNull(file, "file must not be null");
+        Objects.requireNonNull(handler, "handler must not be null");
+        withLineReader(file, options, lines -> {
+            HandlerDriver.run(new ItemScanner(lines, null), handler);
+            return null;
+        });
+    }
 
-                if (trimmedLine.startsWith("#VER")) {
-                    verBuffer.add(trimmedLine);
-                } else if (trimmedLine.startsWith("}")) {
-                    result.add(InFieldMapper.toModel(verBuffer));
-                    verBuffer.clear();
-                } else if (!trimmedLine.startsWith("{")) {
-                    if (!verBuffer.isEmpty()) {
-                        verBuffer.add(trimmedLine);
-                    } else {
-                        SIE4Item item = InFieldMapper.toModel(trimmedLine);
-                        if (item instanceof SIE4Item.Transaction) {
-                            LOG.warning("Skipping transaction item outside VER block: " + trimmedLine);
-                        } else if (item != null) {
-                            result.add(item);
-                        }
-                    }
-                }
-            }
+    /**
+     * Parses SIE4 data from an input stream, reporting each item to {@code handler} as it is read
+     * instead of building a {@link SIE4Document}. The stream is <em>not</em> closed by this method.
+     *
+     * @param inputStream the stream to read from; must be encoded in {@link #SIE4_CHARSET}
+     * @param handler receives the parsed items in file order
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the data is malformed
+     * @see SIE4Handler
+     */
+    public static void parse(InputStream inputStream, SIE4Handler handler) {
+        Objects.requireNonNull(inputStream, "inputStream must not be null");
+        Objects.requireNonNull(handler, "handler must not be null");
+        try (ItemScanner scanner = new ItemScanner(inputStream, false)) {
+            HandlerDriver.run(scanner, handler);
+        }
+    }
 
-            if (!verBuffer.isEmpty()) {
-                throw new SIE4Exception("Unclosed VER block at end of file: " + verBuffer.getFirst());
-            }
+    /**
+     * Opens a streaming {@link SIE4Reader} over the SIE4 file at the given path. The reader owns
+     * the file and must be closed by the caller.
+     *
+     * @param path path to the SIE4 file
+     * @return a reader positioned before the first item
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static SIE4Reader reader(Path path) {
+        Objects.requireNonNull(path, "path must not be null");
+        return reader(path.toFile());
+    }
+
+    /**
+     * Opens a streaming {@link SIE4Reader} over a SIE4 file. The reader owns the file and must be
+     * closed by the caller.
+     *
+     * @param file the SIE4 file
+     * @return a reader positioned before the first item
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static SIE4Reader reader(File file) {
+        Objects.requireNonNull(file, "file must not be null");
+        try {
+            return new SIE4Reader(new FileInputStream(file), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a streaming {@link SIE4Reader} over SIE4 data from an input stream. The stream is
+     * <em>not</em> closed by the reader; the caller is responsible for closing it.
+     *
+     * @param inputStream the stream to read from; must be encoded in {@link #SIE4_CHARSET}
+     * @return a reader positioned before the first item
+     */
+    public static SIE4Reader reader(InputStream inputStream) {
+        return new SIE4Reader(inputStream, false);
+    }
+
+    /**
+     * Opens a streaming {@link SIE4Writer} that writes to the file at the given path, replacing any
+     * existing file. The writer owns the file and must be closed by the caller.
+     *
+     * @param path path to the SIE4 file
+     * @param options optional {@link FileOptions}; only {@link FileOptions#KSUMMA} applies, as the
+     *                streaming writer does not validate
+     * @return a writer positioned at the start of the file
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static SIE4Writer writer(Path path, FileOptions... options) {
+        Objects.requireNonNull(path, "path must not be null");
+        return writer(path.toFile(), options);
+    }
 
-            return SIE4Document.from(result);
+    /**
+     * Opens a streaming {@link SIE4Writer} that writes to a file, replacing any existing file. The
+     * writer owns the file and must be closed by the caller.
+     *
+     * @param file the SIE4 file
+     * @param options optional {@link FileOptions}; only {@link FileOptions#KSUMMA} applies
+     * @return a writer positioned at the start of the file
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static SIE4Writer writer(File file, FileOptions... options) {
+        Objects.requireNonNull(file, "file must not be null");
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            return new SIE4Writer(new SIE4LineWriter(channel), channel, Arrays.asList(options).contains(FileOptions.KSUMMA));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Creates a streaming {@link SIE4Writer} that writes to an output stream. Closing the writer
+     * flushes it but does <em>not</em> close the stream; the caller is responsible for closing it.
+     *
+     * @param outputStream the stream to write to; will be written using {@link #SIE4_CHARSET}
+     * @param options optional {@link FileOptions}; only {@link FileOptions#KSUMMA} applies
+     * @return a writer positioned at the current position of the stream
+     */
+    public static SIE4Writer writer(OutputStream outputStream, FileOptions... options) {
+        Objects.requireNonNull(outputStream, "outputStream must not be null");
+        return new SIE4Writer(new SIE4LineWriter(outputStream), null, Arrays.asList(options).contains(FileOptions.KSUMMA));
+    }
+
     /**
      * Writes SIE4 items to a file, sorted in the order required by the SIE4 specification.
      * Validation is performed before the file is opened, so an existing file is never
@@ -184,8 +324,8 @@ public class SIE4 {
         Path tmp = null;
         try {
             tmp = Files.createTempFile(parent != null ? parent : Path.of("."), ".sie4-", ".tmp");
-            try (var os = new FileOutputStream(tmp.toFile())) {
-                write(os, items, FileOptions.SKIP_VALIDATION);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                writeSorted(new SIE4LineWriter(channel), items, options);
             }
             Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             tmp = null;
@@ -240,15 +380,33 @@ public class SIE4 {
         Objects.requireNonNull(items, "items must not be null");
         validateItems(items, options);
 
-        PrintWriter writer = new PrintWriter(outputStream, true, SIE4_CHARSET);
-        items.stream()
-                .sorted(Comparator.comparingInt(item -> item.itemType().ordinal()))
-                .forEach(item -> writer.println(OutFieldMapper.toFileString(item)));
-        if (writer.checkError()) {
-            throw new UncheckedIOException(new IOException("I/O error occurred while writing SIE4 data"));
+        try {
+            writeSorted(new SIE4LineWriter(outputStream), items, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
+    private static void writeSorted(SIE4LineWriter writer, List<SIE4Item> items, FileOptions... options) throws IOException {
+        List<SIE4Item> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt(item -> item.itemType().ordinal()));
+        boolean checksum = Arrays.asList(options).contains(FileOptions.KSUMMA);
+        int i = 0;
+        while (i < sorted.size() && sorted.get(i).itemType() == SIE4ItemType.FLAGGA) {
+            writer.writeItem(sorted.get(i++));
+        }
+        if (checksum) {
+            writer.beginChecksum();
+        }
+        for (; i < sorted.size(); i++) {
+            writer.writeItem(sorted.get(i));
+        }
+        if (checksum) {
+            writer.endChecksum();
+        }
+        writer.flush();
+    }
+
     /**
      * Validates a {@link SIE4Document} without writing, returning any validation errors found.
      *
@@ -281,6 +439,64 @@ public class SIE4 {
                 : Validator.validateSie4e(items);
     }
 
+    private static SIE4Document parse(SIE4LineReader lines, ParseOptions... options) {
+        List<ParseOptions> opts = Arrays.asList(options);
+        boolean compact = opts.contains(ParseOptions.COMPACT);
+        Validator.Validation validation = startValidation(opts);
+        Consumer<SIE4Item> check = validation == null ? null : item -> {
+            validation.accept(item);
+            if (!validation.errors().isEmpty()) {
+                throw validationFailed(validation.errors());
+            }
+        };
+        List<SIE4Item> result;
+        if (opts.contains(ParseOptions.PARALLEL)) {
+            result = ParallelParser.parse(lines, ParallelParser.DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(), compact, check);
+        } else {
+            result = new ArrayList<>();
+            try (SIE4Reader reader = new SIE4Reader(new ItemScanner(lines, null), compact)) {
+                reader.forEachRemaining(check == null ? result::add : item -> {
+                    check.accept(item);
+                    result.add(item);
+                });
+            }
+        }
+        if (validation != null) {
+            List<ValidationError> errors = validation.finish();
+            if (!errors.isEmpty()) {
+                throw validationFailed(errors);
+            }
+        }
+        return SIE4Document.from(result);
+    }
+
+    private static Validator.Validation startValidation(List<ParseOptions> opts) {
+        boolean sie4e = opts.contains(ParseOptions.VALIDATE);
+        boolean sie4i = opts.contains(ParseOptions.VALIDATE_SIE4I);
+        if (sie4e && sie4i) {
+            throw new IllegalArgumentException("VALIDATE and VALIDATE_SIE4I cannot be combined");
+        }
+        if (sie4e) {
+            return Validator.sie4e().startFailFast();
+        }
+        return sie4i ? Validator.sie4i().startFailFast() : null;
+    }
+
+    private static <T> T withLineReader(File file, ParseOptions[] options, Function<SIE4LineReader, T> action) {
+        try {
+            if (Arrays.asList(options).contains(ParseOptions.MEMORY_MAP)) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    return action.apply(new SIE4LineReader(channel));
+                }
+            }
+            try (var is = new FileInputStream(file)) {
+                return action.apply(new SIE4LineReader(is));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static void validateItems(List<SIE4Item> items, FileOptions... options) {
         List<FileOptions> opts = Arrays.asList(options);
         if (!opts.contains(FileOptions.SKIP_VALIDATION)) {
@@ -288,13 +504,16 @@ public class SIE4 {
                     ? Validator.validateSie4i(items)
                     : Validator.validateSie4e(items);
             if (!errors.isEmpty()) {
-                String message = "Validation failed: " + errors.stream().map(Object::toString)
-                        .collect(Collectors.joining(", "));
-                throw new SIE4Exception(message);
+                throw validationFailed(errors);
             }
         }
     }
 
+    private static SIE4Exception validationFailed(List<ValidationError> errors) {
+        return new SIE4Exception("Validation failed: " + errors.stream().map(Object::toString)
+                .collect(Collectors.joining(", ")));
+    }
+
     public enum FileOptions {
         /**
          * Treat the file as SIE 4I (transaction import), rather than the default SIE 4E (full export).
@@ -304,6 +523,54 @@ public class SIE4 {
         /**
          * Skip validation checks against the SIE standard.
          */
-        SKIP_VALIDATION
+        SKIP_VALIDATION,
+        /**
+         * Add a {@code #KSUMMA} CRC-32 checksum: an opening {@code #KSUMMA} after {@code #FLAGGA}
+         * and a closing {@code #KSUMMA} with the checksum of the items in between last in the file.
+         * Parsing verifies the checksum of any file that has one.
+         */
+        KSUMMA
+    }
+
+    public enum ParseOptions {
+        /**
+         * Memory-map the file instead of reading it through a stream. Lines are scanned directly
+         * from the page cache without {@code read} system calls, which pays off for large files
+         * that are parsed repeatedly. The mapping is released when it is garbage collected, so on
+         * some platforms the file cannot be deleted until then. Only applies when parsing a file.
+         */
+        MEMORY_MAP,
+        /**
+         * Parse the file on several threads of the common {@link ForkJoinPool}. The input is split
+         * into chunks between {@code #VER} blocks, which are parsed concurrently and reassembled in
+         * file order; the result and any {@link SIE4Exception} are the same as for a sequential
+         * parse. Only applies when building a {@link SIE4Document}; a {@link SIE4Handler} is always
+         * called sequentially.
+         */
+        PARALLEL,
+        /**
+         * Store the transactions of all vouchers in shared primitive columns instead of one record
+         * per transaction, which takes a fraction of the memory for large ledgers. The transaction
+         * lists of the parsed {@link SIE4Item.Ver} items are then {@link CompactTransactions}, which
+         * create the transaction records on access. Only applies when building a {@link SIE4Document}.
+         */
+        COMPACT,
+        /**
+         * Validate the items against the SIE 4E rules while parsing, like
+         * {@link SIE4#validate(SIE4Document, FileOptions...)}, and throw {@link SIE4Exception} at the
+         * first error, as soon as it is certain: at a {@code #FLAGGA 1}, or at the end of the section
+         * of the file that lacks a mandatory item. This avoids parsing the rest of an invalid file.
+         * The ends of the sections are only certain while the sections come in order: after an item
+         * of an earlier section, e.g. an {@code #ORGNR} after a {@code #KONTO}, the rest of the file
+         * is checked at its end, see {@link Validator#startFailFast()}.
+         * With {@link #PARALLEL}, the items are checked as the chunks before them are done. Only
+         * applies when building a {@link SIE4Document}.
+         */
+        VALIDATE,
+        /**
+         * Like {@link #VALIDATE}, but with the SIE 4I rules, which also reject a forbidden item, such
+         * as {@code #IB}, at once.
+         */
+        VALIDATE_SIE4I
     }
 }
@@ -2,8 +2,9 @@ package se.bufferoverflow.sieport.sie4;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -50,6 +51,45 @@ public class SIE4Document {
     private final List<SIE4Item.Pbudget> pbudget;
     private final List<SIE4Item.Ver> ver;
 
+    // The items of each type, indexed by SIE4ItemType ordinal, and all items flattened on first use
+    private final List<?>[] itemsByType = new List<?>[SIE4ItemType.VER.ordinal() + 1];
+    private List<SIE4Item> items;
+
+    private static final Map<Class<?>, SIE4ItemType> ITEM_TYPES = Map.ofEntries(
+            Map.entry(SIE4Item.Flagga.class, SIE4ItemType.FLAGGA),
+            Map.entry(SIE4Item.Program.class, SIE4ItemType.PROGRAM),
+            Map.entry(SIE4Item.Format.class, SIE4ItemType.FORMAT),
+            Map.entry(SIE4Item.Gen.class, SIE4ItemType.GEN),
+            Map.entry(SIE4Item.Sietyp.class, SIE4ItemType.SIETYP),
+            Map.entry(SIE4Item.Prosa.class, SIE4ItemType.PROSA),
+            Map.entry(SIE4Item.Ftyp.class, SIE4ItemType.FTYP),
+            Map.entry(SIE4Item.Fnr.class, SIE4ItemType.FNR),
+            Map.entry(SIE4Item.OrgNr.class, SIE4ItemType.ORGNR),
+            Map.entry(SIE4Item.Bkod.class, SIE4ItemType.BKOD),
+            Map.entry(SIE4Item.Adress.class, SIE4ItemType.ADRESS),
+            Map.entry(SIE4Item.Fnamn.class, SIE4ItemType.FNAMN),
+            Map.entry(SIE4Item.Rar.class, SIE4ItemType.RAR),
+            Map.entry(SIE4Item.Taxar.class, SIE4ItemType.TAXAR),
+            Map.entry(SIE4Item.Omfattn.class, SIE4ItemType.OMFATTN),
+            Map.entry(SIE4Item.Kptyp.class, SIE4ItemType.KPTYP),
+            Map.entry(SIE4Item.Valuta.class, SIE4ItemType.VALUTA),
+            Map.entry(SIE4Item.Konto.class, SIE4ItemType.KONTO),
+            Map.entry(SIE4Item.Ktyp.class, SIE4ItemType.KTYP),
+            Map.entry(SIE4Item.Enhet.class, SIE4ItemType.ENHET),
+            Map.entry(SIE4Item.Sru.class, SIE4ItemType.SRU),
+            Map.entry(SIE4Item.Dim.class, SIE4ItemType.DIM),
+            Map.entry(SIE4Item.Underdim.class, SIE4ItemType.UNDERDIM),
+            Map.entry(SIE4Item.Objekt.class, SIE4ItemType.OBJEKT),
+            Map.entry(SIE4Item.Ib.class, SIE4ItemType.IB),
+            Map.entry(SIE4Item.Ub.class, SIE4ItemType.UB),
+            Map.entry(SIE4Item.Oib.class, SIE4ItemType.OIB),
+            Map.entry(SIE4Item.Oub.class, SIE4ItemType.OUB),
+            Map.entry(SIE4Item.Res.class, SIE4ItemType.RES),
+            Map.entry(SIE4Item.Psaldo.class, SIE4ItemType.PSALDO),
+            Map.entry(SIE4Item.Pbudget.class, SIE4ItemType.PBUDGET),
+            Map.entry(SIE4Item.Ver.class, SIE4ItemType.VER)
+    );
+
     /**
      * Constructs a {@code SIE4Document} from a flat list of parsed items. No defaults are applied;
      * the document reflects the source items exactly.
@@ -58,50 +98,98 @@ public class SIE4Document {
      * @throws SIE4Exception if more than one item of any singleton type is present
      */
     public static SIE4Document from(List<SIE4Item> items) {
+        // One pass over the items, dispatching each on its type; transactions and KSUMMA have no
+        // place at document level and are ignored, as are nulls
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<SIE4Item>[] buckets = new List[SIE4ItemType.VER.ordinal() + 1];
+        for (SIE4Item item : items) {
+            if (item == null) {
+                continue;
+            }
+            int ordinal = item.itemType().ordinal();
+            if (ordinal < buckets.length) {
+                if (buckets[ordinal] == null) {
+                    buckets[ordinal] = new ArrayList<>(ordinal == SIE4ItemType.VER.ordinal() ? 1024 : 16);
+                }
+                buckets[ordinal].add(item);
+            }
+        }
+
         return new SIE4Document(
-                findItem(items, SIE4Item.Flagga.class).orElse(null),
-                findItem(items, SIE4Item.Program.class).orElse(null),
-                findItem(items, SIE4Item.Format.class).orElse(null),
-                findItem(items, SIE4Item.Gen.class).orElse(null),
-                findItem(items, SIE4Item.Sietyp.class).orElse(null),
-                findItem(items, SIE4Item.Prosa.class).orElse(null),
-                findItem(items, SIE4Item.Ftyp.class).orElse(null),
-                findItem(items, SIE4Item.Fnr.class).orElse(null),
-                findItem(items, SIE4Item.OrgNr.class).orElse(null),
-                findItem(items, SIE4Item.Bkod.class).orElse(null),
-                findItem(items, SIE4Item.Adress.class).orElse(null),
-                findItem(items, SIE4Item.Fnamn.class).orElse(null),
-                findItems(items, SIE4Item.Rar.class),
-                findItem(items, SIE4Item.Taxar.class).orElse(null),
-                findItem(items, SIE4Item.Omfattn.class).orElse(null),
-                findItem(items, SIE4Item.Kptyp.class).orElse(null),
-                findItem(items, SIE4Item.Valuta.class).orElse(null),
-                findItems(items, SIE4Item.Konto.class),
-                findItems(items, SIE4Item.Ktyp.class),
-                findItems(items, SIE4Item.Enhet.class),
-                findItems(items, SIE4Item.Sru.class),
-                findItems(items, SIE4Item.Dim.class),
-                findItems(items, SIE4Item.Underdim.class),
-                findItems(items, SIE4Item.Objekt.class),
-                findItems(items, SIE4Item.Ib.class),
-                findItems(items, SIE4Item.Ub.class),
-                findItems(items, SIE4Item.Oib.class),
-                findItems(items, SIE4Item.Oub.class),
-                findItems(items, SIE4Item.Res.class),
-                findItems(items, SIE4Item.Psaldo.class),
-                findItems(items, SIE4Item.Pbudget.class),
-                findItems(items, SIE4Item.Ver.class)
+                single(buckets, SIE4ItemType.FLAGGA, SIE4Item.Flagga.class),
+                single(buckets, SIE4ItemType.PROGRAM, SIE4Item.Program.class),
+                single(buckets, SIE4ItemType.FORMAT, SIE4Item.Format.class),
+                single(buckets, SIE4ItemType.GEN, SIE4Item.Gen.class),
+                single(buckets, SIE4ItemType.SIETYP, SIE4Item.Sietyp.class),
+                single(buckets, SIE4ItemType.PROSA, SIE4Item.Prosa.class),
+                single(buckets, SIE4ItemType.FTYP, SIE4Item.Ftyp.class),
+                single(buckets, SIE4ItemType.FNR, SIE4Item.Fnr.class),
+                single(buckets, SIE4ItemType.ORGNR, SIE4Item.OrgNr.class),
+                single(buckets, SIE4ItemType.BKOD, SIE4Item.Bkod.class),
+                single(buckets, SIE4ItemType.ADRESS, SIE4Item.Adress.class),
+                single(buckets, SIE4ItemType.FNAMN, SIE4Item.Fnamn.class),
+                bucket(buckets, SIE4ItemType.RAR),
+                single(buckets, SIE4ItemType.TAXAR, SIE4Item.Taxar.class),
+                single(buckets, SIE4ItemType.OMFATTN, SIE4Item.Omfattn.class),
+                single(buckets, SIE4ItemType.KPTYP, SIE4Item.Kptyp.class),
+                single(buckets, SIE4ItemType.VALUTA, SIE4Item.Valuta.class),
+                bucket(buckets, SIE4ItemType.KONTO),
+                bucket(buckets, SIE4ItemType.KTYP),
+                bucket(buckets, SIE4ItemType.ENHET),
+                bucket(buckets, SIE4ItemType.SRU),
+                bucket(buckets, SIE4ItemType.DIM),
+                bucket(buckets, SIE4ItemType.UNDERDIM),
+                bucket(buckets, SIE4ItemType.OBJEKT),
+                bucket(buckets, SIE4ItemType.IB),
+                bucket(buckets, SIE4ItemType.UB),
+                bucket(buckets, SIE4ItemType.OIB),
+                bucket(buckets, SIE4ItemType.OUB),
+                bucket(buckets, SIE4ItemType.RES),
+                bucket(buckets, SIE4ItemType.PSALDO),
+                bucket(buckets, SIE4ItemType.PBUDGET),
+                bucket(buckets, SIE4ItemType.VER)
         );
     }
 
+    private static <T extends SIE4Item> T single(List<SIE4Item>[] buckets, SIE4ItemType type, Class<T> clazz) {
+        List<SIE4Item> found = buckets[type.ordinal()];
+        if (found == null) {
+            return null;
+        }
+        if (found.size() > 1) {
+            throw new SIE4Exception("Expected at most one #" + clazz.getSimpleName().toUpperCase()
+                    + " item, found " + found.size());
+        }
+        return clazz.cast(found.getFirst());
+    }
+
+    /** Hands the bucket over as an unmodifiable view, without copying it. */
+    @SuppressWarnings("unchecked")
+    private static <T extends SIE4Item> List<T> bucket(List<SIE4Item>[] buckets, SIE4ItemType type) {
+        List<SIE4Item> found = buckets[type.ordinal()];
+        return found == null ? List.of() : (List<T>) Collections.unmodifiableList(found);
+    }
+
     /**
      * Retrieves all items of the specified type.
      *
      * @param clazz the type of SIE4Item to be retrieved
      * @return items requested, or empty list if none found
      */
+    @SuppressWarnings("unchecked")
     public <T extends SIE4Item> List<T> getItems(Class<T> clazz) {
-        return findItems(getItems(), clazz);
+        SIE4ItemType type = ITEM_TYPES.get(clazz);
+        if (type != null) {
+            return (List<T>) itemsByType[type.ordinal()];
+        }
+        // a supertype such as SIE4Item itself
+        List<T> found = new ArrayList<>();
+        for (SIE4Item item : getItems()) {
+            if (clazz.isInstance(item)) {
+                found.add(clazz.cast(item));
+            }
+        }
+        return Collections.unmodifiableList(found);
     }
 
     /**
@@ -113,7 +201,12 @@ public class SIE4Document {
      * @throws SIE4Exception if there is more than one item of the specified class type
      */
     public <T extends SIE4Item> Optional<T> getItem(Class<T> clazz) {
-        return findItem(getItems(), clazz);
+        List<T> found = getItems(clazz);
+        if (found.size() > 1) {
+            throw new SIE4Exception("Expected at most one #" + clazz.getSimpleName().toUpperCase()
+                    + " item, found " + found.size());
+        }
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.getFirst());
     }
 
     /**
@@ -148,59 +241,23 @@ public class SIE4Document {
      * @return an immutable list of all items present in this document
      */
     public List<SIE4Item> getItems() {
-        List<SIE4Item> result = new ArrayList<>();
-        result.add(flagga);
-        result.add(program);
-        result.add(format);
-        result.add(gen);
-        result.add(sietyp);
-        result.add(prosa);
-        result.add(ftyp);
-        result.add(fnr);
-        result.add(orgnr);
-        result.add(bkod);
-        result.add(adress);
-        result.add(fnamn);
-        result.addAll(rar);
-        result.add(taxar);
-        result.add(omfattn);
-        result.add(kptyp);
-        result.add(valuta);
-        result.addAll(konto);
-        result.addAll(ktyp);
-        result.addAll(enhet);
-        result.addAll(sru);
-        result.addAll(dim);
-        result.addAll(underdim);
-        result.addAll(objekt);
-        result.addAll(ib);
-        result.addAll(ub);
-        result.addAll(oib);
-        result.addAll(oub);
-        result.addAll(res);
-        result.addAll(psaldo);
-        result.addAll(pbudget);
-        result.addAll(ver);
-        return result.stream().filter(Objects::nonNull).toList();
-    }
-
-    private static <T extends SIE4Item> Optional<T> findItem(List<SIE4Item> items, Class<T> clazz) {
-        List<T> found = items.stream()
-                .filter(clazz::isInstance)
-                .map(clazz::cast)
-                .toList();
-        if (found.size() > 1) {
-            throw new SIE4Exception("Expected at most one #" + clazz.getSimpleName().toUpperCase()
-                    + " item, found " + found.size());
+        // Racy single-check: the list is immutable, so computing it twice on a race is harmless
+        List<SIE4Item> result = items;
+        if (result == null) {
+            int size = 0;
+            for (List<?> typeItems : itemsByType) {
+                size += typeItems.size();
+            }
+            List<SIE4Item> flattened = new ArrayList<>(size);
+            for (List<?> typeItems : itemsByType) {
+                for (Object item : typeItems) {
+                    flattened.add((SIE4Item) item);
+                }
+            }
+            result = Collections.unmodifiableList(flattened);
+            items = result;
         }
-        return found.stream().findFirst();
-    }
-
-    private static <T extends SIE4Item> List<T> findItems(List<SIE4Item> items, Class<T> clazz) {
-        return items.stream()
-                .filter(clazz::isInstance)
-                .map(clazz::cast)
-                .toList();
+        return result;
     }
 
     public SIE4Item.Flagga getFlagga() {
@@ -331,6 +388,7 @@ public class SIE4Document {
         return ver;
     }
 
+    // The lists must be non-null and unmodifiable, they are used as they are
     @SuppressWarnings("java:S107")
     private SIE4Document(SIE4Item.Flagga flagga,
                          SIE4Item.Program program,
@@ -376,26 +434,63 @@ public class SIE4Document {
         this.bkod = bkod;
         this.adress = adress;
         this.fnamn = fnamn;
-        this.rar = rar == null ? List.of() : List.copyOf(rar);
+        this.rar = rar;
         this.taxar = taxar;
         this.omfattn = omfattn;
         this.kptyp = kptyp;
         this.valuta = valuta;
-        this.konto = konto == null ? List.of() : List.copyOf(konto);
-        this.ktyp = ktyp == null ? List.of() : List.copyOf(ktyp);
-        this.enhet = enhet == null ? List.of() : List.copyOf(enhet);
-        this.sru = sru == null ? List.of() : List.copyOf(sru);
-        this.dim = dim == null ? List.of() : List.copyOf(dim);
-        this.underdim = underdim == null ? List.of() : List.copyOf(underdim);
-        this.objekt = objekt == null ? List.of() : List.copyOf(objekt);
-        this.ib = ib == null ? List.of() : List.copyOf(ib);
-        this.ub = ub == null ? List.of() : List.copyOf(ub);
-        this.oib = oib == null ? List.of() : List.copyOf(oib);
-        this.oub = oub == null ? List.of() : List.copyOf(oub);
-        this.res = res == null ? List.of() : List.copyOf(res);
-        this.psaldo = psaldo == null ? List.of() : List.copyOf(psaldo);
-        this.pbudget = pbudget == null ? List.of() : List.copyOf(pbudget);
-        this.ver = ver == null ? List.of() : List.copyOf(ver);
+        this.konto = konto;
+        this.ktyp = ktyp;
+        this.enhet = enhet;
+        this.sru = sru;
+        this.dim = dim;
+        this.underdim = underdim;
+        this.objekt = objekt;
+        this.ib = ib;
+        this.ub = ub;
+        this.oib = oib;
+        this.oub = oub;
+        this.res = res;
+        this.psaldo = psaldo;
+        this.pbudget = pbudget;
+        this.ver = ver;
+
+        index(SIE4ItemType.FLAGGA, flagga);
+        index(SIE4ItemType.PROGRAM, program);
+        index(SIE4ItemType.FORMAT, format);
+        index(SIE4ItemType.GEN, gen);
+        index(SIE4ItemType.SIETYP, sietyp);
+        index(SIE4ItemType.PROSA, prosa);
+        index(SIE4ItemType.FTYP, ftyp);
+        index(SIE4ItemType.FNR, fnr);
+        index(SIE4ItemType.ORGNR, orgnr);
+        index(SIE4ItemType.BKOD, bkod);
+        index(SIE4ItemType.ADRESS, adress);
+        index(SIE4ItemType.FNAMN, fnamn);
+        itemsByType[SIE4ItemType.RAR.ordinal()] = this.rar;
+        index(SIE4ItemType.TAXAR, taxar);
+        index(SIE4ItemType.OMFATTN, omfattn);
+        index(SIE4ItemType.KPTYP, kptyp);
+        index(SIE4ItemType.VALUTA, valuta);
+        itemsByType[SIE4ItemType.KONTO.ordinal()] = this.konto;
+        itemsByType[SIE4ItemType.KTYP.ordinal()] = this.ktyp;
+        itemsByType[SIE4ItemType.ENHET.ordinal()] = this.enhet;
+        itemsByType[SIE4ItemType.SRU.ordinal()] = this.sru;
+        itemsByType[SIE4ItemType.DIM.ordinal()] = this.dim;
+        itemsByType[SIE4ItemType.UNDERDIM.ordinal()] = this.underdim;
+        itemsByType[SIE4ItemType.OBJEKT.ordinal()] = this.objekt;
+        itemsByType[SIE4ItemType.IB.ordinal()] = this.ib;
+        itemsByType[SIE4ItemType.UB.ordinal()] = this.ub;
+        itemsByType[SIE4ItemType.OIB.ordinal()] = this.oib;
+        itemsByType[SIE4ItemType.OUB.ordinal()] = this.oub;
+        itemsByType[SIE4ItemType.RES.ordinal()] = this.res;
+        itemsByType[SIE4ItemType.PSALDO.ordinal()] = this.psaldo;
+        itemsByType[SIE4ItemType.PBUDGET.ordinal()] = this.pbudget;
+        itemsByType[SIE4ItemType.VER.ordinal()] = this.ver;
+    }
+
+    private void index(SIE4ItemType type, SIE4Item item) {
+        itemsByType[type.ordinal()] = item == null ? List.of() : List.of(item);
     }
 
     /**
@@ -804,26 +899,30 @@ public class SIE4Document {
                 bkod,
                 adress,
                 fnamn,
-                rar,
+                immutableCopy(rar),
                 taxar,
                 omfattn,
                 kptyp,
                 valuta,
-                konto,
-                ktyp,
-                enhet,
-                sru,
-                dim,
-                underdim,
-                objekt,
-                ib,
-                ub,
-                oib,
-                oub,
-                res,
-                psaldo,
-                pbudget,
-                ver);
+                immutableCopy(konto),
+                immutableCopy(ktyp),
+                immutableCopy(enhet),
+                immutableCopy(sru),
+                immutableCopy(dim),
+                immutableCopy(underdim),
+                immutableCopy(objekt),
+                immutableCopy(ib),
+                immutableCopy(ub),
+                immutableCopy(oib),
+                immutableCopy(oub),
+                immutableCopy(res),
+                immutableCopy(psaldo),
+                immutableCopy(pbudget),
+                immutableCopy(ver));
+        }
+
+        private static <T> List<T> immutableCopy(List<T> list) {
+            return list == null ? List.of() : List.copyOf(list);
         }
     }
 }
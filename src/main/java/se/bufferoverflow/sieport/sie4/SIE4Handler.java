@@ -0,0 +1,146 @@
+package se.bufferoverflow.sieport.sie4;
+
+/**
+ * Push-style callback interface for SIE4 parsing, driven by
+ * {@link SIE4#parse(java.io.InputStream, SIE4Handler)}.
+ *
+ * <p>Each top-level item is reported through the callback for its label as soon as its line has
+ * been parsed. A {@code #VER} block is reported as {@link #onVerStart(VerHeader)}, one callback per
+ * {@code #TRANS}/{@code #RTRANS}/{@code #BTRANS} line, and {@link #onVerEnd()}; no
+ * {@link SIE4Item.Ver} or transaction list is built. The parser still rejects vouchers with fewer
+ * than two transactions or a non-zero {@code #TRANS} sum, after the transactions have been reported
+ * and before {@link #onVerEnd()} is called.
+ *
+ * <p>All methods have empty default implementations, so handlers only override the callbacks they
+ * are interested in:
+ * <pre>{@code
+ * Map<Integer, BigDecimal> turnover = new HashMap<>();
+ * SIE4.parse(Path.of("company.se"), new SIE4Handler() {
+ *     @Override
+ *     public void onTrans(SIE4Item.Transaction.Trans trans) {
+ *         turnover.merge(trans.accountNo(), trans.amount().abs(), BigDecimal::add);
+ *     }
+ * });
+ * }</pre>
+ *
+ * <p>Exceptions thrown from a callback abort the parse and propagate to the caller.
+ */
+public interface SIE4Handler {
+
+    default void onFlagga(SIE4Item.Flagga flagga) {
+    }
+
+    default void onProgram(SIE4Item.Program program) {
+    }
+
+    default void onFormat(SIE4Item.Format format) {
+    }
+
+    default void onGen(SIE4Item.Gen gen) {
+    }
+
+    default void onSietyp(SIE4Item.Sietyp sietyp) {
+    }
+
+    default void onProsa(SIE4Item.Prosa prosa) {
+    }
+
+    default void onFtyp(SIE4Item.Ftyp ftyp) {
+    }
+
+    default void onFnr(SIE4Item.Fnr fnr) {
+    }
+
+    default void onOrgnr(SIE4Item.OrgNr orgnr) {
+    }
+
+    default void onBkod(SIE4Item.Bkod bkod) {
+    }
+
+    default void onAdress(SIE4Item.Adress adress) {
+    }
+
+    default void onFnamn(SIE4Item.Fnamn fnamn) {
+    }
+
+    default void onRar(SIE4Item.Rar rar) {
+    }
+
+    default void onTaxar(SIE4Item.Taxar taxar) {
+    }
+
+    default void onOmfattn(SIE4Item.Omfattn omfattn) {
+    }
+
+    default void onKptyp(SIE4Item.Kptyp kptyp) {
+    }
+
+    default void onValuta(SIE4Item.Valuta valuta) {
+    }
+
+    default void onKonto(SIE4Item.Konto konto) {
+    }
+
+    default void onKtyp(SIE4Item.Ktyp ktyp) {
+    }
+
+    default void onEnhet(SIE4Item.Enhet enhet) {
+    }
+
+    default void onSru(SIE4Item.Sru sru) {
+    }
+
+    default void onDim(SIE4Item.Dim dim) {
+    }
+
+    default void onUnderdim(SIE4Item.Underdim underdim) {
+    }
+
+    default void onObjekt(SIE4Item.Objekt objekt) {
+    }
+
+    default void onIb(SIE4Item.Ib ib) {
+    }
+
+    default void onUb(SIE4Item.Ub ub) {
+    }
+
+    default void onOib(SIE4Item.Oib oib) {
+    }
+
+    default void onOub(SIE4Item.Oub oub) {
+    }
+
+    default void onRes(SIE4Item.Res res) {
+    }
+
+    default void onPsaldo(SIE4Item.Psaldo psaldo) {
+    }
+
+    default void onPbudget(SIE4Item.Pbudget pbudget) {
+    }
+
+    /** Called for a {@code #VER} line, before any of the voucher's transactions. */
+    default void onVerStart(VerHeader header) {
+    }
+
+    /** Called for each {@code #TRANS} line within the current voucher. */
+    default void onTrans(SIE4Item.Transaction.Trans trans) {
+    }
+
+    /** Called for each {@code #RTRANS} line within the current voucher. */
+    default void onRtrans(SIE4Item.Transaction.Rtrans rtrans) {
+    }
+
+    /** Called for each {@code #BTRANS} line within the current voucher. */
+    default void onBtrans(SIE4Item.Transaction.Btrans btrans) {
+    }
+
+    /** Called when the current voucher's closing brace has been read and the voucher is balanced. */
+    default void onVerEnd() {
+    }
+
+    /** Called once after the last item of the input has been reported. */
+    default void onEnd() {
+    }
+}
@@ -2,7 +2,9 @@ package se.bufferoverflow.sieport.sie4;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -87,6 +89,19 @@ public sealed interface SIE4Item {
             }
         }
 
+        /**
+         * Returns {@link #UNSET} or {@link #SET}.
+         *
+         * @throws SIE4Exception if {@code flag} is neither 0 nor 1
+         */
+        public static Flagga of(int flag) {
+            return switch (flag) {
+                case 0 -> UNSET;
+                case 1 -> SET;
+                default -> new Flagga(flag);
+            };
+        }
+
         @Override
         public SIE4ItemType itemType() {
             return SIE4ItemType.FLAGGA;
@@ -433,7 +448,7 @@ public sealed interface SIE4Item {
         }
 
         public static Sietyp of(int typeNo) {
-            return new Sietyp(typeNo);
+            return typeNo == 4 ? SIE_4 : new Sietyp(typeNo);
         }
     }
 
@@ -525,11 +540,18 @@ public sealed interface SIE4Item {
             if (transactions == null || transactions.size() < 2) {
                 throw new SIE4Exception("VER items must have at least two transactions");
             }
-            BigDecimal sum = transactions.stream().filter(t -> t instanceof Transaction.Trans).map(Transaction::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal sum = switch (transactions) {
+                case CompactTransactions compact -> compact.transactionSum();
+                case TransactionList list -> list.transactionSum();
+                default -> transactions.stream().filter(t -> t instanceof Transaction.Trans).map(Transaction::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            };
             if (sum.compareTo(BigDecimal.ZERO) != 0) {
                 throw new SIE4Exception("VER transaction items must have a zero sum, was: " + sum);
             }
-            transactions = List.copyOf(transactions);
+            // both are already immutable, and copying CompactTransactions would materialise every transaction
+            if (!(transactions instanceof CompactTransactions) && !(transactions instanceof TransactionList)) {
+                transactions = List.copyOf(transactions);
+            }
         }
 
         @Override
@@ -548,6 +570,57 @@ public sealed interface SIE4Item {
         public static Ver of(LocalDate date, List<Transaction> transactions) {
             return new Ver(date, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), transactions);
         }
+
+        /**
+         * Returns a builder for a voucher with the fields of {@code header}.
+         */
+        public static Builder builder(VerHeader header) {
+            return new Builder(header);
+        }
+
+        /**
+         * Assembles a voucher one transaction at a time, as the lines of a {@code #VER} block are
+         * parsed. The {@code #TRANS} amounts are summed as they are added, so {@link #build()} neither
+         * sums nor copies the transactions again. A builder builds a single voucher.
+         */
+        public static final class Builder {
+            private final VerHeader header;
+            private Transaction[] transactions = new Transaction[4];
+            private int size;
+            private BigDecimal sum = BigDecimal.ZERO;
+
+            private Builder(VerHeader header) {
+                this.header = Objects.requireNonNull(header, "header must not be null");
+            }
+
+            public Builder add(Transaction transaction) {
+                Objects.requireNonNull(transaction, "transaction must not be null");
+                if (transactions == null) {
+                    throw new IllegalStateException("Voucher has already been built");
+                }
+                if (size == transactions.length) {
+                    transactions = Arrays.copyOf(transactions, size * 2);
+                }
+                transactions[size++] = transaction;
+                if (transaction instanceof Transaction.Trans) {
+                    sum = sum.add(transaction.amount());
+                }
+                return this;
+            }
+
+            /**
+             * @throws SIE4Exception if the transactions do not form a valid voucher
+             * @throws IllegalStateException if the voucher has already been built
+             */
+            public Ver build() {
+                if (transactions == null) {
+                    throw new IllegalStateException("Voucher has already been built");
+                }
+                Transaction[] built = size == transactions.length ? transactions : Arrays.copyOf(transactions, size);
+                transactions = null;
+                return header.toVer(new TransactionList(built, sum));
+            }
+        }
     }
 
     /**
@@ -40,4 +40,29 @@ public enum SIE4ItemType {
     RTRANS,
     BTRANS,
     KSUMMA;
+
+    /**
+     * The sections of a SIE4 file, in file order. The items of a section may come in any order
+     * within it, e.g. {@code #SRU} after each {@code #KONTO}.
+     */
+    public enum Section {
+        IDENTIFICATION,
+        ACCOUNTS,
+        BALANCES,
+        VOUCHERS
+    }
+
+    /** The section of the file this item type belongs to. {@code #KSUMMA} counts as a voucher item. */
+    public Section section() {
+        if (ordinal() < KONTO.ordinal()) {
+            return Section.IDENTIFICATION;
+        }
+        if (ordinal() < IB.ordinal()) {
+            return Section.ACCOUNTS;
+        }
+        if (ordinal() < VER.ordinal()) {
+            return Section.BALANCES;
+        }
+        return Section.VOUCHERS;
+    }
 }
@@ -0,0 +1,133 @@
+package se.bufferoverflow.sieport.sie4;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming pull-parser for SIE4 data, returning one {@link SIE4Item} at a time in file order.
+ *
+ * <p>Unlike {@link SIE4#parse(InputStream)}, the reader never holds more than a single item in
+ * memory: top-level items are parsed line by line, and the transactions of a {@code #VER} block are
+ * collected only until its closing brace, after which the block is returned as a complete
+ * {@link SIE4Item.Ver}. Memory use is therefore bounded by the largest voucher in the file rather
+ * than by the size of the file.
+ *
+ * <pre>{@code
+ * try (SIE4Reader reader = SIE4.reader(Path.of("company.se"))) {
+ *     while (reader.hasNext()) {
+ *         if (reader.next() instanceof SIE4Item.Ver ver) {
+ *             ...
+ *         }
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>Instances are not thread-safe. Obtain them through {@link SIE4#reader(java.nio.file.Path)},
+ * {@link SIE4#reader(java.io.File)} or {@link SIE4#reader(InputStream)}.
+ */
+public final class SIE4Reader implements Iterator<SIE4Item>, Closeable {
+
+    private final ItemScanner scanner;
+    private SIE4Item.Ver.Builder ver;
+    private final CompactTransactions.Store compactStore;
+    private int verStart;
+    private SIE4Item nextItem;
+    private boolean endOfInput;
+
+    SIE4Reader(InputStream inputStream, boolean closeStream) {
+        this(new ItemScanner(inputStream, closeStream), false);
+    }
+
+    /**
+     * @param compact collect the transactions of all vouchers into shared {@link CompactTransactions}
+     *                columns. The items can be read on the parsing thread while the reader runs, but
+     *                the columns grow without synchronization, so the items must not be shared with
+     *                other threads until the reader is exhausted
+     */
+    SIE4Reader(ItemScanner scanner, boolean compact) {
+        this.scanner = scanner;
+        this.compactStore = compact ? new CompactTransactions.Store() : null;
+    }
+
+    /**
+     * Returns {@code true} if there are more items in the input.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the data is malformed
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextItem == null && !endOfInput) {
+            nextItem = readItem();
+        }
+        return nextItem != null;
+    }
+
+    /**
+     * Returns the next item in file order. {@code #VER} items are returned complete with all of
+     * their transactions.
+     *
+     * @throws NoSuchElementException if there are no more items
+     * @throws UncheckedIOException if an I/O error occurs
+     * @throws SIE4Exception if the data is malformed
+     */
+    @Override
+    public SIE4Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SIE4Item item = nextItem;
+        nextItem = null;
+        return item;
+    }
+
+    /**
+     * Closes the underlying file if this reader was opened from a path or file. A reader created
+     * from an {@link InputStream} leaves closing the stream to the caller.
+     */
+    @Override
+    public void close() {
+        endOfInput = true;
+        nextItem = null;
+        scanner.close();
+    }
+
+    private SIE4Item readItem() {
+        while (true) {
+            switch (scanner.advance()) {
+                case ITEM -> {
+                    return scanner.item();
+                }
+                case VER_START -> {
+                    if (compactStore != null) {
+                        verStart = compactStore.size();
+                    } else {
+                        ver = SIE4Item.Ver.builder(scanner.verHeader());
+                    }
+                }
+                case TRANSACTION -> {
+                    if (compactStore != null) {
+                        compactStore.add((SIE4Item.Transaction) scanner.item());
+                    } else {
+                        ver.add((SIE4Item.Transaction) scanner.item());
+                    }
+                }
+                case VER_END -> {
+                    if (compactStore != null) {
+                        return scanner.verHeader().toVer(compactStore.listFrom(verStart));
+                    }
+                    SIE4Item.Ver built = ver.build();
+                    ver = null;
+                    return built;
+                }
+                case END -> {
+                    endOfInput = true;
+                    return null;
+                }
+            }
+        }
+    }
+}
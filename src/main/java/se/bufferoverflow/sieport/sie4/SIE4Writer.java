@@ -0,0 +1,132 @@
+package se.bufferoverflow.sieport.sie4;
+
+import se.bufferoverflow.sieport.sie4.writer.SIE4LineWriter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Streaming writer for SIE4 data, writing one {@link SIE4Item} at a time.
+ *
+ * <p>Unlike {@link SIE4#write(OutputStream, java.util.List, SIE4.FileOptions...)}, the writer does not
+ * need all items up front and does not sort them. Items must instead be written section by section,
+ * in the order of {@link SIE4ItemType.Section}, with {@code #FLAGGA} first; within a section, items
+ * may come in any order, e.g. a {@code #SRU} after each {@code #KONTO}. An item that belongs in a
+ * section before that of an item already written is rejected. Nothing but the current item is held
+ * in memory, so exports of any number of {@code #VER} blocks run in constant memory.
+ *
+ * <pre>{@code
+ * try (SIE4Writer writer = SIE4.writer(Path.of("company.se"))) {
+ *     writer.writeItem(SIE4Item.Flagga.UNSET);
+ *     ...
+ *     for (SIE4Item.Ver ver : vouchers) {
+ *         writer.writeItem(ver);
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>With {@link SIE4.FileOptions#KSUMMA}, the opening {@code #KSUMMA} is written before the first
+ * item that is not {@code #FLAGGA}, and the closing {@code #KSUMMA} with the checksum on
+ * {@link #close()}.
+ *
+ * <p>The items are not validated against the SIE4 specification. Instances are not thread-safe.
+ * Obtain them through {@link SIE4#writer(java.nio.file.Path)}, {@link SIE4#writer(java.io.File)} or
+ * {@link SIE4#writer(OutputStream)}.
+ */
+public final class SIE4Writer implements Closeable, Flushable {
+
+    private final SIE4LineWriter lines;
+    private final Closeable owned;
+    private final boolean checksum;
+    private boolean checksumStarted;
+    private SIE4ItemType lastType;
+    private boolean closed;
+
+    /**
+     * @param lines the writer to write to
+     * @param owned closed together with this writer, or {@code null} if the caller closes the output
+     * @param checksum write a {@code #KSUMMA} checksum
+     */
+    SIE4Writer(SIE4LineWriter lines, Closeable owned, boolean checksum) {
+        this.lines = Objects.requireNonNull(lines, "lines must not be null");
+        this.owned = owned;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Writes a single item.
+     *
+     * @throws SIE4Exception if the item is a {@code #FLAGGA} after another item, or belongs in a
+     *                       section before that of an item already written
+     * @throws IllegalStateException if the writer has been closed
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public void writeItem(SIE4Item item) {
+        Objects.requireNonNull(item, "item must not be null");
+        if (closed) {
+            throw new IllegalStateException("SIE4Writer is closed");
+        }
+        SIE4ItemType type = item.itemType();
+        if (lastType != null && (type == SIE4ItemType.FLAGGA ? lastType != SIE4ItemType.FLAGGA
+                : type.section().compareTo(lastType.section()) < 0)) {
+            throw new SIE4Exception("#" + type + " must be written before #" + lastType);
+        }
+        try {
+            if (checksum && !checksumStarted && type != SIE4ItemType.FLAGGA) {
+                lines.beginChecksum();
+                checksumStarted = true;
+            }
+            lines.writeItem(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastType = type;
+    }
+
+    /**
+     * Flushes buffered output to the underlying stream.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    @Override
+    public void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            lines.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the closing {@code #KSUMMA}, if enabled, flushes buffered output and closes the underlying file if this writer was opened from a path
+     * or file. A writer created from an {@link OutputStream} leaves closing the stream to the caller.
+     * The file is closed even if flushing fails.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (owned) {
+            if (checksum) {
+                if (!checksumStarted) {
+                    lines.beginChecksum();
+                }
+                lines.endChecksum();
+            }
+            lines.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
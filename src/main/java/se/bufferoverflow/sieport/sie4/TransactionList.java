@@ -0,0 +1,42 @@
+package se.bufferoverflow.sieport.sie4;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of the transactions of a {@link SIE4Item.Ver}, created by
+ * {@link SIE4Item.Ver.Builder} together with the sum of its {@code #TRANS} amounts. The voucher
+ * uses the list and the sum as they are, without copying the list or summing it again.
+ *
+ * <p>The list is equal to any other list containing equal transactions.
+ */
+final class TransactionList extends AbstractList<SIE4Item.Transaction> implements RandomAccess {
+
+    private final SIE4Item.Transaction[] transactions;
+    private final BigDecimal transactionSum;
+
+    /**
+     * @param transactions the transactions, which must not be modified afterwards
+     * @param transactionSum the sum of the {@code #TRANS} amounts
+     */
+    TransactionList(SIE4Item.Transaction[] transactions, BigDecimal transactionSum) {
+        this.transactions = transactions;
+        this.transactionSum = transactionSum;
+    }
+
+    @Override
+    public int size() {
+        return transactions.length;
+    }
+
+    @Override
+    public SIE4Item.Transaction get(int index) {
+        return transactions[index];
+    }
+
+    /** Returns the sum of the amounts of the {@code #TRANS} transactions. */
+    BigDecimal transactionSum() {
+        return transactionSum;
+    }
+}
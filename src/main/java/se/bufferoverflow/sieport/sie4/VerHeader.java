@@ -0,0 +1,29 @@
+package se.bufferoverflow.sieport.sie4;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The fields of a {@code #VER} line, without the transactions of the voucher body.
+ * Reported by {@link SIE4Handler#onVerStart(VerHeader)} before the voucher's transactions.
+ *
+ * @param date the voucher date
+ * @param series optional voucher series identifier
+ * @param verificationNo optional voucher number within the series
+ * @param text optional description
+ * @param regDate optional date the voucher was registered in the accounting system
+ * @param sign optional initials of the person who registered the voucher
+ */
+public record VerHeader(LocalDate date, Optional<String> series, Optional<String> verificationNo, Optional<String> text,
+                        Optional<LocalDate> regDate, Optional<String> sign) {
+
+    /**
+     * Creates a complete voucher from this header and the given transactions.
+     *
+     * @throws SIE4Exception if the transactions do not form a valid voucher
+     */
+    public SIE4Item.Ver toVer(List<SIE4Item.Transaction> transactions) {
+        return new SIE4Item.Ver(date, series, verificationNo, text, regDate, sign, transactions);
+    }
+}
@@ -1,6 +1,15 @@
 package se.bufferoverflow.sieport.sie4;
 
 public record YearNumber(int yearNo) {
+    // year numbers 0 to -(CACHE.length - 1), which covers the years of almost every file
+    private static final YearNumber[] CACHE = new YearNumber[16];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new YearNumber(-i);
+        }
+    }
+
     public static final YearNumber CURRENT_YEAR = YearNumber.of(0);
     public static final YearNumber PREV_YEAR = YearNumber.of(-1);
 
@@ -10,7 +19,13 @@ public record YearNumber(int yearNo) {
         }
     }
 
+    /**
+     * Returns the year number {@code yearNo}. The recent years are shared instances.
+     */
     public static YearNumber of(int yearNo) {
+        if (yearNo <= 0 && yearNo > -CACHE.length) {
+            return CACHE[-yearNo];
+        }
         return new YearNumber(yearNo);
     }
 }
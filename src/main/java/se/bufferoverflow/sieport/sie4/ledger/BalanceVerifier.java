@@ -0,0 +1,407 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+import se.bufferoverflow.sieport.sie4.validator.ValidationError;
+import se.bufferoverflow.sieport.sie4.validator.ValidationRule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static se.bufferoverflow.sieport.sie4.ledger.Vouchers.month;
+import static se.bufferoverflow.sieport.sie4.ledger.Vouchers.toMinorUnits;
+
+/**
+ * Verifies that the balances stated in a file agree with its vouchers. For every year that has
+ * vouchers, {@code #UB} must equal {@code #IB} plus the {@code #TRANS} amounts on the account,
+ * {@code #RES} the {@code #TRANS} amounts, and {@code #OUB} the {@code #OIB} plus the amounts on the
+ * object. A {@code #PSALDO} of a balance account must equal the balance at the end of its period:
+ * the {@code #IB}, or {@code #OIB} for an object, plus the amounts from the start of the year up to
+ * and including the period. A {@code #PSALDO} of a result account must equal the amounts of its
+ * period. Differences are reported as {@link ValidationError.BalanceMismatch},
+ * {@link ValidationError.ObjectBalanceMismatch} and {@link ValidationError.PeriodBalanceMismatch}.
+ *
+ * <p>A voucher belongs to the {@code #RAR} year that contains its date, or to the current year if
+ * there is no {@code #RAR}, and vouchers outside every year are not counted. Years without vouchers
+ * are not verified, since a file only holds the vouchers of the years it exports. {@code #RTRANS}
+ * and {@code #BTRANS} rows are not counted. An account is a result account if its {@code #KTYP} is
+ * {@code I} or {@code K}, or, without a {@code #KTYP}, if it has a {@code #RES} and no {@code #IB};
+ * any other account is a balance account.
+ *
+ * <p>Amounts are summed in minor units in primitive arrays, and only for the accounts, objects and
+ * periods that a balance item refers to. {@link #verify(SIE4Document)} sums the vouchers in
+ * parallel. As a {@link ValidationRule}, e.g. {@code Validator.sie4e().withRule(BalanceVerifier::new)},
+ * it verifies items in file order, where {@code #RAR} and the balance items come before the vouchers.
+ */
+public final class BalanceVerifier implements ValidationRule {
+
+    private static final Set<SIE4ItemType> ITEM_TYPES = EnumSet.of(
+            SIE4ItemType.RAR,
+            SIE4ItemType.KTYP,
+            SIE4ItemType.IB,
+            SIE4ItemType.UB,
+            SIE4ItemType.OIB,
+            SIE4ItemType.OUB,
+            SIE4ItemType.RES,
+            SIE4ItemType.PSALDO,
+            SIE4ItemType.VER
+    );
+
+    private final Targets targets = new Targets();
+    private final Set<SIE4ItemType> lateItems = EnumSet.noneOf(SIE4ItemType.class);
+    // created at the first voucher, after which the targets cannot change
+    private Sums sums;
+
+    /**
+     * Verifies the balances of {@code document}, summing its vouchers in parallel on the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     */
+    public static List<ValidationError> verify(SIE4Document document) {
+        Objects.requireNonNull(document, "document must not be null");
+        Targets targets = new Targets();
+        document.getRar().forEach(targets::add);
+        document.getKtyp().forEach(targets::add);
+        document.getIb().forEach(targets::add);
+        document.getUb().forEach(targets::add);
+        document.getOib().forEach(targets::add);
+        document.getOub().forEach(targets::add);
+        document.getRes().forEach(targets::add);
+        document.getPsaldo().forEach(targets::add);
+        targets.freeze();
+
+        Sums sums = Vouchers.aggregate(document.getVer(), () -> new Sums(targets), Sums::add, Sums::merge);
+        List<ValidationError> errors = new ArrayList<>();
+        targets.compare(sums, errors);
+        return errors;
+    }
+
+    @Override
+    public Set<SIE4ItemType> itemTypes() {
+        return ITEM_TYPES;
+    }
+
+    /**
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     */
+    @Override
+    public void visit(SIE4Item item) {
+        if (item instanceof SIE4Item.Ver ver) {
+            if (sums == null) {
+                targets.freeze();
+                sums = new Sums(targets);
+            }
+            sums.add(ver);
+        } else if (sums != null) {
+            lateItems.add(item.itemType());
+        } else {
+            targets.add(item);
+        }
+    }
+
+    @Override
+    public void finish(List<ValidationError> errors) {
+        if (sums == null) {
+            targets.freeze();
+            sums = new Sums(targets);
+        }
+        targets.compare(sums, errors);
+        if (!lateItems.isEmpty()) {
+            errors.add(new ValidationError.RuleViolation("Items after the first #VER cannot be verified against the vouchers",
+                    Set.copyOf(lateItems)));
+        }
+    }
+
+    private static long accountKey(YearNumber yearNumber, int accountNo) {
+        return ((long) yearNumber.yearNo() << 32) | (accountNo & 0xFFFFFFFFL);
+    }
+
+    private static long key(int slot, int value) {
+        return ((long) slot << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The balance items, and dictionaries that map the accounts, objects and periods they refer to
+     * onto dense slots. Read-only once frozen, so that chunks can share it.
+     */
+    private static final class Targets {
+        private static final int[] NO_DAYS = new int[0];
+
+        // (year, account) -> slot, summing the #IB balances
+        final LongSumMap accounts = new LongSumMap();
+        // (account slot, object id) -> slot, summing the #OIB balances
+        final LongSumMap objects = new LongSumMap();
+        // (account slot, month) -> slot
+        final LongSumMap periods = new LongSumMap();
+        // (object slot, month) -> slot
+        final LongSumMap objectPeriods = new LongSumMap();
+        final Map<ObjectReference, Integer> objectIds = new HashMap<>();
+        final List<SIE4Item.Rar> rar = new ArrayList<>();
+        final List<SIE4Item> balances = new ArrayList<>();
+        // what tells result accounts from balance accounts
+        final Map<Integer, SIE4Item.Ktyp.AccountType> accountTypes = new HashMap<>();
+        final Set<Integer> ibAccounts = new HashSet<>();
+        final Set<Integer> resAccounts = new HashSet<>();
+
+        // the #RAR years ordered by start, as epoch days
+        int[] starts = NO_DAYS;
+        int[] ends = NO_DAYS;
+        YearNumber[] yearNumbers;
+
+        void add(SIE4Item item) {
+            switch (item) {
+                case SIE4Item.Rar r -> rar.add(r);
+                case SIE4Item.Ktyp ktyp -> accountTypes.put(ktyp.accountNo(), ktyp.type());
+                case SIE4Item.Ib ib -> {
+                    accounts.add(accountKey(ib.yearNumber(), ib.accountNo()), toMinorUnits(ib.balance()));
+                    ibAccounts.add(ib.accountNo());
+                }
+                case SIE4Item.Oib oib -> {
+                    int account = accounts.intern(accountKey(oib.yearNumber(), oib.accountNo()));
+                    objects.add(key(account, objectId(oib.objectReference())), toMinorUnits(oib.balance()));
+                }
+                case SIE4Item.Ub ub -> {
+                    accounts.intern(accountKey(ub.yearNumber(), ub.accountNo()));
+                    balances.add(ub);
+                }
+                case SIE4Item.Res res -> {
+                    accounts.intern(accountKey(res.yearNumber(), res.accountNo()));
+                    resAccounts.add(res.accountNo());
+                    balances.add(res);
+                }
+                case SIE4Item.Oub oub -> {
+                    int account = accounts.intern(accountKey(oub.yearNumber(), oub.accountNo()));
+                    objects.intern(key(account, objectId(oub.objectReference())));
+                    balances.add(oub);
+                }
+                case SIE4Item.Psaldo psaldo -> {
+                    int account = accounts.intern(accountKey(psaldo.yearNumber(), psaldo.accountNo()));
+                    int month = month(psaldo.period().year(), psaldo.period().month());
+                    if (psaldo.objectReference().isPresent()) {
+                        int object = objects.intern(key(account, objectId(psaldo.objectReference().get())));
+                        objectPeriods.intern(key(object, month));
+                    } else {
+                        periods.intern(key(account, month));
+                    }
+                    balances.add(psaldo);
+                }
+                default -> {
+                }
+            }
+        }
+
+        void freeze() {
+            List<SIE4Item.Rar> years = rar.stream().sorted(Comparator.comparing(SIE4Item.Rar::start)).toList();
+            starts = years.stream().mapToInt(r -> (int) r.start().toEpochDay()).toArray();
+            ends = years.stream().mapToInt(r -> (int) r.end().toEpochDay()).toArray();
+            yearNumbers = years.stream().map(SIE4Item.Rar::yearNumber).toArray(YearNumber[]::new);
+            // the #PSALDO of a balance account is cumulative, so every month of its year up to the
+            // period is summed
+            for (SIE4Item item : balances) {
+                if (item instanceof SIE4Item.Psaldo psaldo && !isResultAccount(psaldo.accountNo())) {
+                    int account = accounts.indexOf(accountKey(psaldo.yearNumber(), psaldo.accountNo()));
+                    int last = month(psaldo.period().year(), psaldo.period().month());
+                    for (int month = firstMonth(psaldo); month < last; month++) {
+                        if (psaldo.objectReference().isPresent()) {
+                            objectPeriods.intern(key(objects.indexOf(key(account, objectIds.get(psaldo.objectReference().get()))), month));
+                        } else {
+                            periods.intern(key(account, month));
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean isResultAccount(int accountNo) {
+            SIE4Item.Ktyp.AccountType type = accountTypes.get(accountNo);
+            if (type != null) {
+                return type == SIE4Item.Ktyp.AccountType.I || type == SIE4Item.Ktyp.AccountType.K;
+            }
+            return resAccounts.contains(accountNo) && !ibAccounts.contains(accountNo);
+        }
+
+        /** The first month of the {@code #RAR} year of {@code psaldo}, or January if the year is not known. */
+        private int firstMonth(SIE4Item.Psaldo psaldo) {
+            for (SIE4Item.Rar r : rar) {
+                if (r.yearNumber().equals(psaldo.yearNumber())) {
+                    return month(r.start().getYear(), r.start().getMonthValue());
+                }
+            }
+            return month(psaldo.period().year(), 1);
+        }
+
+        private int objectId(ObjectReference objectReference) {
+            return objectIds.computeIfAbsent(objectReference, o -> objectIds.size());
+        }
+
+        void compare(Sums sums, List<ValidationError> errors) {
+            for (SIE4Item item : balances) {
+                switch (item) {
+                    case SIE4Item.Ub ub when sums.years.contains(ub.yearNumber()) -> {
+                        long key = accountKey(ub.yearNumber(), ub.accountNo());
+                        long computed = Math.addExact(accounts.get(key), sums.accounts[accounts.indexOf(key)]);
+                        if (toMinorUnits(ub.balance()) != computed) {
+                            errors.add(new ValidationError.BalanceMismatch(SIE4ItemType.UB, ub.yearNumber(), ub.accountNo(),
+                                    ub.balance(), BigDecimal.valueOf(computed, 2)));
+                        }
+                    }
+                    case SIE4Item.Res res when sums.years.contains(res.yearNumber()) -> {
+                        long computed = sums.accounts[accounts.indexOf(accountKey(res.yearNumber(), res.accountNo()))];
+                        if (toMinorUnits(res.balance()) != computed) {
+                            errors.add(new ValidationError.BalanceMismatch(SIE4ItemType.RES, res.yearNumber(), res.accountNo(),
+                                    res.balance(), BigDecimal.valueOf(computed, 2)));
+                        }
+                    }
+                    case SIE4Item.Oub oub when sums.years.contains(oub.yearNumber()) -> {
+                        int account = accounts.indexOf(accountKey(oub.yearNumber(), oub.accountNo()));
+                        long key = key(account, objectIds.get(oub.objectReference()));
+                        long computed = Math.addExact(objects.get(key), sums.objects[objects.indexOf(key)]);
+                        if (toMinorUnits(oub.balance()) != computed) {
+                            errors.add(new ValidationError.ObjectBalanceMismatch(oub.yearNumber(), oub.accountNo(),
+                                    oub.objectReference(), oub.balance(), BigDecimal.valueOf(computed, 2)));
+                        }
+                    }
+                    case SIE4Item.Psaldo psaldo when sums.years.contains(psaldo.yearNumber()) -> {
+                        int account = accounts.indexOf(accountKey(psaldo.yearNumber(), psaldo.accountNo()));
+                        Period period = psaldo.period();
+                        int month = month(period.year(), period.month());
+                        Optional<ObjectReference> objectReference = psaldo.objectReference();
+                        boolean cumulative = !isResultAccount(psaldo.accountNo());
+                        int first = cumulative ? Math.min(firstMonth(psaldo), month) : month;
+                        long computed;
+                        if (objectReference.isPresent()) {
+                            long objectKey = key(account, objectIds.get(objectReference.get()));
+                            int object = objects.indexOf(objectKey);
+                            computed = cumulative ? objects.get(objectKey) : 0;
+                            for (int m = first; m <= month; m++) {
+                                computed = Math.addExact(computed, sums.objectPeriods[objectPeriods.indexOf(key(object, m))]);
+                            }
+                        } else {
+                            computed = cumulative ? accounts.get(accountKey(psaldo.yearNumber(), psaldo.accountNo())) : 0;
+                            for (int m = first; m <= month; m++) {
+                                computed = Math.addExact(computed, sums.periods[periods.indexOf(key(account, m))]);
+                            }
+                        }
+                        if (toMinorUnits(psaldo.balance()) != computed) {
+                            errors.add(new ValidationError.PeriodBalanceMismatch(psaldo.yearNumber(), period, psaldo.accountNo(),
+                                    objectReference, psaldo.balance(), BigDecimal.valueOf(computed, 2)));
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /** The {@code #TRANS} amounts of a run of vouchers, per slot of the {@link Targets}. */
+    private static final class Sums {
+        private final Targets targets;
+        final long[] accounts;
+        final long[] objects;
+        final long[] periods;
+        final long[] objectPeriods;
+        final Set<YearNumber> years = new HashSet<>();
+        // index of the #RAR year of the previous voucher, as vouchers are mostly in date order
+        private int lastYear;
+
+        Sums(Targets targets) {
+            this.targets = targets;
+            this.accounts = new long[targets.accounts.size()];
+            this.objects = new long[targets.objects.size()];
+            this.periods = new long[targets.periods.size()];
+            this.objectPeriods = new long[targets.objectPeriods.size()];
+        }
+
+        void add(SIE4Item.Ver ver) {
+            YearNumber yearNumber = yearOf(ver.date());
+            if (yearNumber == null) {
+                return;
+            }
+            years.add(yearNumber);
+            int month = month(ver.date().getYear(), ver.date().getMonthValue());
+            Vouchers.forEachTrans(ver, (accountNo, amount, objectReferences) ->
+                    add(yearNumber, month, accountNo, amount, objectReferences));
+        }
+
+        private void add(YearNumber yearNumber, int month, int accountNo, long amount, List<ObjectReference> objectReferences) {
+            int account = targets.accounts.indexOf(accountKey(yearNumber, accountNo));
+            if (account < 0) {
+                return;
+            }
+            accounts[account] = Math.addExact(accounts[account], amount);
+            if (periods.length > 0) {
+                int period = targets.periods.indexOf(key(account, month));
+                if (period >= 0) {
+                    periods[period] = Math.addExact(periods[period], amount);
+                }
+            }
+            if (objects.length == 0) {
+                return;
+            }
+            for (ObjectReference objectReference : objectReferences) {
+                Integer objectId = targets.objectIds.get(objectReference);
+                int object = objectId == null ? -1 : targets.objects.indexOf(key(account, objectId));
+                if (object < 0) {
+                    continue;
+                }
+                objects[object] = Math.addExact(objects[object], amount);
+                if (objectPeriods.length > 0) {
+                    int objectPeriod = targets.objectPeriods.indexOf(key(object, month));
+                    if (objectPeriod >= 0) {
+                        objectPeriods[objectPeriod] = Math.addExact(objectPeriods[objectPeriod], amount);
+                    }
+                }
+            }
+        }
+
+        private YearNumber yearOf(LocalDate date) {
+            int[] starts = targets.starts;
+            if (starts.length == 0) {
+                return YearNumber.CURRENT_YEAR;
+            }
+            int day = (int) date.toEpochDay();
+            if (day >= starts[lastYear] && day <= targets.ends[lastYear]) {
+                return targets.yearNumbers[lastYear];
+            }
+            for (int i = 0; i < starts.length; i++) {
+                if (day >= starts[i] && day <= targets.ends[i]) {
+                    lastYear = i;
+                    return targets.yearNumbers[i];
+                }
+            }
+            return null;
+        }
+
+        Sums merge(Sums other) {
+            add(accounts, other.accounts);
+            add(objects, other.objects);
+            add(periods, other.periods);
+            add(objectPeriods, other.objectPeriods);
+            years.addAll(other.years);
+            return this;
+        }
+
+        private static void add(long[] sums, long[] other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = Math.addExact(sums[i], other[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code long} sums, used to aggregate amounts
+ * without boxing a key per row. Keys are kept in insertion order.
+ */
+final class LongSumMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private long[] keys;
+    private long[] sums;
+    private int size;
+
+    LongSumMap() {
+        this(16);
+    }
+
+    LongSumMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        keys = new long[expectedSize > 0 ? expectedSize : 8];
+        sums = new long[keys.length];
+    }
+
+    /**
+     * Adds {@code amount} to the sum of {@code key}.
+     *
+     * @throws ArithmeticException if the sum overflows
+     */
+    void add(long key, long amount) {
+        int index = indexOf(key);
+        if (index == EMPTY) {
+            index = insert(key);
+        }
+        sums[index] = Math.addExact(sums[index], amount);
+    }
+
+    /** Adds all sums of {@code other} to this map. */
+    void addAll(LongSumMap other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.keys[i], other.sums[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** The key of entry {@code i}, in insertion order. */
+    long key(int i) {
+        return keys[i];
+    }
+
+    /** The sum of entry {@code i}, in insertion order. */
+    long sum(int i) {
+        return sums[i];
+    }
+
+    /** Returns the sum for {@code key}, or 0 if nothing has been added for it. */
+    long get(long key) {
+        int index = indexOf(key);
+        return index == EMPTY ? 0 : sums[index];
+    }
+
+    /**
+     * Returns the index of {@code key}, adding it with a sum of 0 if it is absent. Indexes are
+     * assigned in insertion order, so the map can also serve as a dictionary of dense ids.
+     */
+    int intern(long key) {
+        int index = indexOf(key);
+        return index == EMPTY ? insert(key) : index;
+    }
+
+    /** Returns the index of {@code key}, or -1 if it is absent. */
+    int indexOf(long key) {
+        int mask = slots.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot];
+            if (index == EMPTY || keys[index] == key) {
+                return index;
+            }
+        }
+    }
+
+    private int insert(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            sums = Arrays.copyOf(sums, size * 2);
+        }
+        if (size * 2 >= slots.length) {
+            rehash(slots.length * 2);
+        }
+        int index = size++;
+        keys[index] = key;
+        place(index);
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        for (int i = 0; i < size; i++) {
+            place(i);
+        }
+    }
+
+    private void place(int index) {
+        int mask = slots.length - 1;
+        int slot = hash(keys[index]) & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
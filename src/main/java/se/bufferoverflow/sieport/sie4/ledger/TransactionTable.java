@@ -0,0 +1,302 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import se.bufferoverflow.sieport.sie4.CompactTransactions;
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Columnar, immutable table of the {@code #TRANS} rows of a set of vouchers, for reports that scan
+ * all transactions by account and period.
+ *
+ * <p>Each row is stored across parallel primitive arrays: account number, amount in minor units
+ * (öre for SEK), the effective date as an epoch day, and the index of the voucher it belongs to.
+ * Transaction texts and voucher series are dictionary-encoded. The effective date is the
+ * transaction date when present, otherwise the voucher date. {@code #RTRANS} and {@code #BTRANS}
+ * rows are corrections for SIE 4I imports and are not included.
+ *
+ * <pre>{@code
+ * TransactionTable table = TransactionTable.from(SIE4.parse(Path.of("company.se")));
+ * long total = 0;
+ * for (int row = 0; row < table.size(); row++) {
+ *     if (table.accountNo(row) == 3010) {
+ *         total += table.amount(row);
+ *     }
+ * }
+ * }</pre>
+ */
+public final class TransactionTable {
+
+    private static final int NONE = -1;
+
+    private final int size;
+    private final int verCount;
+    private final int[] accountNos;
+    private final long[] amounts;
+    private final int[] dates;
+    private final int[] verIndexes;
+    private final int[] textIds;
+    private final int[] seriesIds;
+    private final String[] texts;
+    private final String[] series;
+
+    private TransactionTable(Builder builder) {
+        this.size = builder.size;
+        this.verCount = builder.verCount;
+        this.accountNos = Arrays.copyOf(builder.accountNos, size);
+        this.amounts = Arrays.copyOf(builder.amounts, size);
+        this.dates = Arrays.copyOf(builder.dates, size);
+        this.verIndexes = Arrays.copyOf(builder.verIndexes, size);
+        this.textIds = Arrays.copyOf(builder.textIds, size);
+        this.seriesIds = Arrays.copyOf(builder.seriesIds, size);
+        this.texts = builder.texts.keySet().toArray(String[]::new);
+        this.series = builder.series.keySet().toArray(String[]::new);
+    }
+
+    /**
+     * Builds a table of all {@code #TRANS} rows in the document.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     */
+    public static TransactionTable from(SIE4Document document) {
+        Objects.requireNonNull(document, "document must not be null");
+        Builder builder = builder();
+        document.getVer().forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Builds a table of all {@code #TRANS} rows of the vouchers in {@code items}, e.g. a
+     * {@link se.bufferoverflow.sieport.sie4.SIE4Reader}, without keeping the items themselves.
+     * Items other than {@link SIE4Item.Ver} are skipped.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     */
+    public static TransactionTable from(Iterator<? extends SIE4Item> items) {
+        Objects.requireNonNull(items, "items must not be null");
+        Builder builder = builder();
+        items.forEachRemaining(item -> {
+            if (item instanceof SIE4Item.Ver ver) {
+                builder.add(ver);
+            }
+        });
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Returns the number of rows. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of vouchers added, including vouchers without {@code #TRANS} rows. */
+    public int verCount() {
+        return verCount;
+    }
+
+    public int accountNo(int row) {
+        checkRow(row);
+        return accountNos[row];
+    }
+
+    /** Returns the amount of {@code row} in minor units, e.g. öre. */
+    public long amount(int row) {
+        checkRow(row);
+        return amounts[row];
+    }
+
+    /** Returns the effective date of {@code row} as an epoch day, see {@link LocalDate#toEpochDay()}. */
+    public int epochDay(int row) {
+        checkRow(row);
+        return dates[row];
+    }
+
+    public LocalDate date(int row) {
+        return LocalDate.ofEpochDay(epochDay(row));
+    }
+
+    /** Returns the index, in the order the vouchers were added, of the voucher {@code row} belongs to. */
+    public int verIndex(int row) {
+        checkRow(row);
+        return verIndexes[row];
+    }
+
+    /** Returns the transaction text of {@code row}, or {@code null} if it has none. */
+    public String text(int row) {
+        checkRow(row);
+        return textIds[row] == NONE ? null : texts[textIds[row]];
+    }
+
+    /** Returns the series of the voucher {@code row} belongs to, or {@code null} if it has none. */
+    public String series(int row) {
+        checkRow(row);
+        return seriesIds[row] == NONE ? null : series[seriesIds[row]];
+    }
+
+    /** Returns the sum of all amounts in minor units, which is 0 for balanced vouchers. */
+    public long sum() {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            sum = Math.addExact(sum, amounts[row]);
+        }
+        return sum;
+    }
+
+    /** Returns the sum of the amounts in minor units per account, ordered by account number. */
+    public Map<Integer, Long> sumByAccount() {
+        LongSumMap sums = new LongSumMap();
+        for (int row = 0; row < size; row++) {
+            sums.add(accountNos[row], amounts[row]);
+        }
+        Map<Integer, Long> result = new TreeMap<>();
+        for (int i = 0; i < sums.size(); i++) {
+            result.put((int) sums.key(i), sums.sum(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sum of the amounts in minor units per account and calendar month of the
+     * effective date, ordered by account number and period.
+     */
+    public Map<Integer, Map<Period, Long>> sumByAccountAndPeriod() {
+        LongSumMap sums = new LongSumMap();
+        // the key packs the account into the high and the month count since year 0 into the low bits,
+        // so sorting the keys orders them by account and period
+        int lastDay = 0;
+        int month = 0;
+        for (int row = 0; row < size; row++) {
+            // rows of a voucher share the date, so only convert when it changes
+            if (row == 0 || dates[row] != lastDay) {
+                lastDay = dates[row];
+                LocalDate date = LocalDate.ofEpochDay(lastDay);
+                month = Vouchers.month(date.getYear(), date.getMonthValue());
+            }
+            sums.add(((long) accountNos[row] << 32) | (month & 0xFFFFFFFFL), amounts[row]);
+        }
+        long[] keys = new long[sums.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sums.key(i);
+        }
+        Arrays.sort(keys);
+
+        Map<Integer, Map<Period, Long>> result = new LinkedHashMap<>();
+        for (long key : keys) {
+            int months = (int) key;
+            Period period = Period.of(Math.floorDiv(months, 12), Math.floorMod(months, 12) + 1);
+            result.computeIfAbsent((int) (key >> 32), account -> new LinkedHashMap<>()).put(period, sums.get(key));
+        }
+        return result;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * Collects vouchers into a {@link TransactionTable}, e.g. from a
+     * {@link se.bufferoverflow.sieport.sie4.SIE4Handler}. Not thread-safe.
+     */
+    public static final class Builder {
+        private int size;
+        private int verCount;
+        private int[] accountNos = new int[1024];
+        private long[] amounts = new long[1024];
+        private int[] dates = new int[1024];
+        private int[] verIndexes = new int[1024];
+        private int[] textIds = new int[1024];
+        private int[] seriesIds = new int[1024];
+        // insertion-ordered dictionaries, mapping each distinct value to its id
+        private final Map<String, Integer> texts = new LinkedHashMap<>();
+        private final Map<String, Integer> series = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the {@code #TRANS} rows of {@code ver}.
+         *
+         * @throws SIE4Exception if an amount cannot be represented in minor units
+         */
+        public Builder add(SIE4Item.Ver ver) {
+            Objects.requireNonNull(ver, "ver must not be null");
+            int verIndex = verCount++;
+            int verDate = (int) ver.date().toEpochDay();
+            int seriesId = ver.series().map(s -> id(series, s)).orElse(NONE);
+            List<SIE4Item.Transaction> transactions = ver.transactions();
+            if (transactions instanceof CompactTransactions compact) {
+                // read the columns, without materialising a record per row
+                for (int i = 0; i < compact.size(); i++) {
+                    if (compact.itemType(i) == SIE4ItemType.TRANS) {
+                        long amount;
+                        try {
+                            amount = compact.amountInMinorUnits(i);
+                        } catch (ArithmeticException e) {
+                            throw new SIE4Exception("Amount cannot be represented in minor units: " + compact.amount(i));
+                        }
+                        addRow(compact.accountNo(i), amount, compact.transactionDate(i).orElse(null), compact.text(i).orElse(null),
+                                verDate, verIndex, seriesId);
+                    }
+                }
+            } else {
+                for (SIE4Item.Transaction transaction : transactions) {
+                    if (transaction instanceof SIE4Item.Transaction.Trans) {
+                        addRow(transaction.accountNo(), Vouchers.toMinorUnits(transaction.amount()), transaction.transactionDate().orElse(null),
+                                transaction.text().orElse(null), verDate, verIndex, seriesId);
+                    }
+                }
+            }
+            return this;
+        }
+
+        /** Adds a row; {@code transactionDate} and {@code text} are {@code null} if absent. */
+        private void addRow(int accountNo, long amount, LocalDate transactionDate, String text,
+                            int verDate, int verIndex, int seriesId) {
+            if (size == accountNos.length) {
+                grow();
+            }
+            accountNos[size] = accountNo;
+            amounts[size] = amount;
+            dates[size] = transactionDate != null ? (int) transactionDate.toEpochDay() : verDate;
+            verIndexes[size] = verIndex;
+            textIds[size] = text != null ? id(texts, text) : NONE;
+            seriesIds[size] = seriesId;
+            size++;
+        }
+
+        public TransactionTable build() {
+            return new TransactionTable(this);
+        }
+
+        private static int id(Map<String, Integer> dictionary, String value) {
+            Integer id = dictionary.putIfAbsent(value, dictionary.size());
+            return id != null ? id : dictionary.size() - 1;
+        }
+
+        private void grow() {
+            int capacity = accountNos.length * 2;
+            accountNos = Arrays.copyOf(accountNos, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            verIndexes = Arrays.copyOf(verIndexes, capacity);
+            textIds = Arrays.copyOf(textIds, capacity);
+            seriesIds = Arrays.copyOf(seriesIds, capacity);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable debit, credit and net totals of the {@code #TRANS} rows of a set of vouchers, per
+ * account and per account and period: the figures of a trial balance (råbalans) and of a general
+ * ledger summary. All amounts are in minor units, e.g. öre.
+ *
+ * <p>A row counts towards the period of its voucher date. {@code #RTRANS} and {@code #BTRANS} rows
+ * are corrections for SIE 4I imports and are not included. The vouchers are summed in parallel on the
+ * common {@link java.util.concurrent.ForkJoinPool} into primitive accumulators, so no amounts are
+ * boxed per row.
+ *
+ * <pre>{@code
+ * TrialBalance trialBalance = TrialBalance.from(SIE4.parse(Path.of("company.se")));
+ * for (int accountNo : trialBalance.accountNos()) {
+ *     TrialBalance.Totals totals = trialBalance.totals(accountNo);
+ *     System.out.println(accountNo + " " + trialBalance.openingBalance(accountNo) + " " + totals.debit()
+ *             + " " + totals.credit() + " " + trialBalance.closingBalance(accountNo));
+ * }
+ * }</pre>
+ */
+public final class TrialBalance {
+
+    /**
+     * Totals in minor units. The debit is the sum of the positive amounts and the credit the sum of
+     * the negative amounts, as a positive number.
+     */
+    public record Totals(long debit, long credit) {
+        public static final Totals ZERO = new Totals(0, 0);
+
+        /** Returns the debit minus the credit. */
+        public long net() {
+            return debit - credit;
+        }
+    }
+
+    // (account, month) keys in ascending order, and their totals
+    private final long[] keys;
+    private final long[] debits;
+    private final long[] credits;
+    // accounts in ascending order, and their totals over all periods
+    private final int[] accountNos;
+    private final long[] accountDebits;
+    private final long[] accountCredits;
+    private final LongSumMap openingBalances;
+
+    private TrialBalance(Sums sums, LongSumMap openingBalances) {
+        this.openingBalances = openingBalances;
+        long[] allKeys = new long[sums.debits.size() + sums.credits.size()];
+        for (int i = 0; i < sums.debits.size(); i++) {
+            allKeys[i] = sums.debits.key(i);
+        }
+        for (int i = 0; i < sums.credits.size(); i++) {
+            allKeys[sums.debits.size() + i] = sums.credits.key(i);
+        }
+        this.keys = Arrays.stream(allKeys).sorted().distinct().toArray();
+        this.debits = new long[keys.length];
+        this.credits = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            debits[i] = sums.debits.get(keys[i]);
+            credits[i] = sums.credits.get(keys[i]);
+        }
+
+        int[] accounts = new int[keys.length + openingBalances.size()];
+        for (int i = 0; i < keys.length; i++) {
+            accounts[i] = (int) (keys[i] >> 32);
+        }
+        for (int i = 0; i < openingBalances.size(); i++) {
+            accounts[keys.length + i] = (int) openingBalances.key(i);
+        }
+        this.accountNos = Arrays.stream(accounts).sorted().distinct().toArray();
+        this.accountDebits = new long[accountNos.length];
+        this.accountCredits = new long[accountNos.length];
+        for (int i = 0, account = 0; i < keys.length; i++) {
+            while (accountNos[account] != (int) (keys[i] >> 32)) {
+                account++;
+            }
+            accountDebits[account] = Math.addExact(accountDebits[account], debits[i]);
+            accountCredits[account] = Math.addExact(accountCredits[account], credits[i]);
+        }
+    }
+
+    /**
+     * Sums the vouchers of the current year of {@code document}, with the {@code #IB} balances of the
+     * current year as opening balances. As in {@link BalanceVerifier}, a voucher belongs to the
+     * {@code #RAR} year that contains its date, or to the current year if there is no {@code #RAR}, so
+     * vouchers of other years are not counted.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     * @throws ArithmeticException if a total overflows
+     */
+    public static TrialBalance from(SIE4Document document) {
+        Objects.requireNonNull(document, "document must not be null");
+        LongSumMap openingBalances = new LongSumMap();
+        for (SIE4Item.Ib ib : document.getIb()) {
+            if (ib.yearNumber().equals(YearNumber.CURRENT_YEAR)) {
+                openingBalances.add(ib.accountNo(), Vouchers.toMinorUnits(ib.balance()));
+            }
+        }
+        int firstDay = Integer.MIN_VALUE;
+        int lastDay = Integer.MAX_VALUE;
+        if (!document.getRar().isEmpty()) {
+            // an empty range if the current year has no #RAR
+            firstDay = 0;
+            lastDay = -1;
+            for (SIE4Item.Rar rar : document.getRar()) {
+                if (rar.yearNumber().equals(YearNumber.CURRENT_YEAR)) {
+                    firstDay = (int) rar.start().toEpochDay();
+                    lastDay = (int) rar.end().toEpochDay();
+                }
+            }
+        }
+        return new TrialBalance(sum(document.getVer(), firstDay, lastDay), openingBalances);
+    }
+
+    /**
+     * Sums {@code vers}, without opening balances.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     * @throws ArithmeticException if a total overflows
+     */
+    public static TrialBalance from(List<SIE4Item.Ver> vers) {
+        Objects.requireNonNull(vers, "vers must not be null");
+        return new TrialBalance(sum(vers, Integer.MIN_VALUE, Integer.MAX_VALUE), new LongSumMap());
+    }
+
+    private static Sums sum(List<SIE4Item.Ver> vers, int firstDay, int lastDay) {
+        return Vouchers.aggregate(vers, () -> new Sums(firstDay, lastDay), Sums::add, Sums::merge);
+    }
+
+    /** Returns the accounts with transactions or an opening balance, in ascending order. */
+    public int[] accountNos() {
+        return accountNos.clone();
+    }
+
+    /** Returns the totals of {@code accountNo} over all periods. */
+    public Totals totals(int accountNo) {
+        int account = Arrays.binarySearch(accountNos, accountNo);
+        return account < 0 ? Totals.ZERO : new Totals(accountDebits[account], accountCredits[account]);
+    }
+
+    /** Returns the totals of {@code accountNo} in {@code period}. */
+    public Totals totals(int accountNo, Period period) {
+        Objects.requireNonNull(period, "period must not be null");
+        int index = Arrays.binarySearch(keys, key(accountNo, Vouchers.month(period.year(), period.month())));
+        return index < 0 ? Totals.ZERO : new Totals(debits[index], credits[index]);
+    }
+
+    /** Returns the totals of all accounts, which have a net of 0 for balanced vouchers. */
+    public Totals totals() {
+        long debit = 0;
+        long credit = 0;
+        for (int i = 0; i < accountNos.length; i++) {
+            debit = Math.addExact(debit, accountDebits[i]);
+            credit = Math.addExact(credit, accountCredits[i]);
+        }
+        return new Totals(debit, credit);
+    }
+
+    /** Returns the opening balance of {@code accountNo}, or 0 if it has none. */
+    public long openingBalance(int accountNo) {
+        return openingBalances.get(accountNo);
+    }
+
+    /** Returns the opening balance of {@code accountNo} plus its net over all periods. */
+    public long closingBalance(int accountNo) {
+        return Math.addExact(openingBalance(accountNo), totals(accountNo).net());
+    }
+
+    /** Returns the totals per account, ordered by account number. */
+    public Map<Integer, Totals> byAccount() {
+        Map<Integer, Totals> result = new LinkedHashMap<>();
+        for (int i = 0; i < accountNos.length; i++) {
+            result.put(accountNos[i], new Totals(accountDebits[i], accountCredits[i]));
+        }
+        return result;
+    }
+
+    /** Returns the totals per account and period, ordered by account number and period. */
+    public Map<Integer, Map<Period, Totals>> byAccountAndPeriod() {
+        Map<Integer, Map<Period, Totals>> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            int month = (int) keys[i];
+            Period period = Period.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+            result.computeIfAbsent((int) (keys[i] >> 32), account -> new LinkedHashMap<>())
+                    .put(period, new Totals(debits[i], credits[i]));
+        }
+        return result;
+    }
+
+    private static long key(int accountNo, int month) {
+        return ((long) accountNo << 32) | (month & 0xFFFFFFFFL);
+    }
+
+    /** The debits and credits of a run of vouchers dated within a range of epoch days, per account and month. */
+    private static final class Sums {
+        final LongSumMap debits = new LongSumMap();
+        final LongSumMap credits = new LongSumMap();
+        private final int firstDay;
+        private final int lastDay;
+
+        Sums(int firstDay, int lastDay) {
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+        }
+
+        void add(SIE4Item.Ver ver) {
+            long day = ver.date().toEpochDay();
+            if (day < firstDay || day > lastDay) {
+                return;
+            }
+            long month = Vouchers.month(ver.date().getYear(), ver.date().getMonthValue()) & 0xFFFFFFFFL;
+            Vouchers.forEachTrans(ver, (accountNo, amount, objectReferences) -> {
+                long key = ((long) accountNo << 32) | month;
+                if (amount >= 0) {
+                    debits.add(key, amount);
+                } else {
+                    credits.add(key, Math.negateExact(amount));
+                }
+            });
+        }
+
+        Sums merge(Sums other) {
+            debits.addAll(other.debits);
+            credits.addAll(other.credits);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import se.bufferoverflow.sieport.sie4.CompactTransactions;
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Helpers for aggregating the {@code #TRANS} rows of vouchers in minor units.
+ */
+final class Vouchers {
+
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private Vouchers() {
+    }
+
+    /** Receives the {@code #TRANS} rows of a voucher. */
+    @FunctionalInterface
+    interface TransVisitor {
+        void visit(int accountNo, long amount, List<ObjectReference> objectReferences);
+    }
+
+    /**
+     * Aggregates {@code vers} into a new {@code T} per chunk, on the common {@link ForkJoinPool}
+     * when there are enough vouchers, and merges the chunks in order.
+     */
+    static <T> T aggregate(List<SIE4Item.Ver> vers, Supplier<T> supplier, BiConsumer<T, SIE4Item.Ver> accumulator,
+                           BinaryOperator<T> combiner) {
+        int chunks = Math.min(vers.size() / MIN_CHUNK_SIZE, ForkJoinPool.getCommonPoolParallelism() * 4);
+        if (chunks <= 1) {
+            T result = supplier.get();
+            vers.forEach(ver -> accumulator.accept(result, ver));
+            return result;
+        }
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    T result = supplier.get();
+                    vers.subList(vers.size() * chunk / chunks, vers.size() * (chunk + 1) / chunks)
+                            .forEach(ver -> accumulator.accept(result, ver));
+                    return result;
+                })
+                .reduce(combiner)
+                .orElseThrow();
+    }
+
+    /**
+     * Passes the {@code #TRANS} rows of {@code ver} to {@code visitor}. {@link CompactTransactions}
+     * are read without materialising the transactions.
+     *
+     * @throws SIE4Exception if an amount cannot be represented in minor units
+     */
+    static void forEachTrans(SIE4Item.Ver ver, TransVisitor visitor) {
+        List<SIE4Item.Transaction> transactions = ver.transactions();
+        if (transactions instanceof CompactTransactions compact) {
+            for (int i = 0; i < compact.size(); i++) {
+                if (compact.itemType(i) == SIE4ItemType.TRANS) {
+                    long amount;
+                    try {
+                        amount = compact.amountInMinorUnits(i);
+                    } catch (ArithmeticException e) {
+                        throw new SIE4Exception("Amount cannot be represented in minor units: " + compact.amount(i));
+                    }
+                    visitor.visit(compact.accountNo(i), amount, compact.objectReferences(i));
+                }
+            }
+        } else {
+            for (SIE4Item.Transaction transaction : transactions) {
+                if (transaction instanceof SIE4Item.Transaction.Trans) {
+                    visitor.visit(transaction.accountNo(), toMinorUnits(transaction.amount()), transaction.objectReferences());
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws SIE4Exception if {@code amount} cannot be represented in minor units
+     */
+    static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new SIE4Exception("Amount cannot be represented in minor units: " + amount);
+        }
+    }
+
+    /** The month count since year 0 of a year and month, which orders periods. */
+    static int month(int year, int month) {
+        return year * 12 + month - 1;
+    }
+}
@@ -4,53 +4,24 @@ import se.bufferoverflow.sieport.sie4.SIE4Exception;
 import se.bufferoverflow.sieport.sie4.SIE4Item;
 import se.bufferoverflow.sieport.sie4.ObjectReference;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.IntStream;
 
 abstract class AbstractFieldParser<T extends SIE4Item> {
 
-    private static final Pattern FIELD_PATTERN = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"|(?:\\{([^{}]*)})|(\\S+)");
-
+    /**
+     * Splits a field string into tokens.
+     *
+     * @see Fields
+     */
     static List<String> tokenizeFields(String fields) {
-        List<String> tokens = new ArrayList<>();
-        Matcher m = FIELD_PATTERN.matcher(fields);
-
-        while (m.find()) {
-            if (m.group(1) != null) {
-                // field is quoted, unescape \" and \\
-                tokens.add(m.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
-            } else if (m.group(2) != null) {
-                // field is an object surrounded with braces
-                tokens.add(m.group(2));
-            } else {
-                tokens.add(m.group(3));
-            }
-        }
-        return tokens;
+        return Fields.of(fields).toList();
     }
 
     static List<ObjectReference> parseObjectReferences(String objectReferences) {
         Objects.requireNonNull(objectReferences, "objectReferences string must not be null");
-
-        List<String> tokens = tokenizeFields(objectReferences);
-
-        if (tokens.isEmpty()) {
-            return List.of();
-        }
-
-        if (tokens.size() % 2 != 0) {
-            throw new SIE4Exception("Invalid object reference list: " + objectReferences);
-        }
-
-        return IntStream.range(0, tokens.size())
-                .filter(i -> i % 2 == 0)
-                .mapToObj(i -> ObjectReference.of(Integer.parseInt(tokens.get(i)), tokens.get(i + 1)))
-                .toList();
+        return Fields.of(objectReferences).asObjectReferences();
     }
 
     static Optional<String> parseOptionalField(String field) {
@@ -59,8 +30,12 @@ abstract class AbstractFieldParser<T extends SIE4Item> {
     }
 
     T parseFields(String fields) {
+        return parseFields(Fields.of(fields));
+    }
+
+    T parseFields(Fields fields) {
         try {
-            return parseFields(tokenizeFields(fields), List.of());
+            return parseFields(fields, List.of());
         } catch (SIE4Exception e) {
             throw e;
         } catch (Exception e) {
@@ -69,8 +44,8 @@ abstract class AbstractFieldParser<T extends SIE4Item> {
     }
 
     T parseFields(String fields, List<SIE4Item> subItems) {
-        return parseFields(tokenizeFields(fields), subItems);
+        return parseFields(Fields.of(fields), subItems);
     }
 
-    abstract T parseFields(List<String> fields, List<SIE4Item> subItems);
+    abstract T parseFields(Fields fields, List<SIE4Item> subItems);
 }
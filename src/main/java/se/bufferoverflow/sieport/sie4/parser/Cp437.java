@@ -0,0 +1,57 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import java.nio.charset.StandardCharsets;
+
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_CHARSET;
+
+/**
+ * Table-driven decoding of IBM Code Page 437 bytes. CP437 is a single-byte charset whose lower half
+ * is plain ASCII, so a 256-entry lookup table replaces a {@link java.nio.charset.CharsetDecoder}.
+ */
+final class Cp437 {
+
+    private static final char[] DECODE_TABLE = new char[256];
+
+    static {
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+        new String(all, SIE4_CHARSET).getChars(0, 256, DECODE_TABLE, 0);
+    }
+
+    private Cp437() {
+    }
+
+    static char decode(byte b) {
+        return DECODE_TABLE[b & 0xFF];
+    }
+
+    /**
+     * Decodes {@code bytes[from, to)}. Pass {@code ascii = true} only when every byte in the range
+     * is known to be below {@code 0x80}, which allows a plain Latin-1 copy.
+     */
+    static String decode(byte[] bytes, int from, int to, boolean ascii) {
+        if (ascii) {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = DECODE_TABLE[bytes[i] & 0xFF];
+        }
+        return new String(chars);
+    }
+
+    static String decode(byte[] bytes, int from, int to) {
+        return decode(bytes, from, to, isAscii(bytes, from, to));
+    }
+
+    static boolean isAscii(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,376 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_CHARSET;
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_DATE_FORMATTER;
+
+/**
+ * The tokenized fields of one item line, kept as offsets into the raw CP437 bytes of the line.
+ *
+ * <p>Tokens are found in a single pass. A token is either a quoted string, whose surrounding quotes
+ * are removed and {@code \"} and {@code \\} escapes resolved, the content of an object list in
+ * braces, or a run of non-whitespace bytes. A quote or brace that is not closed on the line is
+ * treated as an ordinary byte of an unquoted token.
+ *
+ * <p>Nothing is decoded up front: {@link #get(int)} decodes a single token to a {@link String},
+ * while numeric and date accessors such as {@link #getInt(int)} read the bytes directly.
+ */
+final class Fields {
+
+    private record CachedDate(int value, LocalDate date) {
+    }
+
+    private static final byte ESCAPED = 1;
+    private static final byte NON_ASCII = 2;
+
+    // 18 decimal digits always fit in a long
+    private static final int MAX_COMPACT_DIGITS = 18;
+    private static final long NOT_COMPACT = Long.MIN_VALUE;
+
+    // recently decoded dates by yyyyMMdd value, shared by all threads; a slot holds an immutable
+    // entry, so a racy read sees either a complete entry or none
+    private static final int DATE_CACHE_BITS = 6;
+    private static final CachedDate[] DATE_CACHE = new CachedDate[1 << DATE_CACHE_BITS];
+
+    private final byte[] bytes;
+    private final int from;
+    private final int to;
+    private int size;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private byte[] flags = new byte[8];
+    private int parsedScale;
+
+    private Fields(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.from = from;
+        this.to = to;
+    }
+
+    static Fields of(String fields) {
+        byte[] encoded = fields.getBytes(SIE4_CHARSET);
+        return tokenize(encoded, 0, encoded.length);
+    }
+
+    static Fields tokenize(byte[] bytes, int from, int to) {
+        Fields fields = new Fields(bytes, from, to);
+        int i = from;
+
+        while (i < to) {
+            byte b = bytes[i];
+            if (isWhitespace(b)) {
+                i++;
+                continue;
+            }
+
+            int end;
+            if (b == '"' && (end = fields.closingQuote(i + 1)) >= 0) {
+                i = end + 1;
+            } else if (b == '{' && (end = closingBrace(bytes, i + 1, to)) >= 0) {
+                fields.add(i + 1, end, nonAscii(bytes, i + 1, end));
+                i = end + 1;
+            } else {
+                byte flag = 0;
+                end = i;
+                while (end < to && !isWhitespace(bytes[end])) {
+                    flag |= bytes[end] < 0 ? NON_ASCII : 0;
+                    end++;
+                }
+                fields.add(i, end, flag);
+                i = end;
+            }
+        }
+        return fields;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns {@code true} if field {@code i} is an empty token, e.g. {@code ""} or {@code {}}. */
+    boolean isEmpty(int i) {
+        checkIndex(i);
+        return starts[i] == ends[i];
+    }
+
+    String get(int i) {
+        checkIndex(i);
+        if ((flags[i] & ESCAPED) != 0) {
+            return unescape(starts[i], ends[i]);
+        }
+        return Cp437.decode(bytes, starts[i], ends[i], flags[i] == 0);
+    }
+
+    String getFirst() {
+        return get(0);
+    }
+
+    /**
+     * Parses field {@code i} as an {@code int}, accepting the same input as {@link Integer#parseInt(String)}.
+     *
+     * @throws NumberFormatException if the field is not a valid {@code int}
+     */
+    int getInt(int i) {
+        checkIndex(i);
+        int start = starts[i];
+        int end = ends[i];
+        boolean negative = start < end && bytes[start] == '-';
+        int digits = start < end && (negative || bytes[start] == '+') ? start + 1 : start;
+        // up to nine digits cannot overflow; anything longer or unusual takes the JDK path
+        if (flags[i] != 0 || digits == end || end - digits > 9) {
+            return Integer.parseInt(get(i));
+        }
+        int value = 0;
+        for (int p = digits; p < end; p++) {
+            int digit = bytes[p] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + get(i) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses field {@code i} as a {@link BigDecimal}, accepting the same input as
+     * {@link BigDecimal#BigDecimal(String)}.
+     *
+     * <p>Plain amounts of up to 18 digits, such as {@code -350000.00}, are read straight from the
+     * bytes into an unscaled {@code long} and scale. Longer numbers, exponents and anything invalid
+     * take the JDK path.
+     *
+     * @throws NumberFormatException if the field is not a valid decimal number
+     */
+    BigDecimal getDecimal(int i) {
+        checkIndex(i);
+        long unscaled = flags[i] == 0 ? parseUnscaled(starts[i], ends[i]) : NOT_COMPACT;
+        if (unscaled != NOT_COMPACT) {
+            return BigDecimal.valueOf(unscaled, parsedScale);
+        }
+        return new BigDecimal(get(i));
+    }
+
+    /**
+     * Parses {@code [-+]digits[.digits]} with at most {@link #MAX_COMPACT_DIGITS} digits into an
+     * unscaled value, leaving the scale in {@link #parsedScale}. Returns {@link #NOT_COMPACT} for any
+     * other input.
+     */
+    private long parseUnscaled(int start, int end) {
+        int p = start;
+        boolean negative = false;
+        if (p < end && (bytes[p] == '-' || bytes[p] == '+')) {
+            negative = bytes[p] == '-';
+            p++;
+        }
+        long value = 0;
+        int digits = 0;
+        int point = -1;
+        for (; p < end; p++) {
+            byte b = bytes[p];
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits++;
+            } else if (b == '.' && point < 0) {
+                point = p;
+            } else {
+                return NOT_COMPACT;
+            }
+        }
+        if (digits == 0 || digits > MAX_COMPACT_DIGITS) {
+            return NOT_COMPACT;
+        }
+        parsedScale = point < 0 ? 0 : end - point - 1;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses field {@code i} as a {@code yyyyMMdd} date, accepting the same input as
+     * {@link se.bufferoverflow.sieport.sie4.SIE4#SIE4_DATE_FORMATTER}, which moves a day past the end
+     * of the month to its last day.
+     *
+     * <p>Eight digits are decoded straight from the bytes, and recently decoded dates are shared
+     * instances. Anything else takes the formatter path.
+     *
+     * @throws java.time.format.DateTimeParseException if the field is not a valid date
+     */
+    LocalDate getDate(int i) {
+        checkIndex(i);
+        int start = starts[i];
+        int value = 0;
+        if (flags[i] == 0 && ends[i] - start == 8) {
+            for (int p = start; p < start + 8; p++) {
+                int digit = bytes[p] - '0';
+                if (digit < 0 || digit > 9) {
+                    value = -1;
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+        }
+        int year = value / 10000;
+        int month = value / 100 % 100;
+        int day = value % 100;
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return LocalDate.parse(get(i), SIE4_DATE_FORMATTER);
+        }
+
+        int slot = (value * 0x9E3779B9) >>> (32 - DATE_CACHE_BITS);
+        CachedDate cached = DATE_CACHE[slot];
+        if (cached != null && cached.value() == value) {
+            return cached.date();
+        }
+        LocalDate date = LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth()));
+        DATE_CACHE[slot] = new CachedDate(value, date);
+        return date;
+    }
+
+    /**
+     * Parses field {@code i} like {@link #getDate(int)}, or returns an empty {@link Optional} if it is
+     * an empty token.
+     */
+    Optional<LocalDate> getOptionalDate(int i) {
+        return isEmpty(i) ? Optional.empty() : Optional.of(getDate(i));
+    }
+
+    /**
+     * Parses field {@code i} as an object list, i.e. pairs of dimension number and object number.
+     *
+     * @throws SIE4Exception if the list does not consist of pairs
+     */
+    List<ObjectReference> getObjectReferences(int i) {
+        checkIndex(i);
+        Fields references = (flags[i] & ESCAPED) != 0 ? of(get(i)) : tokenize(bytes, starts[i], ends[i]);
+        return references.asObjectReferences();
+    }
+
+    /**
+     * Interprets all tokens as an object list, i.e. pairs of dimension number and object number.
+     *
+     * @throws SIE4Exception if the tokens do not form pairs
+     */
+    List<ObjectReference> asObjectReferences() {
+        if (size == 0) {
+            return List.of();
+        }
+        if (size % 2 != 0) {
+            throw new SIE4Exception("Invalid object reference list: " + this);
+        }
+
+        ObjectReference[] result = new ObjectReference[size / 2];
+        for (int r = 0; r < result.length; r++) {
+            result[r] = ObjectReference.of(getInt(2 * r), get(2 * r + 1));
+        }
+        return List.of(result);
+    }
+
+    List<String> toList() {
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(get(i));
+        }
+        return tokens;
+    }
+
+    /** Returns the decoded field text, as it appeared on the line. */
+    @Override
+    public String toString() {
+        return Cp437.decode(bytes, from, to);
+    }
+
+    private void add(int start, int end, byte flag) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            flags = Arrays.copyOf(flags, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        flags[size] = flag;
+        size++;
+    }
+
+    /**
+     * Finds the closing quote of a quoted token starting at {@code start} and, if found, adds the
+     * token. Returns the position of the closing quote, or -1 if the quote is not closed.
+     */
+    private int closingQuote(int start) {
+        int flag = 0;
+        int i = start;
+        while (i < to) {
+            byte b = bytes[i];
+            if (b == '"') {
+                add(start, i, (byte) flag);
+                return i;
+            }
+            flag |= b < 0 ? NON_ASCII : 0;
+            if (b == '\\') {
+                // an escape consumes the next byte, unless the line ends there
+                if (i + 1 >= to || bytes[i + 1] == '\n' || bytes[i + 1] == '\r') {
+                    return -1;
+                }
+                flag |= ESCAPED | (bytes[i + 1] < 0 ? NON_ASCII : 0);
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static int closingBrace(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '}') {
+                return i;
+            }
+            if (b == '{') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\\' && (bytes[i + 1] == '"' || bytes[i + 1] == '\\')) {
+                b = bytes[++i];
+            } else if (b == '\\') {
+                // unknown escape, keep both characters
+                sb.append('\\');
+                b = bytes[++i];
+            }
+            sb.append(Cp437.decode(b));
+        }
+        return sb.toString();
+    }
+
+    private static byte nonAscii(byte[] bytes, int from, int to) {
+        return Cp437.isAscii(bytes, from, to) ? 0 : NON_ASCII;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        }
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
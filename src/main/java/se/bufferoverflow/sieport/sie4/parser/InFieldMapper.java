@@ -6,17 +6,22 @@ import se.bufferoverflow.sieport.sie4.Period;
 import se.bufferoverflow.sieport.sie4.SIE4Exception;
 import se.bufferoverflow.sieport.sie4.SIE4Item;
 import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+import se.bufferoverflow.sieport.sie4.VerHeader;
 import se.bufferoverflow.sieport.sie4.YearNumber;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.logging.Logger;
 
-import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_DATE_FORMATTER;
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_CHARSET;
+import static se.bufferoverflow.sieport.sie4.parser.SIE4LineReader.isStripWhitespace;
 
 public class InFieldMapper {
 
@@ -25,7 +30,7 @@ public class InFieldMapper {
     private static final Map<SIE4ItemType, AbstractFieldParser<?>> PARSER_REGISTRY = Map.ofEntries(
             Map.entry(SIE4ItemType.ADRESS, new AbstractFieldParser<SIE4Item.Adress>() {
                 @Override
-                protected SIE4Item.Adress parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Adress parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 4) {
                         throw new SIE4Exception("Label ADRESS requires 4 fields");
                     }
@@ -34,43 +39,43 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.BKOD, new AbstractFieldParser<SIE4Item.Bkod>() {
                 @Override
-                protected SIE4Item.Bkod parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Bkod parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label BKOD requires 1 field");
                     }
-                    return new SIE4Item.Bkod(Integer.parseInt(fields.getFirst()));
+                    return new SIE4Item.Bkod(fields.getInt(0));
                 }
             }),
             Map.entry(SIE4ItemType.DIM, new AbstractFieldParser<SIE4Item.Dim>() {
                 @Override
-                protected SIE4Item.Dim parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Dim parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label DIM requires 2 fields");
                     }
-                    return new SIE4Item.Dim(Integer.parseInt(fields.get(0)), fields.get(1));
+                    return new SIE4Item.Dim(fields.getInt(0), fields.get(1));
                 }
             }),
             Map.entry(SIE4ItemType.ENHET, new AbstractFieldParser<SIE4Item.Enhet>() {
                 @Override
-                protected SIE4Item.Enhet parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Enhet parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label ENHET requires 2 fields");
                     }
-                    return new SIE4Item.Enhet(Integer.parseInt(fields.get(0)), fields.get(1));
+                    return new SIE4Item.Enhet(fields.getInt(0), fields.get(1));
                 }
             }),
             Map.entry(SIE4ItemType.FLAGGA, new AbstractFieldParser<SIE4Item.Flagga>() {
                 @Override
-                protected SIE4Item.Flagga parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Flagga parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label FLAGGA requires 1 field");
                     }
-                    return new SIE4Item.Flagga(Integer.parseInt(fields.getFirst()));
+                    return SIE4Item.Flagga.of(fields.getInt(0));
                 }
             }),
             Map.entry(SIE4ItemType.FNAMN, new AbstractFieldParser<SIE4Item.Fnamn>() {
                 @Override
-                protected SIE4Item.Fnamn parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Fnamn parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label FNAMN requires 1 field");
                     }
@@ -79,7 +84,7 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.FNR, new AbstractFieldParser<SIE4Item.Fnr>() {
                 @Override
-                protected SIE4Item.Fnr parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Fnr parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label FNR requires 1 field");
                     }
@@ -89,7 +94,7 @@ public class InFieldMapper {
 
             Map.entry(SIE4ItemType.FORMAT, new AbstractFieldParser<SIE4Item.Format>() {
                 @Override
-                protected SIE4Item.Format parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Format parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label FORMAT requires 1 field");
                     }
@@ -101,7 +106,7 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.FTYP, new AbstractFieldParser<SIE4Item.Ftyp>() {
                 @Override
-                protected SIE4Item.Ftyp parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Ftyp parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label FTYP requires 1 field");
                     }
@@ -110,11 +115,11 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.GEN, new AbstractFieldParser<SIE4Item.Gen>() {
                 @Override
-                protected SIE4Item.Gen parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Gen parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.isEmpty() || fields.size() > 2) {
                         throw new SIE4Exception("Label GEN requires at least 1 field, but max 2");
                     }
-                    LocalDate date = LocalDate.parse(fields.get(0), SIE4_DATE_FORMATTER);
+                    LocalDate date = fields.getDate(0);
 
                     Optional<String> signature = Optional.empty();
                     if (fields.size() > 1) {
@@ -126,35 +131,35 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.IB, new AbstractFieldParser<SIE4Item.Ib>() {
                 @Override
-                protected SIE4Item.Ib parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Ib parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 4) {
                         throw new SIE4Exception("Label IB requires 3 or 4 fields");
                     }
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 4) {
-                        quantity = Optional.of(new BigDecimal(fields.get(3)));
+                        quantity = Optional.of(fields.getDecimal(3));
                     }
 
                     return new SIE4Item.Ib(
-                            YearNumber.of(Integer.parseInt(fields.get(0))),
-                            Integer.parseInt(fields.get(1)),
-                            new BigDecimal(fields.get(2)),
+                            YearNumber.of(fields.getInt(0)),
+                            fields.getInt(1),
+                            fields.getDecimal(2),
                             quantity);
                 }
             }),
             Map.entry(SIE4ItemType.KONTO, new AbstractFieldParser<SIE4Item.Konto>() {
                 @Override
-                protected SIE4Item.Konto parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Konto parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label KONTO requires 2 fields");
                     }
-                    return new SIE4Item.Konto(Integer.parseInt(fields.get(0)), fields.get(1));
+                    return new SIE4Item.Konto(fields.getInt(0), fields.get(1));
                 }
             }),
             Map.entry(SIE4ItemType.KPTYP, new AbstractFieldParser<SIE4Item.Kptyp>() {
                 @Override
-                protected SIE4Item.Kptyp parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Kptyp parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label KPTYP requires 1 field");
                     }
@@ -163,44 +168,44 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.KTYP, new AbstractFieldParser<SIE4Item.Ktyp>() {
                 @Override
-                protected SIE4Item.Ktyp parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Ktyp parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label KTYP requires 2 fields");
                     }
                     return new SIE4Item.Ktyp(
-                            Integer.parseInt(fields.get(0)),
+                            fields.getInt(0),
                             SIE4Item.Ktyp.AccountType.valueOf(fields.get(1).toUpperCase()));
                 }
             }),
             Map.entry(SIE4ItemType.OBJEKT, new AbstractFieldParser<SIE4Item.Objekt>() {
                 @Override
-                protected SIE4Item.Objekt parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Objekt parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 3) {
                         throw new SIE4Exception("Label OBJEKT requires 3 fields");
                     }
-                    return new SIE4Item.Objekt(Integer.parseInt(fields.get(0)), fields.get(1), fields.get(2));
+                    return new SIE4Item.Objekt(fields.getInt(0), fields.get(1), fields.get(2));
                 }
             }),
             Map.entry(SIE4ItemType.OIB, new AbstractFieldParser<SIE4Item.Oib>() {
                 @Override
-                protected SIE4Item.Oib parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Oib parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 4 || fields.size() > 5) {
                         throw new SIE4Exception("Label OIB requires 4 or 5 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
-                    int accountNo = Integer.parseInt(fields.get(1));
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(2));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
+                    int accountNo = fields.getInt(1);
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(2);
                     if (objectReferences.size() != 1) {
                         throw new SIE4Exception("Label OIB requires 1 object reference");
                     }
                     ObjectReference objectReference = objectReferences.getFirst();
 
-                    BigDecimal balance = new BigDecimal(fields.get(3));
+                    BigDecimal balance = fields.getDecimal(3);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 5) {
-                        quantity = Optional.of(new BigDecimal(fields.get(4)));
+                        quantity = Optional.of(fields.getDecimal(4));
                     }
 
                     return new SIE4Item.Oib(yearNumber, accountNo, objectReference, balance, quantity);
@@ -208,53 +213,53 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.OMFATTN, new AbstractFieldParser<SIE4Item.Omfattn>() {
                 @Override
-                protected SIE4Item.Omfattn parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Omfattn parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label OMFATTN requires 1 field");
                     }
-                    LocalDate date = LocalDate.parse(fields.getFirst(), SIE4_DATE_FORMATTER);
+                    LocalDate date = fields.getDate(0);
                     return new SIE4Item.Omfattn(date);
                 }
             }),
             Map.entry(SIE4ItemType.ORGNR, new AbstractFieldParser<SIE4Item.OrgNr>() {
                 @Override
-                protected SIE4Item.OrgNr parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.OrgNr parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.isEmpty() || fields.size() > 3) {
                         throw new SIE4Exception("Label ORGNR requires 1 to 3 fields");
                     }
                     String orgNr = fields.get(0);
                     Optional<Integer> acqNo = Optional.empty();
                     if (fields.size() > 1) {
-                        acqNo = Optional.of(Integer.parseInt(fields.get(1)));
+                        acqNo = Optional.of(fields.getInt(1));
                     }
                     Optional<Integer> actNo = Optional.empty();
                     if (fields.size() > 2) {
-                        actNo = Optional.of(Integer.parseInt(fields.get(2)));
+                        actNo = Optional.of(fields.getInt(2));
                     }
                     return new SIE4Item.OrgNr(orgNr, acqNo, actNo);
                 }
             }),
             Map.entry(SIE4ItemType.OUB, new AbstractFieldParser<SIE4Item.Oub>() {
                 @Override
-                protected SIE4Item.Oub parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Oub parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 4 || fields.size() > 5) {
                         throw new SIE4Exception("Label OUB requires 4 or 5 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
-                    int accountNo = Integer.parseInt(fields.get(1));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
+                    int accountNo = fields.getInt(1);
 
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(2));
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(2);
                     if (objectReferences.size() != 1) {
                         throw new SIE4Exception("Label OUB requires 1 object reference");
                     }
                     ObjectReference objectReference = objectReferences.getFirst();
 
-                    BigDecimal balance = new BigDecimal(fields.get(3));
+                    BigDecimal balance = fields.getDecimal(3);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 5) {
-                        quantity = Optional.of(new BigDecimal(fields.get(4)));
+                        quantity = Optional.of(fields.getDecimal(4));
                     }
 
                     return new SIE4Item.Oub(yearNumber, accountNo, objectReference, balance, quantity);
@@ -262,26 +267,26 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.PBUDGET, new AbstractFieldParser<SIE4Item.Pbudget>() {
                 @Override
-                protected SIE4Item.Pbudget parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Pbudget parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 5 || fields.size() > 6) {
                         throw new SIE4Exception("Label PBUDGET requires 5 or 6 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
                     Period period = Period.of(fields.get(1));
-                    int accountNo = Integer.parseInt(fields.get(2));
+                    int accountNo = fields.getInt(2);
 
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(3));
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(3);
                     if (objectReferences.size() > 1) {
                         throw new SIE4Exception("Label PBUDGET can have at most 1 object reference");
                     }
                     Optional<ObjectReference> objectReference = objectReferences.stream().findFirst();
 
-                    BigDecimal balance = new BigDecimal(fields.get(4));
+                    BigDecimal balance = fields.getDecimal(4);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 6) {
-                        quantity = Optional.of(new BigDecimal(fields.get(5)));
+                        quantity = Optional.of(fields.getDecimal(5));
                     }
 
                     return new SIE4Item.Pbudget(yearNumber, period, accountNo, objectReference, balance, quantity);
@@ -289,7 +294,7 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.PROGRAM, new AbstractFieldParser<SIE4Item.Program>() {
                 @Override
-                protected SIE4Item.Program parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Program parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label PROGRAM requires 2 fields");
                     }
@@ -298,7 +303,7 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.PROSA, new AbstractFieldParser<SIE4Item.Prosa>() {
                 @Override
-                protected SIE4Item.Prosa parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Prosa parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label PROSA requires 1 field");
                     }
@@ -307,25 +312,25 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.PSALDO, new AbstractFieldParser<SIE4Item.Psaldo>() {
                 @Override
-                protected SIE4Item.Psaldo parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Psaldo parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 5 || fields.size() > 6) {
                         throw new SIE4Exception("Label PSALDO requires 5 or 6 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
                     Period period = Period.of(fields.get(1));
-                    int accountNo = Integer.parseInt(fields.get(2));
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(3));
+                    int accountNo = fields.getInt(2);
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(3);
                     if (objectReferences.size() > 1) {
                         throw new SIE4Exception("Label PSALDO can have at most 1 object reference");
                     }
                     Optional<ObjectReference> objectReference = objectReferences.stream().findFirst();
 
-                    BigDecimal balance = new BigDecimal(fields.get(4));
+                    BigDecimal balance = fields.getDecimal(4);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 6) {
-                        quantity = Optional.of(new BigDecimal(fields.get(5)));
+                        quantity = Optional.of(fields.getDecimal(5));
                     }
 
                     return new SIE4Item.Psaldo(yearNumber, period, accountNo, objectReference, balance, quantity);
@@ -333,32 +338,32 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.RAR, new AbstractFieldParser<SIE4Item.Rar>() {
                 @Override
-                protected SIE4Item.Rar parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Rar parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 3) {
                         throw new SIE4Exception("Label RAR requires 3 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
-                    LocalDate start = LocalDate.parse(fields.get(1), SIE4_DATE_FORMATTER);
-                    LocalDate end = LocalDate.parse(fields.get(2), SIE4_DATE_FORMATTER);
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
+                    LocalDate start = fields.getDate(1);
+                    LocalDate end = fields.getDate(2);
 
                     return new SIE4Item.Rar(yearNumber, start, end);
                 }
             }),
             Map.entry(SIE4ItemType.RES, new AbstractFieldParser<SIE4Item.Res>() {
                 @Override
-                protected SIE4Item.Res parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Res parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 4) {
                         throw new SIE4Exception("Label RES requires 3 or 4 fields");
                     }
 
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
-                    int accountNo = Integer.parseInt(fields.get(1));
-                    BigDecimal balance = new BigDecimal(fields.get(2));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
+                    int accountNo = fields.getInt(1);
+                    BigDecimal balance = fields.getDecimal(2);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 4) {
-                        quantity = Optional.of(new BigDecimal(fields.get(3)));
+                        quantity = Optional.of(fields.getDecimal(3));
                     }
 
                     return new SIE4Item.Res(yearNumber, accountNo, balance, quantity);
@@ -366,46 +371,45 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.SIETYP, new AbstractFieldParser<SIE4Item.Sietyp>() {
                 @Override
-                protected SIE4Item.Sietyp parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Sietyp parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label SIETYP requires 1 field");
                     }
-                    return new SIE4Item.Sietyp(Integer.parseInt(fields.getFirst()));
+                    return SIE4Item.Sietyp.of(fields.getInt(0));
                 }
             }),
             Map.entry(SIE4ItemType.SRU, new AbstractFieldParser<SIE4Item.Sru>() {
                 @Override
-                protected SIE4Item.Sru parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Sru parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 2) {
                         throw new SIE4Exception("Label SRU requires 2 fields");
                     }
-                    return new SIE4Item.Sru(Integer.parseInt(fields.get(0)), Integer.parseInt(fields.get(1)));
+                    return new SIE4Item.Sru(fields.getInt(0), fields.getInt(1));
                 }
             }),
             Map.entry(SIE4ItemType.TAXAR, new AbstractFieldParser<SIE4Item.Taxar>() {
                 @Override
-                protected SIE4Item.Taxar parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Taxar parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label TAXAR requires 1 field");
                     }
-                    return new SIE4Item.Taxar(Integer.parseInt(fields.getFirst()));
+                    return new SIE4Item.Taxar(fields.getInt(0));
                 }
             }),
             Map.entry(SIE4ItemType.TRANS, new AbstractFieldParser<SIE4Item.Transaction.Trans>() {
                 @Override
-                protected SIE4Item.Transaction.Trans parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Transaction.Trans parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 7) {
                         throw new SIE4Exception("Label TRANS requires between 3 and 7 fields");
                     }
 
-                    int accountNo = Integer.parseInt(fields.get(0));
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(1));
-                    BigDecimal amount = new BigDecimal(fields.get(2));
+                    int accountNo = fields.getInt(0);
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(1);
+                    BigDecimal amount = fields.getDecimal(2);
 
                     Optional<LocalDate> transactionDate = Optional.empty();
                     if (fields.size() > 3) {
-                        transactionDate = parseOptionalField(fields.get(3))
-                                .map(value -> LocalDate.parse(value, SIE4_DATE_FORMATTER));
+                        transactionDate = fields.getOptionalDate(3);
                     }
 
                     Optional<String> text = Optional.empty();
@@ -415,7 +419,7 @@ public class InFieldMapper {
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() > 5) {
-                        quantity = parseOptionalField(fields.get(5)).map(BigDecimal::new);
+                        quantity = fields.isEmpty(5) ? Optional.empty() : Optional.of(fields.getDecimal(5));
                     }
 
                     Optional<String> sign = Optional.empty();
@@ -428,19 +432,18 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.RTRANS, new AbstractFieldParser<SIE4Item.Transaction.Rtrans>() {
                 @Override
-                protected SIE4Item.Transaction.Rtrans parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Transaction.Rtrans parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 7) {
                         throw new SIE4Exception("Label RTRANS requires between 3 and 7 fields");
                     }
 
-                    int accountNo = Integer.parseInt(fields.get(0));
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(1));
-                    BigDecimal amount = new BigDecimal(fields.get(2));
+                    int accountNo = fields.getInt(0);
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(1);
+                    BigDecimal amount = fields.getDecimal(2);
 
                     Optional<LocalDate> transactionDate = Optional.empty();
                     if (fields.size() > 3) {
-                        transactionDate = parseOptionalField(fields.get(3))
-                                .map(value -> LocalDate.parse(value, SIE4_DATE_FORMATTER));
+                        transactionDate = fields.getOptionalDate(3);
                     }
 
                     Optional<String> text = Optional.empty();
@@ -450,7 +453,7 @@ public class InFieldMapper {
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() > 5) {
-                        quantity = parseOptionalField(fields.get(5)).map(BigDecimal::new);
+                        quantity = fields.isEmpty(5) ? Optional.empty() : Optional.of(fields.getDecimal(5));
                     }
 
                     Optional<String> sign = Optional.empty();
@@ -463,19 +466,18 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.BTRANS, new AbstractFieldParser<SIE4Item.Transaction.Btrans>() {
                 @Override
-                protected SIE4Item.Transaction.Btrans parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Transaction.Btrans parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 7) {
                         throw new SIE4Exception("Label BTRANS requires between 3 and 7 fields");
                     }
 
-                    int accountNo = Integer.parseInt(fields.get(0));
-                    List<ObjectReference> objectReferences = parseObjectReferences(fields.get(1));
-                    BigDecimal amount = new BigDecimal(fields.get(2));
+                    int accountNo = fields.getInt(0);
+                    List<ObjectReference> objectReferences = fields.getObjectReferences(1);
+                    BigDecimal amount = fields.getDecimal(2);
 
                     Optional<LocalDate> transactionDate = Optional.empty();
                     if (fields.size() > 3) {
-                        transactionDate = parseOptionalField(fields.get(3))
-                                .map(value -> LocalDate.parse(value, SIE4_DATE_FORMATTER));
+                        transactionDate = fields.getOptionalDate(3);
                     }
 
                     Optional<String> text = Optional.empty();
@@ -485,7 +487,7 @@ public class InFieldMapper {
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() > 5) {
-                        quantity = parseOptionalField(fields.get(5)).map(BigDecimal::new);
+                        quantity = fields.isEmpty(5) ? Optional.empty() : Optional.of(fields.getDecimal(5));
                     }
 
                     Optional<String> sign = Optional.empty();
@@ -498,17 +500,17 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.UB, new AbstractFieldParser<SIE4Item.Ub>() {
                 @Override
-                protected SIE4Item.Ub parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Ub parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() < 3 || fields.size() > 4) {
                         throw new SIE4Exception("Label UB requires 3 or 4 fields");
                     }
-                    YearNumber yearNumber = YearNumber.of(Integer.parseInt(fields.get(0)));
-                    int accountNo = Integer.parseInt(fields.get(1));
-                    BigDecimal balance = new BigDecimal(fields.get(2));
+                    YearNumber yearNumber = YearNumber.of(fields.getInt(0));
+                    int accountNo = fields.getInt(1);
+                    BigDecimal balance = fields.getDecimal(2);
 
                     Optional<BigDecimal> quantity = Optional.empty();
                     if (fields.size() == 4) {
-                        quantity = Optional.of(new BigDecimal(fields.get(3)));
+                        quantity = Optional.of(fields.getDecimal(3));
                     }
 
                     return new SIE4Item.Ub(yearNumber, accountNo, balance, quantity);
@@ -516,20 +518,20 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.UNDERDIM, new AbstractFieldParser<SIE4Item.Underdim>() {
                 @Override
-                protected SIE4Item.Underdim parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Underdim parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 3) {
                         throw new SIE4Exception("Label UNDERDIM requires 3 fields");
                     }
                     return new SIE4Item.Underdim(
-                            Integer.parseInt(fields.get(0)),
+                            fields.getInt(0),
                             fields.get(1),
-                            Integer.parseInt(fields.get(2))
+                            fields.getInt(2)
                     );
                 }
             }),
             Map.entry(SIE4ItemType.VALUTA, new AbstractFieldParser<SIE4Item.Valuta>() {
                 @Override
-                protected SIE4Item.Valuta parseFields(List<String> fields, List<SIE4Item> subItems) {
+                protected SIE4Item.Valuta parseFields(Fields fields, List<SIE4Item> subItems) {
                     if (fields.size() != 1) {
                         throw new SIE4Exception("Label VALUTA requires 1 field");
                     }
@@ -538,43 +540,76 @@ public class InFieldMapper {
             }),
             Map.entry(SIE4ItemType.VER, new AbstractFieldParser<SIE4Item.Ver>() {
                 @Override
-                protected SIE4Item.Ver parseFields(List<String> fields, List<SIE4Item> subItems) {
-                    if (fields.size() < 3 || fields.size() > 6) {
-                        throw new SIE4Exception("Label VER requires between 3 and 6 fields");
+                protected SIE4Item.Ver parseFields(Fields fields, List<SIE4Item> subItems) {
+                    SIE4Item.Ver.Builder ver = SIE4Item.Ver.builder(parseVerHeader(fields));
+                    for (SIE4Item subItem : subItems) {
+                        if (!(subItem instanceof SIE4Item.Transaction transaction)) {
+                            throw new SIE4Exception("All subItems must be transactions");
+                        }
+                        ver.add(transaction);
                     }
+                    return ver.build();
+                }
+            })
+    );
 
-                    Optional<String> series = parseOptionalField(fields.get(0));
-                    Optional<String> verificationNo = parseOptionalField(fields.get(1));
-                    LocalDate date = LocalDate.parse(fields.get(2), SIE4_DATE_FORMATTER);
+    // the parsers of PARSER_REGISTRY by item type ordinal, null for types without a parser
+    private static final AbstractFieldParser<?>[] PARSERS = new AbstractFieldParser<?>[SIE4ItemType.values().length];
 
-                    Optional<String> text = Optional.empty();
-                    if (fields.size() > 3 && !fields.get(3).isEmpty()) {
-                        text = parseOptionalField(fields.get(3));
-                    }
+    static {
+        PARSER_REGISTRY.forEach((type, parser) -> PARSERS[type.ordinal()] = parser);
+    }
 
-                    Optional<LocalDate> regDate = Optional.empty();
-                    if (fields.size() > 4 && !fields.get(4).isEmpty()) {
-                        regDate = parseOptionalField(fields.get(4))
-                                .map(value -> LocalDate.parse(value, SIE4_DATE_FORMATTER));
-                    }
+    private static VerHeader parseVerHeader(Fields fields) {
+        if (fields.size() < 3 || fields.size() > 6) {
+            throw new SIE4Exception("Label VER requires between 3 and 6 fields");
+        }
 
-                    Optional<String> sign = Optional.empty();
-                    if (fields.size() > 5 && !fields.get(5).isEmpty()) {
-                        sign = parseOptionalField(fields.get(5));
-                    }
+        Optional<String> series = AbstractFieldParser.parseOptionalField(fields.get(0));
+        Optional<String> verificationNo = AbstractFieldParser.parseOptionalField(fields.get(1));
+        LocalDate date = fields.getDate(2);
 
-                    if (subItems.stream().anyMatch(t -> !(t instanceof SIE4Item.Transaction))) {
-                        throw new SIE4Exception("All subItems must be transactions");
-                    }
-                    List<SIE4Item.Transaction> transactions = subItems.stream().map(t -> (SIE4Item.Transaction) t).toList();
+        Optional<String> text = Optional.empty();
+        if (fields.size() > 3 && !fields.get(3).isEmpty()) {
+            text = AbstractFieldParser.parseOptionalField(fields.get(3));
+        }
 
-                    return new SIE4Item.Ver(date, series, verificationNo, text, regDate, sign, transactions);
-                }
-            })
-    );
+        Optional<LocalDate> regDate = Optional.empty();
+        if (fields.size() > 4 && !fields.get(4).isEmpty()) {
+            regDate = fields.getOptionalDate(4);
+        }
+
+        Optional<String> sign = Optional.empty();
+        if (fields.size() > 5 && !fields.get(5).isEmpty()) {
+            sign = AbstractFieldParser.parseOptionalField(fields.get(5));
+        }
 
+        return new VerHeader(date, series, verificationNo, text, regDate, sign);
+    }
+
+    /**
+     * Parses a single item line. Unknown labels and {@code #KSUMMA} are skipped. The line is stripped
+     * of leading and trailing whitespace, as by {@link String#strip()}, and then encoded in CP437
+     * and parsed like the lines of a file.
+     *
+     * @param itemLine the item line; must only contain characters representable in CP437
+     * @return the parsed item, or {@code null} if the line was skipped
+     * @throws SIE4Exception if the line is malformed or contains a character that CP437 cannot represent
+     */
     public static SIE4Item toModel(String itemLine) {
-        LabelWithFields labelWithFields = splitLine(itemLine);
+        byte[] line = encode(itemLine);
+        return toModel(line, 0, line.length);
+    }
+
+    /**
+     * Parses a single item line from the CP437 bytes {@code line[from, to)}. Unknown labels and
+     * {@code #KSUMMA} are skipped.
+     *
+     * @return the parsed item, or {@code null} if the line was skipped
+     * @throws SIE4Exception if the line is malformed
+     */
+    public static SIE4Item toModel(byte[] line, int from, int to) {
+        LabelWithFields labelWithFields = splitLine(line, from, to);
 
         if (labelWithFields == null) {
             return null;
@@ -584,54 +619,126 @@ public class InFieldMapper {
             throw new SIE4Exception("#VER items cannot be parsed by this function");
         }
 
-        var parser = PARSER_REGISTRY.get(labelWithFields.label());
+        var parser = PARSERS[labelWithFields.label().ordinal()];
         if (parser == null) {
             throw new SIE4Exception("No parser registered for label: #" + labelWithFields.label());
         }
         return parser.parseFields(labelWithFields.fields());
     }
 
+    /**
+     * Parses the lines of a {@code #VER} block: the {@code #VER} line followed by its transaction
+     * lines. Each transaction is added to the voucher as soon as its line is parsed.
+     *
+     * @throws SIE4Exception if a line is malformed or the transactions do not form a valid voucher
+     */
     public static SIE4Item.Ver toModel(List<String> itemLines) {
-        String verLine = itemLines.getFirst();
-        LabelWithFields labelWithFields = splitLine(verLine);
+        SIE4Item.Ver.Builder ver = SIE4Item.Ver.builder(toVerHeader(itemLines.getFirst()));
+        for (int i = 1; i < itemLines.size(); i++) {
+            SIE4Item subItem = toModel(itemLines.get(i));
+            if (subItem == null) {
+                continue;
+            }
+            if (!(subItem instanceof SIE4Item.Transaction transaction)) {
+                throw new SIE4Exception("All subItems must be transactions");
+            }
+            ver.add(transaction);
+        }
+        return ver.build();
+    }
 
-        if (labelWithFields.label() != SIE4ItemType.VER) {
+    /**
+     * Parses a single {@code #VER} line into its header fields, without the voucher body.
+     *
+     * @param verLine the {@code #VER} line; must only contain characters representable in CP437
+     * @return the parsed header
+     * @throws SIE4Exception if the line is not a valid {@code #VER} line or contains a character that
+     *                       CP437 cannot represent
+     */
+    public static VerHeader toVerHeader(String verLine) {
+        byte[] line = encode(verLine);
+        return toVerHeader(line, 0, line.length);
+    }
+
+    /**
+     * Parses a single {@code #VER} line from the CP437 bytes {@code line[from, to)} into its header
+     * fields, without the voucher body.
+     *
+     * @return the parsed header
+     * @throws SIE4Exception if the line is not a valid {@code #VER} line
+     */
+    public static VerHeader toVerHeader(byte[] line, int from, int to) {
+        LabelWithFields labelWithFields = splitLine(line, from, to);
+
+        if (labelWithFields == null || labelWithFields.label() != SIE4ItemType.VER) {
             throw new SIE4Exception("Only #VER items can be parsed by this function");
         }
 
-        List<SIE4Item> transactions = itemLines.stream()
-                .skip(1)
-                .map(InFieldMapper::toModel)
-                .filter(Objects::nonNull)
-                .toList();
+        try {
+            return parseVerHeader(labelWithFields.fields());
+        } catch (SIE4Exception e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SIE4Exception("Could not parse fields " + labelWithFields.fields(), e);
+        }
+    }
 
-        return (SIE4Item.Ver) PARSER_REGISTRY.get(SIE4ItemType.VER).parseFields(labelWithFields.fields(), transactions);
+    /**
+     * Strips and encodes a line in CP437, rejecting characters that {@link String#getBytes} would
+     * silently replace with {@code ?}.
+     */
+    private static byte[] encode(String itemLine) {
+        if (itemLine == null) {
+            throw new SIE4Exception("ItemLine cannot be null or blank");
+        }
+        String stripped = itemLine.strip();
+        for (int i = 0; i < stripped.length(); i++) {
+            if (stripped.charAt(i) >= 0x80) {
+                try {
+                    ByteBuffer encoded = SIE4_CHARSET.newEncoder().encode(CharBuffer.wrap(stripped));
+                    return Arrays.copyOf(encoded.array(), encoded.limit());
+                } catch (CharacterCodingException e) {
+                    throw new SIE4Exception("Item line contains characters not representable in CP437: " + itemLine);
+                }
+            }
+        }
+        return stripped.getBytes(SIE4_CHARSET);
     }
 
-    private static LabelWithFields splitLine(String itemLine) {
-        if (itemLine == null || itemLine.isBlank()) {
+    private static LabelWithFields splitLine(byte[] line, int from, int to) {
+        while (from < to && isStripWhitespace(line[from])) {
+            from++;
+        }
+        while (to > from && isStripWhitespace(line[to - 1])) {
+            to--;
+        }
+        if (from == to) {
             throw new SIE4Exception("ItemLine cannot be null or blank");
         }
 
-        String[] split = itemLine.split("\\s+", 2);
-        SIE4ItemType label;
-        try {
-            label = SIE4ItemType.valueOf(split[0].strip().substring(1).toUpperCase());
-        } catch (IllegalArgumentException e) {
-            LOG.warning("Skipping unsupported SIE4 label: " + split[0]);
+        int labelEnd = from;
+        while (labelEnd < to && !Fields.isWhitespace(line[labelEnd])) {
+            labelEnd++;
+        }
+        SIE4ItemType label = Labels.recognize(line, from + 1, labelEnd);
+        if (label == null) {
+            LOG.warning("Skipping unsupported SIE4 label: " + Cp437.decode(line, from, labelEnd));
             return null;
         }
         if (label == SIE4ItemType.KSUMMA) {
-            LOG.info("Skipping #KSUMMA: checksum verification is not supported");
+            // not an item; the checksum is verified while scanning, see KsummaChecksum
             return null;
         }
-        if (split.length < 2) {
-            throw new SIE4Exception("Label " + split[0] + " has no fields");
+        if (labelEnd == to) {
+            throw new SIE4Exception("Label " + Cp437.decode(line, from, labelEnd) + " has no fields");
+        }
+        int fieldsStart = labelEnd;
+        while (isStripWhitespace(line[fieldsStart])) {
+            fieldsStart++;
         }
-        String fields = split[1].strip();
-        return new LabelWithFields(label, fields);
+        return new LabelWithFields(label, Fields.tokenize(line, fieldsStart, to));
     }
 
-    private record LabelWithFields(SIE4ItemType label, String fields) {}
+    private record LabelWithFields(SIE4ItemType label, Fields fields) {}
 
 }
@@ -0,0 +1,125 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+
+import java.util.zip.CRC32;
+
+/**
+ * The CRC-32 checksum of a {@code #KSUMMA} section, computed incrementally one CP437 line at a time.
+ *
+ * <p>A file with a checksum has a {@code #KSUMMA} item without fields directly after {@code #FLAGGA}
+ * and a {@code #KSUMMA} item with the checksum last. The checksum covers every line in between: the
+ * label and the content of each field, without the whitespace between fields, the quotes around
+ * fields and the braces of object lists, and with {@code \"} and {@code \\} escapes resolved. Line
+ * breaks and the lines holding only the braces of a {@code #VER} block therefore do not affect it.
+ */
+public final class KsummaChecksum {
+
+    /** Returned by {@link #value(byte[], int, int)} for the opening {@code #KSUMMA} item. */
+    public static final long NO_VALUE = -1;
+
+    private static final byte[] LABEL = {'#', 'K', 'S', 'U', 'M', 'M', 'A'};
+
+    private final CRC32 crc = new CRC32();
+
+    /** Adds the line {@code line[from, to)} to the checksum. */
+    public void update(byte[] line, int from, int to) {
+        int i = from;
+        while (i < to) {
+            byte b = line[i];
+            if (Fields.isWhitespace(b) || b == '{' || b == '}') {
+                i++;
+                continue;
+            }
+            int end;
+            if (b == '"' && (end = closingQuote(line, i + 1, to)) >= 0) {
+                updateUnescaped(line, i + 1, end);
+                i = end + 1;
+                continue;
+            }
+            // an unclosed quote is an ordinary byte, like in Fields
+            end = i + 1;
+            while (end < to && !Fields.isWhitespace(line[end]) && line[end] != '{' && line[end] != '}') {
+                end++;
+            }
+            crc.update(line, i, end - i);
+            i = end;
+        }
+    }
+
+    /** Returns the checksum of the lines added so far. */
+    public long getValue() {
+        return crc.getValue();
+    }
+
+    /** Returns {@code true} if {@code line[from, to)} is a {@code #KSUMMA} item, in any case. */
+    public static boolean isKsummaLine(byte[] line, int from, int to) {
+        if (to - from < LABEL.length) {
+            return false;
+        }
+        for (int i = 0; i < LABEL.length; i++) {
+            // setting 0x20 lowercases letters and leaves '#' as is
+            if ((line[from + i] | 0x20) != (LABEL[i] | 0x20)) {
+                return false;
+            }
+        }
+        return to - from == LABEL.length || Fields.isWhitespace(line[from + LABEL.length]);
+    }
+
+    /**
+     * Returns the checksum of the {@code #KSUMMA} item {@code line[from, to)}, or {@link #NO_VALUE}
+     * if it has none.
+     *
+     * @throws SIE4Exception if the checksum is not an unsigned 32-bit number
+     */
+    public static long value(byte[] line, int from, int to) {
+        Fields fields = Fields.tokenize(line, from + LABEL.length, to);
+        if (fields.isEmpty()) {
+            return NO_VALUE;
+        }
+        try {
+            long value = Long.parseLong(fields.get(0));
+            if (value >= 0 && value <= 0xFFFFFFFFL) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new SIE4Exception("Invalid #KSUMMA checksum: " + fields.get(0));
+    }
+
+    private void updateUnescaped(byte[] line, int start, int end) {
+        int run = start;
+        for (int i = start; i < end; i++) {
+            if (line[i] == '\\') {
+                if (line[i + 1] == '"' || line[i + 1] == '\\') {
+                    crc.update(line, run, i - run);
+                    run = i + 1;
+                }
+                // the escaped byte is never a delimiter
+                i++;
+            }
+        }
+        crc.update(line, run, end - run);
+    }
+
+    /** Returns the position of the quote closing a quoted field starting at {@code start}, or -1. */
+    private static int closingQuote(byte[] line, int start, int to) {
+        int i = start;
+        while (i < to) {
+            byte b = line[i];
+            if (b == '"') {
+                return i;
+            }
+            if (b == '\\') {
+                if (i + 1 >= to || line[i + 1] == '\n' || line[i + 1] == '\r') {
+                    return -1;
+                }
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
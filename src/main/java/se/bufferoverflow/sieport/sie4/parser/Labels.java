@@ -0,0 +1,93 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recognizes item labels in the raw bytes of a line with a perfect hash over the
+ * {@link SIE4ItemType} names. A label matches its type case-insensitively, like
+ * {@code SIE4ItemType.valueOf(label.toUpperCase())}, but without decoding the label or throwing for
+ * unknown labels.
+ *
+ * <p>The hash multiplies the upper-cased bytes into an {@code int}; its multiplier is chosen when the
+ * class is loaded so that every name has a slot of its own. A lookup hashes the label, then compares
+ * it with the one name in its slot.
+ */
+final class Labels {
+
+    private static final int TABLE_BITS = 7;
+    private static final SIE4ItemType[] TABLE = new SIE4ItemType[1 << TABLE_BITS];
+    private static final byte[][] NAMES = new byte[1 << TABLE_BITS][];
+    private static final int MAX_LENGTH;
+    private static final int MULTIPLIER;
+
+    static {
+        int maxLength = 0;
+        for (SIE4ItemType type : SIE4ItemType.values()) {
+            maxLength = Math.max(maxLength, type.name().length());
+        }
+        MAX_LENGTH = maxLength;
+        MULTIPLIER = findMultiplier();
+        for (SIE4ItemType type : SIE4ItemType.values()) {
+            byte[] name = type.name().getBytes(StandardCharsets.US_ASCII);
+            int slot = slot(name, 0, name.length, MULTIPLIER);
+            TABLE[slot] = type;
+            NAMES[slot] = name;
+        }
+    }
+
+    private Labels() {
+    }
+
+    /**
+     * Returns the item type of the label {@code line[from, to)}, or {@code null} if it is not the
+     * name of an item type.
+     */
+    static SIE4ItemType recognize(byte[] line, int from, int to) {
+        if (to - from > MAX_LENGTH || from == to) {
+            return null;
+        }
+        int slot = slot(line, from, to, MULTIPLIER);
+        byte[] name = NAMES[slot];
+        if (name == null || name.length != to - from) {
+            return null;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (upperCase(line[from + i]) != name[i]) {
+                return null;
+            }
+        }
+        return TABLE[slot];
+    }
+
+    private static int slot(byte[] bytes, int from, int to, int multiplier) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = hash * multiplier + upperCase(bytes[i]);
+        }
+        return (hash * 0x9E3779B9) >>> (32 - TABLE_BITS);
+    }
+
+    private static int upperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
+    /** Returns the smallest odd multiplier for which the names have distinct slots. */
+    private static int findMultiplier() {
+        SIE4ItemType[] types = SIE4ItemType.values();
+        for (int multiplier = 31; ; multiplier += 2) {
+            boolean[] used = new boolean[1 << TABLE_BITS];
+            boolean perfect = true;
+            for (int t = 0; t < types.length && perfect; t++) {
+                byte[] name = types[t].name().getBytes(StandardCharsets.US_ASCII);
+                int slot = slot(name, 0, name.length, multiplier);
+                perfect = !used[slot];
+                used[slot] = true;
+            }
+            if (perfect) {
+                return multiplier;
+            }
+        }
+    }
+}
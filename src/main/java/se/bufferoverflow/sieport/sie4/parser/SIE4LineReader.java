@@ -0,0 +1,180 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Splits raw SIE4 input into lines without decoding it. Lines end at {@code \n}, {@code \r} or
+ * {@code \r\n}, like {@link java.io.BufferedReader#readLine()}, and leading and trailing whitespace
+ * is stripped like {@link String#strip()}.
+ *
+ * <p>After a successful {@link #nextLine()}, the current line is {@code buffer()[lineStart(), lineEnd())}.
+ * The buffer is reused, so the line is only valid until the next call. Pass the line on to
+ * {@link InFieldMapper#toModel(byte[], int, int)}, which decodes only the fields that become strings.
+ *
+ * <p>A reader created from a {@link FileChannel} memory-maps the file instead of reading it, so
+ * lines are copied straight from the page cache without any {@code read} system calls.
+ */
+public final class SIE4LineReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // Mapping windows are kept well below the 2 GiB limit of a single MappedByteBuffer
+    private static final long MAX_MAPPING_SIZE = 1L << 30;
+
+    private final Source source;
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+    private boolean skipLineFeed;
+    private int lineStart;
+    private int lineEnd;
+
+    public SIE4LineReader(InputStream in) {
+        Objects.requireNonNull(in, "in must not be null");
+        this.source = in::read;
+    }
+
+    /**
+     * Creates a reader that memory-maps {@code channel} from its current position to its end. The
+     * channel must be open for reading and is not closed by the reader.
+     *
+     * @throws IOException if the position of the channel cannot be read
+     */
+    public SIE4LineReader(FileChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel must not be null");
+        this.source = new MappedSource(channel, channel.position());
+    }
+
+    /**
+     * Advances to the next line, which may be empty after stripping.
+     *
+     * @return {@code false} if the end of the input has been reached
+     * @throws IOException if reading from the underlying stream fails
+     */
+    public boolean nextLine() throws IOException {
+        int scan = position;
+        while (true) {
+            if (skipLineFeed && position < limit) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    scan = position;
+                }
+            }
+            for (int i = scan; i < limit; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    setLine(position, i);
+                    position = i + 1;
+                    skipLineFeed = b == '\r';
+                    return true;
+                }
+            }
+            if (endOfStream) {
+                if (position == limit) {
+                    return false;
+                }
+                setLine(position, limit);
+                position = limit;
+                return true;
+            }
+            scan = limit - position;
+            fill();
+        }
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    /** Returns {@code true} if the current line is empty after stripping. */
+    public boolean isBlank() {
+        return lineStart == lineEnd;
+    }
+
+    /** Decodes the current line, e.g. for an error message. */
+    public String lineAsString() {
+        return Cp437.decode(buffer, lineStart, lineEnd);
+    }
+
+    private void fill() throws IOException {
+        // keep the unfinished line, moving it to the front of the buffer or growing the buffer
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+
+        int read = source.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void setLine(int start, int end) {
+        while (start < end && isStripWhitespace(buffer[start])) {
+            start++;
+        }
+        while (end > start && isStripWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+    }
+
+    /** The whitespace removed by {@link String#strip()} within the CP437 range. */
+    static boolean isStripWhitespace(byte b) {
+        return (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x20);
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        int read(byte[] b, int off, int len) throws IOException;
+    }
+
+    /** Reads a file through a sliding window of read-only mappings. */
+    private static final class MappedSource implements Source {
+        private final FileChannel channel;
+        private long position;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+
+        MappedSource(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!window.hasRemaining()) {
+                long size = Math.min(channel.size() - position, MAX_MAPPING_SIZE);
+                if (size <= 0) {
+                    return -1;
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                position += size;
+            }
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package se.bufferoverflow.sieport.sie4.validator;
 
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.Period;
 import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+import se.bufferoverflow.sieport.sie4.YearNumber;
 
+import java.math.BigDecimal;
+import java.util.Optional;
 import java.util.Set;
 
 public sealed interface ValidationError {
@@ -16,4 +21,30 @@ public sealed interface ValidationError {
             return Set.of(SIE4ItemType.FLAGGA);
         }
     }
+    /**
+     * A {@code #UB} or {@code #RES} balance that differs from the one computed from the opening
+     * balance and the transactions of the year.
+     */
+    record BalanceMismatch(SIE4ItemType itemType, YearNumber yearNumber, int accountNo, BigDecimal stated, BigDecimal computed) implements ValidationError {
+        @Override
+        public Set<SIE4ItemType> offendingItems() {
+            return Set.of(itemType);
+        }
+    }
+    /** An {@code #OUB} balance that differs from the {@code #OIB} plus the transactions on the object. */
+    record ObjectBalanceMismatch(YearNumber yearNumber, int accountNo, ObjectReference objectReference, BigDecimal stated, BigDecimal computed) implements ValidationError {
+        @Override
+        public Set<SIE4ItemType> offendingItems() {
+            return Set.of(SIE4ItemType.OUB);
+        }
+    }
+    /** A {@code #PSALDO} balance that differs from the transactions of the period. */
+    record PeriodBalanceMismatch(YearNumber yearNumber, Period period, int accountNo, Optional<ObjectReference> objectReference, BigDecimal stated, BigDecimal computed) implements ValidationError {
+        @Override
+        public Set<SIE4ItemType> offendingItems() {
+            return Set.of(SIE4ItemType.PSALDO);
+        }
+    }
+    /** An error reported by a custom {@link ValidationRule}. */
+    record RuleViolation(String message, Set<SIE4ItemType> offendingItems) implements ValidationError {}
 }
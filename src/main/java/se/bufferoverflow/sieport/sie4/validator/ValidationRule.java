@@ -0,0 +1,43 @@
+package se.bufferoverflow.sieport.sie4.validator;
+
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A check that a {@link Validator} runs over the items of a file in a single pass, shared with all
+ * other rules. The validator calls {@link #visit(SIE4Item)} for each item of the types in
+ * {@link #itemTypes()}, in file order, and then {@link #finish(List)} once.
+ *
+ * <p>A rule holds the state of one validation, so the validator creates a new instance for each
+ * validation. Report errors that do not fit the built-in {@link ValidationError} types as
+ * {@link ValidationError.RuleViolation}.
+ */
+public interface ValidationRule {
+
+    /**
+     * The item types this rule visits. Items of other types are never passed to
+     * {@link #visit(SIE4Item)}. Defaults to all types.
+     */
+    default Set<SIE4ItemType> itemTypes() {
+        return EnumSet.allOf(SIE4ItemType.class);
+    }
+
+    void visit(SIE4Item item);
+
+    /**
+     * Adds the errors that are already certain, for a validation that stops at the first error
+     * instead of at the end, see {@link Validator#startFailFast()}. Items come in file order, so no
+     * item of a section before {@code section}, that of the latest item, follows. Called after each
+     * item the rule visits and when a new section starts, until an item of an earlier section comes. Errors reported here must not be reported
+     * again by {@link #finish(List)}. By default, all errors are reported at the end.
+     */
+    default void reportEarly(SIE4ItemType.Section section, List<ValidationError> errors) {
+    }
+
+    /** Called after the last item. Adds the errors found, if any, to {@code errors}. */
+    void finish(List<ValidationError> errors);
+}
@@ -0,0 +1,177 @@
+package se.bufferoverflow.sieport.sie4.validator;
+
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The built-in {@link ValidationRule rules}. Each call returns a new rule for a single validation.
+ */
+public final class ValidationRules {
+
+    private static final Set<SIE4ItemType> BALANCE_ITEMS = EnumSet.of(SIE4ItemType.IB, SIE4ItemType.UB, SIE4ItemType.RES);
+
+    private ValidationRules() {
+    }
+
+    /**
+     * Reports the types in {@code mandatory} without any item as {@link ValidationError.MissingMandatoryItems}.
+     * When failing fast, a type is reported as soon as its section has ended.
+     */
+    public static ValidationRule mandatoryItems(Set<SIE4ItemType> mandatory) {
+        return new TypesRule(mandatory) {
+            @Override
+            public void reportEarly(SIE4ItemType.Section section, List<ValidationError> errors) {
+                Set<SIE4ItemType> missing = EnumSet.noneOf(SIE4ItemType.class);
+                for (SIE4ItemType type : types) {
+                    if (type.section().compareTo(section) < 0 && !seen.contains(type) && !reported.contains(type)) {
+                        missing.add(type);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    reported.addAll(missing);
+                    errors.add(new ValidationError.MissingMandatoryItems(Set.copyOf(missing)));
+                }
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+                Set<SIE4ItemType> missing = EnumSet.copyOf(types);
+                missing.removeAll(seen);
+                missing.removeAll(reported);
+                if (!missing.isEmpty()) {
+                    errors.add(new ValidationError.MissingMandatoryItems(Set.copyOf(missing)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Reports the types in {@code forbidden} with at least one item as {@link ValidationError.ForbiddenItemsPresent}.
+     * When failing fast, a type is reported at its first item.
+     */
+    public static ValidationRule forbiddenItems(Set<SIE4ItemType> forbidden) {
+        return new TypesRule(forbidden) {
+            @Override
+            public void reportEarly(SIE4ItemType.Section section, List<ValidationError> errors) {
+                finish(errors);
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+                Set<SIE4ItemType> present = EnumSet.copyOf(seen);
+                present.removeAll(reported);
+                if (!present.isEmpty()) {
+                    reported.addAll(present);
+                    errors.add(new ValidationError.ForbiddenItemsPresent(Set.copyOf(present)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Reports {@code #IB}, {@code #UB} and {@code #RES} as {@link ValidationError.MissingCurrentYearItems}
+     * when items of the type exist but none for the current year. Types without any items are left
+     * to {@link #mandatoryItems(Set)}. When failing fast, they are reported when the balance section ends.
+     */
+    public static ValidationRule currentYearBalanceItems() {
+        return new TypesRule(BALANCE_ITEMS) {
+            private final Set<SIE4ItemType> currentYear = EnumSet.noneOf(SIE4ItemType.class);
+
+            @Override
+            public void visit(SIE4Item item) {
+                super.visit(item);
+                YearNumber yearNumber = switch (item) {
+                    case SIE4Item.Ib ib -> ib.yearNumber();
+                    case SIE4Item.Ub ub -> ub.yearNumber();
+                    case SIE4Item.Res res -> res.yearNumber();
+                    default -> null;
+                };
+                if (YearNumber.CURRENT_YEAR.equals(yearNumber)) {
+                    currentYear.add(item.itemType());
+                }
+            }
+
+            @Override
+            public void reportEarly(SIE4ItemType.Section section, List<ValidationError> errors) {
+                if (section.compareTo(SIE4ItemType.Section.BALANCES) > 0) {
+                    finish(errors);
+                }
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+                if (!reported.isEmpty()) {
+                    return;
+                }
+                reported.addAll(BALANCE_ITEMS);
+                Set<SIE4ItemType> missing = EnumSet.copyOf(seen);
+                missing.removeAll(currentYear);
+                if (!missing.isEmpty()) {
+                    errors.add(new ValidationError.MissingCurrentYearItems(Set.copyOf(missing)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Reports a {@code #FLAGGA 1} as {@link ValidationError.InvalidFlaggaValue}. When failing fast,
+     * it is reported at once.
+     */
+    public static ValidationRule flaggaNotSet() {
+        return new ValidationRule() {
+            private boolean set;
+            private boolean reported;
+
+            @Override
+            public Set<SIE4ItemType> itemTypes() {
+                return EnumSet.of(SIE4ItemType.FLAGGA);
+            }
+
+            @Override
+            public void visit(SIE4Item item) {
+                set |= item instanceof SIE4Item.Flagga(int flag) && flag == 1;
+            }
+
+            @Override
+            public void reportEarly(SIE4ItemType.Section section, List<ValidationError> errors) {
+                finish(errors);
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+                if (set && !reported) {
+                    reported = true;
+                    errors.add(new ValidationError.InvalidFlaggaValue());
+                }
+            }
+        };
+    }
+
+    /** Visits the items of a set of types and records which of them were seen, and which were reported. */
+    private abstract static class TypesRule implements ValidationRule {
+        final Set<SIE4ItemType> types;
+        final Set<SIE4ItemType> seen = EnumSet.noneOf(SIE4ItemType.class);
+        final Set<SIE4ItemType> reported = EnumSet.noneOf(SIE4ItemType.class);
+
+        TypesRule(Set<SIE4ItemType> types) {
+            Objects.requireNonNull(types, "types must not be null");
+            this.types = types.isEmpty() ? EnumSet.noneOf(SIE4ItemType.class) : EnumSet.copyOf(types);
+        }
+
+        @Override
+        public Set<SIE4ItemType> itemTypes() {
+            return types;
+        }
+
+        @Override
+        public void visit(SIE4Item item) {
+            seen.add(item.itemType());
+        }
+    }
+}
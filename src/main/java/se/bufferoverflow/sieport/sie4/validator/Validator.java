@@ -2,14 +2,19 @@ package se.bufferoverflow.sieport.sie4.validator;
 
 import se.bufferoverflow.sieport.sie4.SIE4Item;
 import se.bufferoverflow.sieport.sie4.SIE4ItemType;
-import se.bufferoverflow.sieport.sie4.YearNumber;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * Validates the items of a SIE4 file against a set of {@link ValidationRule rules}, in a single pass
+ * over the items regardless of the number of rules.
+ */
 public class Validator {
 
     public static final Set<SIE4ItemType> MANDATORY_ITEMS_SIE4I = Set.of(
@@ -47,75 +52,178 @@ public class Validator {
             SIE4ItemType.RES
     );
 
-    private Validator() {
+    private static final Validator SIE4I = Validator.of(
+            () -> ValidationRules.mandatoryItems(MANDATORY_ITEMS_SIE4I),
+            () -> ValidationRules.forbiddenItems(FORBIDDEN_ITEMS_SIE4I),
+            ValidationRules::flaggaNotSet
+    );
+
+    private static final Validator SIE4E = Validator.of(
+            () -> ValidationRules.mandatoryItems(MANDATORY_ITEMS_SIE4E),
+            ValidationRules::currentYearBalanceItems,
+            ValidationRules::flaggaNotSet
+    );
+
+    private final List<Supplier<? extends ValidationRule>> rules;
+
+    private Validator(List<Supplier<? extends ValidationRule>> rules) {
+        this.rules = rules;
     }
 
-    public static List<ValidationError> validateSie4i(List<SIE4Item> items) {
-        List<ValidationError> errors = new ArrayList<>();
-        List<SIE4ItemType> missing = checkMandatoryItems(items, MANDATORY_ITEMS_SIE4I);
-        if (!missing.isEmpty()) {
-            errors.add(new ValidationError.MissingMandatoryItems(Set.copyOf(missing)));
-        }
-        List<SIE4ItemType> forbidden = checkForbiddenItems(items, FORBIDDEN_ITEMS_SIE4I);
-        if (!forbidden.isEmpty()) {
-            errors.add(new ValidationError.ForbiddenItemsPresent(Set.copyOf(forbidden)));
-        }
-        if (hasFlaggaSet(items)) {
-            errors.add(new ValidationError.InvalidFlaggaValue());
-        }
-        return errors;
+    /** The rules of a SIE 4I file: mandatory items, forbidden items and {@code #FLAGGA}. */
+    public static Validator sie4i() {
+        return SIE4I;
     }
 
-    public static List<ValidationError> validateSie4e(List<SIE4Item> items) {
-        List<ValidationError> errors = new ArrayList<>();
-        List<SIE4ItemType> missing = checkMandatoryItems(items, MANDATORY_ITEMS_SIE4E);
-        if (!missing.isEmpty()) {
-            errors.add(new ValidationError.MissingMandatoryItems(Set.copyOf(missing)));
-        }
-        Set<SIE4ItemType> missingCurrentYear = checkCurrentYearBalanceItems(items);
-        missing.forEach(missingCurrentYear::remove);
-        if (!missingCurrentYear.isEmpty()) {
-            errors.add(new ValidationError.MissingCurrentYearItems(missingCurrentYear));
-        }
-        if (hasFlaggaSet(items)) {
-            errors.add(new ValidationError.InvalidFlaggaValue());
+    /** The rules of a SIE 4E file: mandatory items, current year balances and {@code #FLAGGA}. */
+    public static Validator sie4e() {
+        return SIE4E;
+    }
+
+    /**
+     * Creates a validator that runs the given rules. Each supplier is called once per validation,
+     * and the errors are reported in the order of the rules.
+     */
+    @SafeVarargs
+    public static Validator of(Supplier<? extends ValidationRule>... rules) {
+        // copied element by element, as passing the varargs array on is a [varargs] lint warning
+        List<Supplier<? extends ValidationRule>> list = new ArrayList<>(rules.length);
+        for (Supplier<? extends ValidationRule> rule : rules) {
+            list.add(Objects.requireNonNull(rule, "rule must not be null"));
         }
-        return errors;
+        return new Validator(List.copyOf(list));
     }
 
-    private static boolean hasFlaggaSet(List<SIE4Item> items) {
-        return items.stream().anyMatch(i -> i instanceof SIE4Item.Flagga(int flag) && flag == 1);
+    /** Returns a validator that also runs {@code rule}, after the rules of this one. */
+    public Validator withRule(Supplier<? extends ValidationRule> rule) {
+        Objects.requireNonNull(rule, "rule must not be null");
+        List<Supplier<? extends ValidationRule>> all = new ArrayList<>(rules);
+        all.add(rule);
+        return new Validator(List.copyOf(all));
     }
 
-    private static Set<SIE4ItemType> checkCurrentYearBalanceItems(List<SIE4Item> items) {
-        Set<SIE4ItemType> missing = new HashSet<>();
-        if (items.stream().noneMatch(i -> i instanceof SIE4Item.Ib ib && ib.yearNumber().equals(YearNumber.CURRENT_YEAR))) {
-            missing.add(SIE4ItemType.IB);
-        }
-        if (items.stream().noneMatch(i -> i instanceof SIE4Item.Ub ub && ub.yearNumber().equals(YearNumber.CURRENT_YEAR))) {
-            missing.add(SIE4ItemType.UB);
-        }
-        if (items.stream().noneMatch(i -> i instanceof SIE4Item.Res res && res.yearNumber().equals(YearNumber.CURRENT_YEAR))) {
-            missing.add(SIE4ItemType.RES);
-        }
-        return missing;
+    /** Validates {@code items} in a single pass that all rules share. */
+    public List<ValidationError> validate(Iterable<? extends SIE4Item> items) {
+        Validation validation = start();
+        items.forEach(validation);
+        return validation.finish();
     }
 
-    private static List<SIE4ItemType> checkMandatoryItems(List<SIE4Item> items, Set<SIE4ItemType> mandatory) {
-        Set<SIE4ItemType> itemTypes = items.stream()
-                .map(SIE4Item::itemType)
-                .collect(Collectors.toSet());
-        return mandatory.stream()
-                .filter(mandatoryItem -> !itemTypes.contains(mandatoryItem))
-                .toList();
+    /**
+     * Starts a validation that is fed one item at a time, e.g. from a {@link se.bufferoverflow.sieport.sie4.SIE4Reader},
+     * so the items never need to be held in memory together.
+     */
+    public Validation start() {
+        return new Validation(rules.stream().<ValidationRule>map(Supplier::get).toList(), false);
     }
 
-    private static List<SIE4ItemType> checkForbiddenItems(List<SIE4Item> items, Set<SIE4ItemType> forbidden) {
-        Set<SIE4ItemType> itemTypes = items.stream()
-                .map(SIE4Item::itemType)
-                .collect(Collectors.toSet());
-        return forbidden.stream()
-                .filter(itemTypes::contains)
-                .toList();
+    /**
+     * Starts a validation that finds errors as soon as they are certain, so that the caller can
+     * stop at the first one: check {@link Validation#errors()} after each item. The items must come
+     * in file order. Errors found early are returned first by {@link Validation#finish()}.
+     *
+     * <p>Errors are found early on the assumption that the sections of the file come in order. Once
+     * an item comes after an item of a later section, e.g. an {@code #ORGNR} after a {@code #KONTO},
+     * no more errors are found early and the rest are found by {@link Validation#finish()}, as by
+     * {@link #start()}. An error found before that item stands, e.g. a mandatory {@code #FNAMN}
+     * after the first {@code #KONTO} is already reported missing at that {@code #KONTO}.
+     *
+     * @see ValidationRule#reportEarly(SIE4ItemType.Section, List)
+     */
+    public Validation startFailFast() {
+        return new Validation(rules.stream().<ValidationRule>map(Supplier::get).toList(), true);
+    }
+
+    public static List<ValidationError> validateSie4i(List<SIE4Item> items) {
+        return SIE4I.validate(items);
+    }
+
+    public static List<ValidationError> validateSie4e(List<SIE4Item> items) {
+        return SIE4E.validate(items);
+    }
+
+    /** A validation in progress. Not thread-safe. */
+    public static final class Validation implements Consumer<SIE4Item> {
+
+        private static final ValidationRule[] NO_RULES = new ValidationRule[0];
+
+        private final List<ValidationRule> rules;
+        // the rules to visit for each item type, indexed by ordinal
+        private final ValidationRule[][] rulesByType = new ValidationRule[SIE4ItemType.values().length][];
+        private final boolean failFast;
+        private final List<ValidationError> errors = new ArrayList<>();
+        private SIE4ItemType.Section section;
+        private boolean outOfOrder;
+        private boolean finished;
+
+        private Validation(List<ValidationRule> rules, boolean failFast) {
+            this.rules = rules;
+            this.failFast = failFast;
+            for (SIE4ItemType type : SIE4ItemType.values()) {
+                rulesByType[type.ordinal()] = rules.stream()
+                        .filter(rule -> rule.itemTypes().contains(type))
+                        .toArray(ValidationRule[]::new);
+                if (rulesByType[type.ordinal()].length == 0) {
+                    rulesByType[type.ordinal()] = NO_RULES;
+                }
+            }
+        }
+
+        /**
+         * Passes {@code item} to the rules that visit its type.
+         *
+         * @throws IllegalStateException if the validation is finished
+         */
+        @Override
+        public void accept(SIE4Item item) {
+            if (finished) {
+                throw new IllegalStateException("Validation is finished");
+            }
+            ValidationRule[] visiting = rulesByType[item.itemType().ordinal()];
+            for (ValidationRule rule : visiting) {
+                rule.visit(item);
+            }
+            if (failFast && !outOfOrder) {
+                SIE4ItemType.Section itemSection = item.itemType().section();
+                if (section != null && itemSection.compareTo(section) < 0) {
+                    // the sections are not in file order, so the rest is left to finish() like a full validation
+                    outOfOrder = true;
+                } else if (itemSection != section) {
+                    section = itemSection;
+                    for (ValidationRule rule : rules) {
+                        rule.reportEarly(section, errors);
+                    }
+                } else {
+                    for (ValidationRule rule : visiting) {
+                        rule.reportEarly(section, errors);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the errors found so far, which are only those found early by a validation
+         * {@linkplain #startFailFast() failing fast}.
+         */
+        public List<ValidationError> errors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Ends the validation and returns the errors of all rules, in the order of the rules.
+         *
+         * @throws IllegalStateException if the validation is already finished
+         */
+        public List<ValidationError> finish() {
+            if (finished) {
+                throw new IllegalStateException("Validation is finished");
+            }
+            finished = true;
+            List<ValidationError> result = new ArrayList<>(errors);
+            for (ValidationRule rule : rules) {
+                rule.finish(result);
+            }
+            return result;
+        }
     }
 }
@@ -1,25 +1,137 @@
 package se.bufferoverflow.sieport.sie4.writer;
 
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.Period;
 import se.bufferoverflow.sieport.sie4.SIE4Exception;
 import se.bufferoverflow.sieport.sie4.SIE4Item;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_DATE_FORMATTER;
+
+/**
+ * Writes the fields of one item type straight into a caller-supplied {@link StringBuilder}, so that
+ * a whole file can be produced through one reused builder without formatting intermediate strings.
+ */
 abstract class AbstractFieldWriter<T extends SIE4Item> {
-    static String quoted(String s) {
-        String escaped = s.replace("\\", "\\\\").replace("\"", "\\\"");
-        if (s.indexOf(' ') > -1 || s.indexOf('"') > -1 || s.indexOf('\\') > -1) {
-            return "\"" + escaped + "\"";
+
+    /** Appends {@code s}, quoted and escaped if it contains a space, a quote or a backslash. */
+    static void appendQuoted(StringBuilder out, String s) {
+        if (!needsQuotes(s)) {
+            out.append(s);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /** Appends the value of {@code s} quoted, or {@code ""} if there is none. */
+    static void appendQuotedOrEmpty(StringBuilder out, Optional<String> s) {
+        if (s.isPresent()) {
+            appendQuoted(out, s.get());
+        } else {
+            out.append("\"\"");
+        }
+    }
+
+    /** Appends {@code reference} like {@link ObjectReference#toString()}. */
+    static void appendObjectReference(StringBuilder out, ObjectReference reference) {
+        String objectNo = reference.objectNo();
+        out.append('{').append(reference.dimensionNo()).append(' ');
+        if (objectNo.indexOf(' ') < 0 && objectNo.indexOf('"') < 0) {
+            out.append(objectNo);
+        } else {
+            out.append('"');
+            for (int i = 0; i < objectNo.length(); i++) {
+                char c = objectNo.charAt(i);
+                if (c == '"') {
+                    out.append('\\');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+        out.append('}');
+    }
+
+    /** Appends {@code date} formatted with {@link se.bufferoverflow.sieport.sie4.SIE4#SIE4_DATE_FORMATTER}. */
+    static void appendDate(StringBuilder out, LocalDate date) {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            // the formatter prints the year of era and a sign beyond four digits
+            SIE4_DATE_FORMATTER.formatTo(date, out);
+            return;
+        }
+        appendYear(out, year);
+        appendTwoDigits(out, date.getMonthValue());
+        appendTwoDigits(out, date.getDayOfMonth());
+    }
+
+    /** Appends {@code period} like {@link Period#toString()}. */
+    static void appendPeriod(StringBuilder out, Period period) {
+        if (period.year() < 1 || period.year() > 9999) {
+            Period.SIE4_PERIOD_FORMATTER.formatTo(LocalDate.of(period.year(), period.month(), 1), out);
+            return;
+        }
+        appendYear(out, period.year());
+        appendTwoDigits(out, period.month());
+    }
+
+    /** Removes trailing characters up to and including space from {@code from}, like {@link String#trim()}. */
+    static void trimTrailing(StringBuilder out, int from) {
+        int end = out.length();
+        while (end > from && out.charAt(end - 1) <= ' ') {
+            end--;
         }
-        return escaped;
+        out.setLength(end);
+    }
+
+    /** Removes trailing white space from {@code from}, like {@link String#stripTrailing()}. */
+    static void stripTrailing(StringBuilder out, int from) {
+        int end = out.length();
+        while (end > from && Character.isWhitespace(out.charAt(end - 1))) {
+            end--;
+        }
+        out.setLength(end);
     }
 
     @SuppressWarnings("unchecked")
-    String writeItem(SIE4Item item) {
+    void writeItem(SIE4Item item, StringBuilder out) {
         if (item == null) {
             throw new SIE4Exception("Item cannot be null");
         }
-        String label = item.itemType().name();
-        return "#%s %s".formatted(label, writeFields((T) item));
+        out.append('#').append(item.itemType().name()).append(' ');
+        writeFields((T) item, out);
     }
 
-    abstract String writeFields(T item);
+    abstract void writeFields(T item, StringBuilder out);
+
+    private static boolean needsQuotes(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ' ' || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendYear(StringBuilder out, int year) {
+        if (year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        out.append(year);
+    }
+
+    private static void appendTwoDigits(StringBuilder out, int value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
 }
@@ -1,12 +1,15 @@
 package se.bufferoverflow.sieport.sie4.writer;
 
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.Period;
 import se.bufferoverflow.sieport.sie4.SIE4Exception;
 import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.YearNumber;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
-import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_DATE_FORMATTER;
+import java.util.Optional;
 
 public class OutFieldMapper {
     private OutFieldMapper() {}
@@ -14,323 +17,365 @@ public class OutFieldMapper {
     private static final Map<Class<? extends SIE4Item>, AbstractFieldWriter<? extends SIE4Item>> WRITER_REGISTRY = Map.ofEntries(
             Map.entry(SIE4Item.Adress.class, new AbstractFieldWriter<SIE4Item.Adress>() {
                 @Override
-                String writeFields(SIE4Item.Adress item) {
-                    return "%s %s %s %s".formatted(quoted(item.contact()), quoted(item.distributionAddress()),
-                            quoted(item.postalAddress()), quoted(item.tel()));
+                void writeFields(SIE4Item.Adress item, StringBuilder out) {
+                    appendQuoted(out, item.contact());
+                    out.append(' ');
+                    appendQuoted(out, item.distributionAddress());
+                    out.append(' ');
+                    appendQuoted(out, item.postalAddress());
+                    out.append(' ');
+                    appendQuoted(out, item.tel());
                 }
             }),
             Map.entry(SIE4Item.Bkod.class, new AbstractFieldWriter<SIE4Item.Bkod>() {
                 @Override
-                String writeFields(SIE4Item.Bkod item) {
-                    return "%d".formatted(item.sniCode());
+                void writeFields(SIE4Item.Bkod item, StringBuilder out) {
+                    out.append(item.sniCode());
                 }
             }),
             Map.entry(SIE4Item.Dim.class, new AbstractFieldWriter<SIE4Item.Dim>() {
                 @Override
-                String writeFields(SIE4Item.Dim item) {
-                    return "%d %s".formatted(item.dimensionNo(), quoted(item.name()));
+                void writeFields(SIE4Item.Dim item, StringBuilder out) {
+                    out.append(item.dimensionNo()).append(' ');
+                    appendQuoted(out, item.name());
                 }
             }),
             Map.entry(SIE4Item.Enhet.class, new AbstractFieldWriter<SIE4Item.Enhet>() {
                 @Override
-                String writeFields(SIE4Item.Enhet item) {
-                    return "%d %s".formatted(item.accountNo(), quoted(item.unit()));
+                void writeFields(SIE4Item.Enhet item, StringBuilder out) {
+                    out.append(item.accountNo()).append(' ');
+                    appendQuoted(out, item.unit());
                 }
             }),
             Map.entry(SIE4Item.Flagga.class, new AbstractFieldWriter<SIE4Item.Flagga>() {
                 @Override
-                String writeFields(SIE4Item.Flagga item) {
-                    return "%d".formatted(item.flag());
+                void writeFields(SIE4Item.Flagga item, StringBuilder out) {
+                    out.append(item.flag());
                 }
             }),
             Map.entry(SIE4Item.Fnamn.class, new AbstractFieldWriter<SIE4Item.Fnamn>() {
                 @Override
-                String writeFields(SIE4Item.Fnamn item) {
-                    return quoted(item.companyName());
+                void writeFields(SIE4Item.Fnamn item, StringBuilder out) {
+                    appendQuoted(out, item.companyName());
                 }
             }),
             Map.entry(SIE4Item.Fnr.class, new AbstractFieldWriter<SIE4Item.Fnr>() {
                 @Override
-                String writeFields(SIE4Item.Fnr item) {
-                    return quoted(item.companyId());
+                void writeFields(SIE4Item.Fnr item, StringBuilder out) {
+                    appendQuoted(out, item.companyId());
                 }
             }),
             Map.entry(SIE4Item.Format.class, new AbstractFieldWriter<SIE4Item.Format>() {
                 @Override
-                String writeFields(SIE4Item.Format item) {
-                    return quoted(item.format().toString());
+                void writeFields(SIE4Item.Format item, StringBuilder out) {
+                    appendQuoted(out, item.format().toString());
                 }
             }),
             Map.entry(SIE4Item.Ftyp.class, new AbstractFieldWriter<SIE4Item.Ftyp>() {
                 @Override
-                String writeFields(SIE4Item.Ftyp item) {
-                    return item.companyType().name();
+                void writeFields(SIE4Item.Ftyp item, StringBuilder out) {
+                    out.append(item.companyType().name());
                 }
             }),
             Map.entry(SIE4Item.Gen.class, new AbstractFieldWriter<SIE4Item.Gen>() {
                 @Override
-                String writeFields(SIE4Item.Gen item) {
-                    return "%s %s".formatted(
-                            SIE4_DATE_FORMATTER.format(item.date()),
-                            item.signature().map(AbstractFieldWriter::quoted).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Gen item, StringBuilder out) {
+                    int from = out.length();
+                    appendDate(out, item.date());
+                    out.append(' ');
+                    if (item.signature().isPresent()) {
+                        appendQuoted(out, item.signature().get());
+                    }
+                    trimTrailing(out, from);
                 }
             }),
             Map.entry(SIE4Item.Ib.class, new AbstractFieldWriter<SIE4Item.Ib>() {
                 @Override
-                String writeFields(SIE4Item.Ib item) {
-                    return "%d %d %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.accountNo(),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Ib item, StringBuilder out) {
+                    int from = out.length();
+                    out.append(item.yearNumber().yearNo()).append(' ').append(item.accountNo()).append(' ');
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Konto.class, new AbstractFieldWriter<SIE4Item.Konto>() {
                 @Override
-                String writeFields(SIE4Item.Konto item) {
-                    return "%d %s".formatted(item.accountNo(), quoted(item.accountName()));
+                void writeFields(SIE4Item.Konto item, StringBuilder out) {
+                    out.append(item.accountNo()).append(' ');
+                    appendQuoted(out, item.accountName());
                 }
             }),
             Map.entry(SIE4Item.Kptyp.class, new AbstractFieldWriter<SIE4Item.Kptyp>() {
                 @Override
-                String writeFields(SIE4Item.Kptyp item) {
-                    return quoted(item.type());
+                void writeFields(SIE4Item.Kptyp item, StringBuilder out) {
+                    appendQuoted(out, item.type());
                 }
             }),
             Map.entry(SIE4Item.Ktyp.class, new AbstractFieldWriter<SIE4Item.Ktyp>() {
                 @Override
-                String writeFields(SIE4Item.Ktyp item) {
-                    return "%d %s".formatted(item.accountNo(), item.type().name());
+                void writeFields(SIE4Item.Ktyp item, StringBuilder out) {
+                    out.append(item.accountNo()).append(' ').append(item.type().name());
                 }
             }),
             Map.entry(SIE4Item.Objekt.class, new AbstractFieldWriter<SIE4Item.Objekt>() {
                 @Override
-                String writeFields(SIE4Item.Objekt item) {
-                    return "%d %s %s".formatted(item.dimensionNo(), quoted(item.objectNo()), quoted(item.objectName()));
+                void writeFields(SIE4Item.Objekt item, StringBuilder out) {
+                    out.append(item.dimensionNo()).append(' ');
+                    appendQuoted(out, item.objectNo());
+                    out.append(' ');
+                    appendQuoted(out, item.objectName());
                 }
             }),
             Map.entry(SIE4Item.Oib.class, new AbstractFieldWriter<SIE4Item.Oib>() {
                 @Override
-                String writeFields(SIE4Item.Oib item) {
-                    return "%d %d %s %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.accountNo(),
-                            item.objectReference(),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Oib item, StringBuilder out) {
+                    int from = out.length();
+                    out.append(item.yearNumber().yearNo()).append(' ').append(item.accountNo()).append(' ');
+                    appendObjectReference(out, item.objectReference());
+                    out.append(' ');
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Omfattn.class, new AbstractFieldWriter<SIE4Item.Omfattn>() {
                 @Override
-                String writeFields(SIE4Item.Omfattn item) {
-                    return SIE4_DATE_FORMATTER.format(item.date());
+                void writeFields(SIE4Item.Omfattn item, StringBuilder out) {
+                    appendDate(out, item.date());
                 }
             }),
             Map.entry(SIE4Item.OrgNr.class, new AbstractFieldWriter<SIE4Item.OrgNr>() {
                 @Override
-                String writeFields(SIE4Item.OrgNr item) {
-                    String result = quoted(item.orgNr());
+                void writeFields(SIE4Item.OrgNr item, StringBuilder out) {
+                    appendQuoted(out, item.orgNr());
                     if (item.acqNo().isPresent()) {
-                        result += " " + item.acqNo().get();
+                        out.append(' ').append(item.acqNo().get());
                         if (item.actNo().isPresent()) {
-                            result += " " + item.actNo().get();
+                            out.append(' ').append(item.actNo().get());
                         }
                     }
-                    return result;
                 }
             }),
             Map.entry(SIE4Item.Oub.class, new AbstractFieldWriter<SIE4Item.Oub>() {
                 @Override
-                String writeFields(SIE4Item.Oub item) {
-                    return "%d %d %s %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.accountNo(),
-                            item.objectReference(),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Oub item, StringBuilder out) {
+                    int from = out.length();
+                    out.append(item.yearNumber().yearNo()).append(' ').append(item.accountNo()).append(' ');
+                    appendObjectReference(out, item.objectReference());
+                    out.append(' ');
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Pbudget.class, new AbstractFieldWriter<SIE4Item.Pbudget>() {
                 @Override
-                String writeFields(SIE4Item.Pbudget item) {
-                    return "%d %s %d %s %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.period(),
-                            item.accountNo(),
-                            item.objectReference().map(Object::toString).orElse("{}"),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Pbudget item, StringBuilder out) {
+                    int from = out.length();
+                    appendPeriodFields(out, item.yearNumber(), item.period(), item.accountNo(), item.objectReference());
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Program.class, new AbstractFieldWriter<SIE4Item.Program>() {
                 @Override
-                String writeFields(SIE4Item.Program item) {
-                    return "%s %s".formatted(
-                            quoted(item.programName()),
-                            quoted(item.version())
-                    );
+                void writeFields(SIE4Item.Program item, StringBuilder out) {
+                    appendQuoted(out, item.programName());
+                    out.append(' ');
+                    appendQuoted(out, item.version());
                 }
             }),
             Map.entry(SIE4Item.Prosa.class, new AbstractFieldWriter<SIE4Item.Prosa>() {
                 @Override
-                String writeFields(SIE4Item.Prosa item) {
-                    return quoted(item.comment());
+                void writeFields(SIE4Item.Prosa item, StringBuilder out) {
+                    appendQuoted(out, item.comment());
                 }
             }),
             Map.entry(SIE4Item.Psaldo.class, new AbstractFieldWriter<SIE4Item.Psaldo>() {
                 @Override
-                String writeFields(SIE4Item.Psaldo item) {
-                    return "%d %s %d %s %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.period(),
-                            item.accountNo(),
-                            item.objectReference().map(Object::toString).orElse("{}"),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Psaldo item, StringBuilder out) {
+                    int from = out.length();
+                    appendPeriodFields(out, item.yearNumber(), item.period(), item.accountNo(), item.objectReference());
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Rar.class, new AbstractFieldWriter<SIE4Item.Rar>() {
                 @Override
-                String writeFields(SIE4Item.Rar item) {
-                    return "%d %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            SIE4_DATE_FORMATTER.format(item.start()),
-                            SIE4_DATE_FORMATTER.format(item.end())
-                    );
+                void writeFields(SIE4Item.Rar item, StringBuilder out) {
+                    out.append(item.yearNumber().yearNo()).append(' ');
+                    appendDate(out, item.start());
+                    out.append(' ');
+                    appendDate(out, item.end());
                 }
             }),
             Map.entry(SIE4Item.Res.class, new AbstractFieldWriter<SIE4Item.Res>() {
                 @Override
-                String writeFields(SIE4Item.Res item) {
-                    return "%d %d %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.accountNo(),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Res item, StringBuilder out) {
+                    int from = out.length();
+                    out.append(item.yearNumber().yearNo()).append(' ').append(item.accountNo()).append(' ');
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Sietyp.class, new AbstractFieldWriter<SIE4Item.Sietyp>() {
                 @Override
-                String writeFields(SIE4Item.Sietyp item) {
-                    return "%d".formatted(item.typeNo());
+                void writeFields(SIE4Item.Sietyp item, StringBuilder out) {
+                    out.append(item.typeNo());
                 }
             }),
             Map.entry(SIE4Item.Sru.class, new AbstractFieldWriter<SIE4Item.Sru>() {
                 @Override
-                String writeFields(SIE4Item.Sru item) {
-                    return "%d %d".formatted(item.accountNo(), item.sruCode());
+                void writeFields(SIE4Item.Sru item, StringBuilder out) {
+                    out.append(item.accountNo()).append(' ').append(item.sruCode());
                 }
             }),
             Map.entry(SIE4Item.Taxar.class, new AbstractFieldWriter<SIE4Item.Taxar>() {
                 @Override
-                String writeFields(SIE4Item.Taxar item) {
-                    return "%d".formatted(item.year());
+                void writeFields(SIE4Item.Taxar item, StringBuilder out) {
+                    out.append(item.year());
                 }
             }),
             Map.entry(SIE4Item.Ub.class, new AbstractFieldWriter<SIE4Item.Ub>() {
                 @Override
-                String writeFields(SIE4Item.Ub item) {
-                    return "%d %d %s %s".formatted(
-                            item.yearNumber().yearNo(),
-                            item.accountNo(),
-                            item.balance(),
-                            item.quantity().map(Object::toString).orElse("")
-                    ).trim();
+                void writeFields(SIE4Item.Ub item, StringBuilder out) {
+                    int from = out.length();
+                    out.append(item.yearNumber().yearNo()).append(' ').append(item.accountNo()).append(' ');
+                    appendBalance(out, item.balance(), item.quantity(), from);
                 }
             }),
             Map.entry(SIE4Item.Underdim.class, new AbstractFieldWriter<SIE4Item.Underdim>() {
                 @Override
-                String writeFields(SIE4Item.Underdim item) {
-                    return "%d %s %d".formatted(
-                            item.dimensionNo(),
-                            quoted(item.name()),
-                            item.superDimensionNo()
-                    );
+                void writeFields(SIE4Item.Underdim item, StringBuilder out) {
+                    out.append(item.dimensionNo()).append(' ');
+                    appendQuoted(out, item.name());
+                    out.append(' ').append(item.superDimensionNo());
                 }
             }),
             Map.entry(SIE4Item.Valuta.class, new AbstractFieldWriter<SIE4Item.Valuta>() {
                 @Override
-                String writeFields(SIE4Item.Valuta item) {
-                    return quoted(item.currencyCode());
+                void writeFields(SIE4Item.Valuta item, StringBuilder out) {
+                    appendQuoted(out, item.currencyCode());
                 }
             }),
             Map.entry(SIE4Item.Ver.class, new AbstractFieldWriter<SIE4Item.Ver>() {
                 @Override
-                String writeFields(SIE4Item.Ver item) {
-                    StringBuilder sb = new StringBuilder();
-                    item.series().ifPresentOrElse(s -> sb.append(quoted(s)), () -> sb.append("\"\""));
-                    sb.append(' ').append(item.verificationNo().map(AbstractFieldWriter::quoted).orElse("\"\""));
-                    sb.append(' ').append(SIE4_DATE_FORMATTER.format(item.date()));
+                void writeFields(SIE4Item.Ver item, StringBuilder out) {
+                    appendQuotedOrEmpty(out, item.series());
+                    out.append(' ');
+                    appendQuotedOrEmpty(out, item.verificationNo());
+                    out.append(' ');
+                    appendDate(out, item.date());
                     if (item.text().isPresent() || item.regDate().isPresent() || item.sign().isPresent()) {
-                        sb.append(' ').append(item.text().map(AbstractFieldWriter::quoted).orElse("\"\""));
+                        out.append(' ');
+                        appendQuotedOrEmpty(out, item.text());
                     }
                     if (item.regDate().isPresent() || item.sign().isPresent()) {
-                        sb.append(' ').append(item.regDate().map(SIE4_DATE_FORMATTER::format).orElse("\"\""));
+                        out.append(' ');
+                        if (item.regDate().isPresent()) {
+                            appendDate(out, item.regDate().get());
+                        } else {
+                            out.append("\"\"");
+                        }
                     }
-                    item.sign().ifPresent(s -> sb.append(' ').append(quoted(s)));
-                    sb.append("\n{");
-                    item.transactions().forEach(tx -> sb.append('\n').append(writeFields(tx)));
-                    sb.append("\n}");
-                    return sb.toString();
-                }
-
-                private String writeFields(SIE4Item.Transaction tx) {
-                    String fields = WRITER_REGISTRY.get(tx.getClass()).writeItem(tx);
-                    return "   ".concat(fields);
+                    if (item.sign().isPresent()) {
+                        out.append(' ');
+                        appendQuoted(out, item.sign().get());
+                    }
+                    out.append("\n{");
+                    List<SIE4Item.Transaction> transactions = item.transactions();
+                    for (int i = 0; i < transactions.size(); i++) {
+                        SIE4Item.Transaction tx = transactions.get(i);
+                        out.append("\n   ");
+                        WRITER_REGISTRY.get(tx.getClass()).writeItem(tx, out);
+                    }
+                    out.append("\n}");
                 }
             }),
             Map.entry(SIE4Item.Transaction.Trans.class, new AbstractFieldWriter<SIE4Item.Transaction.Trans>() {
                 @Override
-                String writeFields(SIE4Item.Transaction.Trans item) {
-                    return writeTransactionFields(item);
+                void writeFields(SIE4Item.Transaction.Trans item, StringBuilder out) {
+                    writeTransactionFields(item, out);
                 }
             }),
             Map.entry(SIE4Item.Transaction.Btrans.class, new AbstractFieldWriter<SIE4Item.Transaction.Btrans>() {
                 @Override
-                String writeFields(SIE4Item.Transaction.Btrans item) {
-                    return writeTransactionFields(item);
+                void writeFields(SIE4Item.Transaction.Btrans item, StringBuilder out) {
+                    writeTransactionFields(item, out);
                 }
             }),
             Map.entry(SIE4Item.Transaction.Rtrans.class, new AbstractFieldWriter<SIE4Item.Transaction.Rtrans>() {
                 @Override
-                String writeFields(SIE4Item.Transaction.Rtrans item) {
-                    return writeTransactionFields(item);
+                void writeFields(SIE4Item.Transaction.Rtrans item, StringBuilder out) {
+                    writeTransactionFields(item, out);
                 }
             })
     );
 
-    private static String writeTransactionFields(SIE4Item.Transaction tx) {
-        String objectRefs = "{" + tx.objectReferences().stream()
-                .map(r -> "%d %s".formatted(r.dimensionNo(), AbstractFieldWriter.quoted(r.objectNo())))
-                .collect(Collectors.joining(" ")) + "}";
-        return "%d %s %s %s %s %s %s".formatted(
-                tx.accountNo(),
-                objectRefs,
-                tx.amount(),
-                tx.transactionDate().map(SIE4_DATE_FORMATTER::format).orElse(""),
-                tx.text().map(AbstractFieldWriter::quoted).orElseGet(() -> {
-                    if (tx.quantity().isPresent() || tx.sign().isPresent()) {
-                        return "\"\"";
-                    }
-                    return "";
-                }),
-                tx.quantity().map(Object::toString).orElse(""),
-                tx.sign().map(AbstractFieldWriter::quoted).orElse("")
-        ).stripTrailing();
+    private static void writeTransactionFields(SIE4Item.Transaction tx, StringBuilder out) {
+        // empty optional fields keep their separator, and trailing ones are stripped at the end
+        int from = out.length();
+        out.append(tx.accountNo()).append(" {");
+        List<ObjectReference> objectReferences = tx.objectReferences();
+        for (int i = 0; i < objectReferences.size(); i++) {
+            ObjectReference reference = objectReferences.get(i);
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(reference.dimensionNo()).append(' ');
+            AbstractFieldWriter.appendQuoted(out, reference.objectNo());
+        }
+        out.append("} ").append(tx.amount()).append(' ');
+        if (tx.transactionDate().isPresent()) {
+            AbstractFieldWriter.appendDate(out, tx.transactionDate().get());
+        }
+        out.append(' ');
+        if (tx.text().isPresent()) {
+            AbstractFieldWriter.appendQuoted(out, tx.text().get());
+        } else if (tx.quantity().isPresent() || tx.sign().isPresent()) {
+            out.append("\"\"");
+        }
+        out.append(' ');
+        if (tx.quantity().isPresent()) {
+            out.append(tx.quantity().get());
+        }
+        out.append(' ');
+        if (tx.sign().isPresent()) {
+            AbstractFieldWriter.appendQuoted(out, tx.sign().get());
+        }
+        AbstractFieldWriter.stripTrailing(out, from);
+    }
+
+    private static void appendPeriodFields(StringBuilder out, YearNumber yearNumber, Period period, int accountNo,
+                                           Optional<ObjectReference> objectReference) {
+        out.append(yearNumber.yearNo()).append(' ');
+        AbstractFieldWriter.appendPeriod(out, period);
+        out.append(' ').append(accountNo).append(' ');
+        if (objectReference.isPresent()) {
+            AbstractFieldWriter.appendObjectReference(out, objectReference.get());
+        } else {
+            out.append("{}");
+        }
+        out.append(' ');
+    }
+
+    /** Appends the balance and optional quantity that end a line started at {@code from}. */
+    private static void appendBalance(StringBuilder out, BigDecimal balance, Optional<BigDecimal> quantity, int from) {
+        out.append(balance).append(' ');
+        if (quantity.isPresent()) {
+            out.append(quantity.get());
+        }
+        AbstractFieldWriter.trimTrailing(out, from);
     }
 
     public static String toFileString(SIE4Item item) {
+        StringBuilder out = new StringBuilder(64);
+        appendFileString(item, out);
+        return out.toString();
+    }
+
+    /**
+     * Appends the line, or for {@code #VER} the lines, of {@code item} to {@code out} without a
+     * trailing line break. Writing a file through one reused builder avoids the intermediate strings
+     * of {@link #toFileString(SIE4Item)}.
+     */
+    public static void appendFileString(SIE4Item item, StringBuilder out) {
         var writer = WRITER_REGISTRY.get(item.getClass());
         if (writer == null) {
             throw new SIE4Exception("No writer registered for type: " + item.getClass().getName());
         }
-        return writer.writeItem(item);
+        writer.writeItem(item, out);
     }
 }
@@ -0,0 +1,228 @@
+package se.bufferoverflow.sieport.sie4.writer;
+
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.parser.KsummaChecksum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+import static se.bufferoverflow.sieport.sie4.SIE4.SIE4_CHARSET;
+
+/**
+ * Writes SIE4 items as CP437 lines into a large reused buffer, which is handed to the underlying
+ * stream or channel only when it is full and on {@link #flush()}. Each item is formatted with
+ * {@link OutFieldMapper#appendFileString(SIE4Item, StringBuilder)} and encoded through a lookup
+ * table, so no strings or {@link java.nio.charset.CharsetEncoder} are involved. Characters that
+ * CP437 cannot represent are written as {@code ?}, like {@link String#getBytes(java.nio.charset.Charset)}.
+ *
+ * <p>Between {@link #beginChecksum()} and {@link #endChecksum()}, the written lines are added to a
+ * {@code #KSUMMA} checksum as they are encoded.
+ *
+ * <p>Lines end with {@link System#lineSeparator()}. The writer never closes the underlying stream
+ * or channel; the caller must flush the writer before closing it. Not thread-safe.
+ */
+public final class SIE4LineWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private static final byte REPLACEMENT = '?';
+
+    // indexed by char; surrogates are handled separately
+    private static final byte[] ENCODE_TABLE = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        char[] all = new char[ENCODE_TABLE.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = Character.isSurrogate((char) i) ? ' ' : (char) i;
+        }
+        // the charset replaces every unmappable char with a single byte, so the encoding lines up with the chars
+        byte[] encoded = new String(all).getBytes(SIE4_CHARSET);
+        System.arraycopy(encoded, 0, ENCODE_TABLE, 0, ENCODE_TABLE.length);
+    }
+
+    private final Sink sink;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final String lineSeparator = System.lineSeparator();
+    private final StringBuilder line = new StringBuilder(256);
+    private KsummaChecksum checksum;
+    private byte[] scratch;
+
+    public SIE4LineWriter(OutputStream out) {
+        Objects.requireNonNull(out, "out must not be null");
+        this.sink = new StreamSink(out);
+        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Creates a writer that writes to {@code channel}, e.g. a {@link java.nio.channels.FileChannel},
+     * from its current position.
+     */
+    public SIE4LineWriter(WritableByteChannel channel) {
+        Objects.requireNonNull(channel, "channel must not be null");
+        this.sink = new ChannelSink(channel);
+        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Writes {@code item} followed by a line separator.
+     *
+     * @throws IOException if the buffer is full and writing it to the underlying stream fails
+     */
+    public void writeItem(SIE4Item item) throws IOException {
+        line.setLength(0);
+        OutFieldMapper.appendFileString(item, line);
+        line.append(lineSeparator);
+        encode(line);
+    }
+
+    /**
+     * Writes the opening {@code #KSUMMA} item and adds the lines written after it to the checksum.
+     *
+     * @throws IllegalStateException if a checksum has already been started
+     * @throws IOException if the buffer is full and writing it to the underlying stream fails
+     */
+    public void beginChecksum() throws IOException {
+        if (checksum != null) {
+            throw new IllegalStateException("Checksum already started");
+        }
+        line.setLength(0);
+        line.append("#KSUMMA").append(lineSeparator);
+        encode(line);
+        checksum = new KsummaChecksum();
+    }
+
+    /**
+     * Writes the closing {@code #KSUMMA} item with the checksum of the lines written since
+     * {@link #beginChecksum()}.
+     *
+     * @throws IllegalStateException if no checksum has been started
+     * @throws IOException if the buffer is full and writing it to the underlying stream fails
+     */
+    public void endChecksum() throws IOException {
+        if (checksum == null) {
+            throw new IllegalStateException("Checksum not started");
+        }
+        long value = checksum.getValue();
+        checksum = null;
+        line.setLength(0);
+        line.append("#KSUMMA ").append(value).append(lineSeparator);
+        encode(line);
+    }
+
+    /**
+     * Writes the buffered bytes to the underlying stream and flushes it.
+     *
+     * @throws IOException if writing to the underlying stream fails
+     */
+    public void flush() throws IOException {
+        drain();
+        sink.flush();
+    }
+
+    private void encode(CharSequence chars) throws IOException {
+        int position = buffer.position();
+        int length = chars.length();
+        // the line being encoded, for the checksum
+        int lineStart = position;
+        int lineStartChar = 0;
+        boolean drained = false;
+        for (int i = 0; i < length; i++) {
+            if (position == bytes.length) {
+                buffer.position(position);
+                drain();
+                position = 0;
+                drained = true;
+            }
+            char c = chars.charAt(i);
+            i = encode(chars, i, bytes, position++);
+            if (c == '\n' && checksum != null) {
+                if (drained) {
+                    // the start of the line has been written already, so encode it once more
+                    updateChecksum(chars, lineStartChar, i + 1);
+                } else {
+                    checksum.update(bytes, lineStart, position);
+                }
+                lineStart = position;
+                lineStartChar = i + 1;
+                drained = false;
+            }
+        }
+        buffer.position(position);
+    }
+
+    private void updateChecksum(CharSequence chars, int from, int to) {
+        if (scratch == null || scratch.length < to - from) {
+            scratch = new byte[Math.max(to - from, 256)];
+        }
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            i = encode(chars, i, scratch, length++);
+        }
+        checksum.update(scratch, 0, length);
+    }
+
+    /**
+     * Encodes {@code chars[i]} into {@code dst[position]}. Returns the index of the last char used,
+     * which is {@code i + 1} for a surrogate pair.
+     */
+    private static int encode(CharSequence chars, int i, byte[] dst, int position) {
+        char c = chars.charAt(i);
+        if (c < 0x80) {
+            dst[position] = (byte) c;
+        } else if (Character.isSurrogate(c)) {
+            // a surrogate pair is one unmappable code point, and a lone surrogate is malformed
+            if (Character.isHighSurrogate(c) && i + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                i++;
+            }
+            dst[position] = REPLACEMENT;
+        } else {
+            dst[position] = ENCODE_TABLE[c];
+        }
+        return i;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        sink.write(buffer);
+        buffer.clear();
+    }
+
+    private interface Sink {
+        /** Writes all remaining bytes of {@code buffer}. */
+        void write(ByteBuffer buffer) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private record StreamSink(OutputStream out) implements Sink {
+        @Override
+        public void write(ByteBuffer buffer) throws IOException {
+            out.write(buffer.array(), buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private record ChannelSink(WritableByteChannel channel) implements Sink {
+        @Override
+        public void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package se.bufferoverflow.sieport.sie4;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.SIE4Item.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactTransactionsTest {
+
+    private static CompactTransactions compact(CompactTransactions.Store store, List<? extends Transaction> transactions) {
+        int start = store.size();
+        transactions.forEach(store::add);
+        return store.listFrom(start);
+    }
+
+    @Test
+    void get_materialisesEqualRecords() {
+        List<Transaction> transactions = List.of(
+                Transaction.Trans.of(1930, new BigDecimal("-350000.00")),
+                new Transaction.Trans(3010, new BigDecimal("350000.00"),
+                        List.of(ObjectReference.of(1, "Nord"), ObjectReference.of(6, "P 1")),
+                        Optional.of(LocalDate.of(2024, 2, 29)), Optional.of("Försäljning"),
+                        Optional.of(new BigDecimal("12.5")), Optional.of("AB")),
+                new Transaction.Rtrans(1910, new BigDecimal("123456789012345678901234.5"), List.of(),
+                        Optional.of(LocalDate.MAX), Optional.empty(), Optional.empty(), Optional.empty()),
+                new Transaction.Btrans(1910, new BigDecimal("1E+3"), List.of(ObjectReference.of(1, "Nord")),
+                        Optional.empty(), Optional.of(""), Optional.empty(), Optional.of("AB")));
+
+        CompactTransactions list = compact(new CompactTransactions.Store(), transactions);
+
+        assertThat(list).isEqualTo(transactions);
+        assertThat(transactions).isEqualTo(list);
+        assertThat(list.hashCode()).isEqualTo(transactions.hashCode());
+        assertThat(list.itemType(2)).isEqualTo(SIE4ItemType.RTRANS);
+        assertThat(list.accountNo(1)).isEqualTo(3010);
+        assertThat(list.amount(0)).isEqualTo(new BigDecimal("-350000.00"));
+        assertThat(list.transactionDate(1)).contains(LocalDate.of(2024, 2, 29));
+        assertThat(list.transactionDate(2)).contains(LocalDate.MAX);
+        assertThat(list.transactionDate(0)).isEmpty();
+        assertThat(list.text(1)).contains("Försäljning");
+        assertThat(list.text(3)).contains("");
+        assertThat(list.text(0)).isEmpty();
+    }
+
+    @Test
+    void listFrom_sharedStore_keepsListsSeparate() {
+        CompactTransactions.Store store = new CompactTransactions.Store();
+        List<Transaction> first = List.of(Transaction.Trans.of(1930, BigDecimal.ONE), Transaction.Trans.of(1910, BigDecimal.ONE.negate()));
+        List<Transaction> second = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            second.add(Transaction.Trans.of(4000 + i, BigDecimal.valueOf(i, 2)));
+        }
+
+        CompactTransactions firstList = compact(store, first);
+        CompactTransactions secondList = compact(store, second);
+
+        assertThat(firstList).isEqualTo(first);
+        assertThat(secondList).isEqualTo(second);
+    }
+
+    @Test
+    void amountInMinorUnits() {
+        CompactTransactions list = compact(new CompactTransactions.Store(), List.of(
+                Transaction.Trans.of(1930, new BigDecimal("-350000.00")),
+                Transaction.Trans.of(1930, new BigDecimal("12.5")),
+                Transaction.Trans.of(1930, new BigDecimal("7")),
+                Transaction.Trans.of(1930, new BigDecimal("1.230")),
+                Transaction.Trans.of(1930, new BigDecimal("1.234")),
+                Transaction.Trans.of(1930, new BigDecimal("123456789012345678901234"))));
+
+        assertThat(list.amountInMinorUnits(0)).isEqualTo(-35_000_000L);
+        assertThat(list.amountInMinorUnits(1)).isEqualTo(1250L);
+        assertThat(list.amountInMinorUnits(2)).isEqualTo(700L);
+        assertThat(list.amountInMinorUnits(3)).isEqualTo(123L);
+        assertThatThrownBy(() -> list.amountInMinorUnits(4)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> list.amountInMinorUnits(5)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void transactionSum_matchesBigDecimalSum() {
+        Random random = new Random(4711);
+        CompactTransactions.Store store = new CompactTransactions.Store();
+        for (int n = 0; n < 10_000; n++) {
+            List<Transaction> transactions = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                long unscaled = random.nextInt(8) == 0 ? random.nextLong() : random.nextInt(2_000_000) - 1_000_000;
+                BigDecimal amount = BigDecimal.valueOf(unscaled, random.nextInt(8) == 0 ? random.nextInt(4) : 2);
+                transactions.add(random.nextInt(4) == 0
+                        ? Transaction.Rtrans.of(1930, amount)
+                        : Transaction.Trans.of(1930, amount));
+            }
+            BigDecimal expected = transactions.stream()
+                    .filter(t -> t instanceof Transaction.Trans)
+                    .map(Transaction::amount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            assertThat(compact(store, transactions).transactionSum()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void ver_keepsCompactListWithoutCopying() {
+        CompactTransactions list = compact(new CompactTransactions.Store(), List.of(
+                Transaction.Trans.of(1930, new BigDecimal("-100.00")),
+                Transaction.Trans.of(3010, new BigDecimal("100.00"))));
+
+        SIE4Item.Ver ver = SIE4Item.Ver.of(LocalDate.of(2024, 1, 1), list);
+
+        assertThat(ver.transactions()).isSameAs(list);
+    }
+
+    @Test
+    void ver_unbalancedCompactList_shouldThrow() {
+        CompactTransactions list = compact(new CompactTransactions.Store(), List.of(
+                Transaction.Trans.of(1930, new BigDecimal("-100.00")),
+                Transaction.Trans.of(3010, new BigDecimal("99.99"))));
+
+        assertThatThrownBy(() -> SIE4Item.Ver.of(LocalDate.of(2024, 1, 1), list))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("VER transaction items must have a zero sum, was: -0.01");
+    }
+
+    @Test
+    void modification_isUnsupported() {
+        CompactTransactions list = compact(new CompactTransactions.Store(), List.of(Transaction.Trans.of(1930, BigDecimal.ONE)));
+
+        assertThatThrownBy(() -> list.add(Transaction.Trans.of(1930, BigDecimal.ONE)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> list.set(0, Transaction.Trans.of(1930, BigDecimal.ONE)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> list.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
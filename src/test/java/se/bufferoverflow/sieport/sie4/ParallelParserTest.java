@@ -0,0 +1,190 @@
+package se.bufferoverflow.sieport.sie4;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.bufferoverflow.sieport.sie4.parser.SIE4LineReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelParserTest {
+
+    private static List<SIE4Item> parseParallel(byte[] input, int chunkSize) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            return ParallelParser.parse(new SIE4LineReader(new ByteArrayInputStream(input)), chunkSize, executor, false);
+        }
+    }
+
+    private static List<SIE4Item> parseParallel(String input, int chunkSize) {
+        return parseParallel(input.getBytes(SIE4.SIE4_CHARSET), chunkSize);
+    }
+
+    private static List<SIE4Item> parseSequential(byte[] input) {
+        List<SIE4Item> items = new ArrayList<>();
+        try (SIE4Reader reader = SIE4.reader(new ByteArrayInputStream(input))) {
+            reader.forEachRemaining(items::add);
+        }
+        return items;
+    }
+
+    private static byte[] sample() throws IOException {
+        try (InputStream is = ParallelParserTest.class.getResourceAsStream("/SIE4-sample.SE")) {
+            return is.readAllBytes();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 4096, ParallelParser.DEFAULT_CHUNK_SIZE})
+    void parse_sampleFile_matchesSequentialParse(int chunkSize) throws IOException {
+        byte[] input = sample();
+
+        assertThat(parseParallel(input, chunkSize)).isEqualTo(parseSequential(input));
+    }
+
+    @Test
+    void parse_onItem_receivesItemsInFileOrder() throws IOException {
+        byte[] input = sample();
+        List<SIE4Item> received = new ArrayList<>();
+
+        List<SIE4Item> items;
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            items = ParallelParser.parse(new SIE4LineReader(new ByteArrayInputStream(input)), 100, executor, false, received::add);
+        }
+
+        assertThat(received).isEqualTo(items).isEqualTo(parseSequential(input));
+    }
+
+    @Test
+    void parse_maxChunksInFlight_limitsTheQueuedChunks() throws IOException {
+        byte[] input = sample();
+        AtomicInteger queued = new AtomicInteger();
+        AtomicInteger maxQueued = new AtomicInteger();
+
+        List<SIE4Item> items;
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Executor counting = task -> {
+                maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+                pool.execute(() -> {
+                    queued.decrementAndGet();
+                    task.run();
+                });
+            };
+            items = ParallelParser.parse(new SIE4LineReader(new ByteArrayInputStream(input)), 1, 3, counting, false, null);
+        }
+
+        assertThat(items).isEqualTo(parseSequential(input));
+        assertThat(maxQueued.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void parse_onItemThrows_stopsTheParse() throws IOException {
+        byte[] input = sample();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            assertThatThrownBy(() -> ParallelParser.parse(new SIE4LineReader(new ByteArrayInputStream(input)), 100, executor, false,
+                    item -> {
+                        if (item instanceof SIE4Item.Konto) {
+                            throw new SIE4Exception("Rejected " + item);
+                        }
+                    }))
+                    .isInstanceOf(SIE4Exception.class)
+                    .hasMessageStartingWith("Rejected Konto");
+        }
+    }
+
+    @Test
+    void parse_unclosedVerBlock_shouldThrow() {
+        String input = "#FLAGGA 0\n#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n#TRANS 1920 {} 100.00\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 1))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Unclosed VER block at end of file: #VER A 1 20211125");
+    }
+
+    @Test
+    void parse_nestedVerBlock_shouldThrow() {
+        String input = "#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n#VER A 2 20211125\n{\n}\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 1))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("Unclosed VER block before #VER A 2 20211125");
+    }
+
+    @Test
+    void parse_unclosedVerBlockFollowedByMoreThanAChunk_stopsAtTheNextVer() {
+        byte[] unclosed = "#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n".getBytes(SIE4.SIE4_CHARSET);
+        byte[] ver = "#VER A 2 20211125\n{\n#TRANS 1930 {} -100.00\n".getBytes(SIE4.SIE4_CHARSET);
+        // endless unclosed vouchers, that fail the test if the splitter reads far past the first one
+        InputStream input = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                if (position >= 1024 * 1024) {
+                    throw new IOException("Read past the unclosed VER block");
+                }
+                long i = position++;
+                return i < unclosed.length ? unclosed[(int) i] : ver[(int) ((i - unclosed.length) % ver.length)];
+            }
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            assertThatThrownBy(() -> ParallelParser.parse(new SIE4LineReader(input), 64, executor, false))
+                    .isInstanceOf(SIE4Exception.class)
+                    .hasMessage("Unclosed VER block before #VER A 2 20211125: #VER A 1 20211125");
+        }
+    }
+
+    @Test
+    void parse_closingBraceWithoutVer_shouldThrow() {
+        String input = "#FLAGGA 0\n}\n#FNAMN Test\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 1))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("Unexpected end of VER block without #VER");
+    }
+
+    @Test
+    void parse_errorsInSeveralChunks_reportsFirstInFileOrder() {
+        String input = "#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n#TRANS 1920 {} 50.00\n}\n"
+                + "#VER A 2 20211125\n{\n#KONTO 1930 Bank\n}\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 1))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("VER transaction items must have a zero sum");
+    }
+
+    @Test
+    void parse_emptyInput_returnsNoItems() {
+        assertThat(parseParallel("", 1)).isEmpty();
+    }
+
+    @Test
+    void parse_ksummaMismatch_shouldThrow() {
+        String input = "#FLAGGA 0\n#KSUMMA\n" + "#KONTO 1930 Bank\n".repeat(100) + "#KSUMMA 1\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 64))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageStartingWith("#KSUMMA checksum mismatch, file has 1");
+    }
+
+    @Test
+    void parse_ksummaMismatchAfterMalformedItem_reportsMalformedItem() {
+        String input = "#FLAGGA 0\n#KSUMMA\n" + "#KONTO 1930 Bank\n".repeat(100) + "#KONTO x Bank\n#KSUMMA 1\n";
+
+        assertThatThrownBy(() -> parseParallel(input, 64))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageNotContaining("KSUMMA");
+    }
+}
@@ -6,6 +6,7 @@ import java.time.DateTimeException;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class PeriodTest {
@@ -44,4 +45,18 @@ class PeriodTest {
     void testOfString_invalidPeriodString_shouldThrowException() {
         assertThrows(DateTimeException.class, () -> Period.of("202413"));
     }
+
+    @Test
+    void testOf_sameValues_shouldReturnSameInstance() {
+        assertSame(Period.of(2024, 3), Period.of(2024, 3));
+        assertSame(Period.of(2024, 3), Period.of("202403"));
+        assertEquals(Period.of(2300, 3), Period.of("230003"));
+    }
+
+    @Test
+    void testOfString_notSixDigits_shouldThrowException() {
+        assertThrows(DateTimeException.class, () -> Period.of("202400"));
+        assertThrows(DateTimeException.class, () -> Period.of("2024-3"));
+        assertThrows(DateTimeException.class, () -> Period.of("20243"));
+    }
 }
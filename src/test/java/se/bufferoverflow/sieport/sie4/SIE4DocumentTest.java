@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -105,6 +106,32 @@ class SIE4DocumentTest {
         assertThat(items).hasSize(295);
     }
 
+    @Test
+    void getItems_isComputedOnceAndImmutable() {
+        SIE4Document doc = SIE4.parse(sie4SampleFile);
+
+        List<SIE4Item> items = doc.getItems();
+
+        assertThat(doc.getItems()).isSameAs(items);
+        assertThrows(UnsupportedOperationException.class, () -> items.add(UNSET));
+    }
+
+    @Test
+    void getItems_byType_matchesFilteredItems() {
+        SIE4Document doc = SIE4.parse(sie4SampleFile);
+
+        for (Class<?> type : SIE4Item.class.getPermittedSubclasses()) {
+            @SuppressWarnings("unchecked")
+            Class<? extends SIE4Item> itemType = (Class<? extends SIE4Item>) type;
+            assertThat(doc.getItems(itemType))
+                    .as(type.getSimpleName())
+                    .isEqualTo(doc.getItems().stream().filter(itemType::isInstance).toList());
+        }
+        assertThat(doc.getItems(SIE4Item.Konto.class)).isSameAs(doc.getKonto());
+        assertThat(doc.getItems(SIE4Item.class)).isEqualTo(doc.getItems());
+        assertThat(doc.getItems(SIE4Item.Transaction.class)).isEmpty();
+    }
+
     @Test
     void getItem_returnsPresentItem() {
         SIE4Document doc = SIE4.parse(sie4SampleFile);
@@ -164,6 +191,31 @@ class SIE4DocumentTest {
         assertThat(ex.getMessage()).contains("#FLAGGA").contains("2");
     }
 
+    @Test
+    void from_duplicateSingleton_reportsTotalCount() {
+        SIE4Exception ex = assertThrows(SIE4Exception.class, () -> SIE4Document.from(List.of(
+                new SIE4Item.Fnamn("A"), new SIE4Item.Konto(1910, "Kassa"), new SIE4Item.Fnamn("B"), new SIE4Item.Fnamn("C"))));
+
+        assertThat(ex.getMessage()).isEqualTo("Expected at most one #FNAMN item, found 3");
+    }
+
+    @Test
+    void from_keepsOrderWithinTypeAndIgnoresTransactions() {
+        SIE4Item.Konto k1 = new SIE4Item.Konto(1930, "Bank");
+        SIE4Item.Konto k2 = new SIE4Item.Konto(1910, "Kassa");
+        List<SIE4Item> items = new ArrayList<>(List.of(
+                k1, UNSET, SIE4Item.Transaction.Trans.of(1910, java.math.BigDecimal.ONE), k2));
+        items.add(null);
+
+        SIE4Document doc = SIE4Document.from(items);
+        items.clear();
+
+        assertThat(doc.getKonto()).containsExactly(k1, k2);
+        assertThat(doc.getFlagga()).isEqualTo(UNSET);
+        assertThat(doc.getItems()).containsExactly(UNSET, k1, k2);
+        assertThrows(UnsupportedOperationException.class, () -> doc.getKonto().add(k1));
+    }
+
     @Test
     void defaultBuilder_hasStandardDefaults_flagIsSet() {
         SIE4Document doc = SIE4Document.defaultBuilder().build();
@@ -0,0 +1,162 @@
+package se.bufferoverflow.sieport.sie4;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SIE4HandlerTest {
+    private Path sie4SampleFile;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        sie4SampleFile = Path.of(SIE4HandlerTest.class.getClassLoader().getResource("./SIE4-sample.SE").toURI());
+    }
+
+    @Test
+    void parseSample_reportsSameContentAsDocument() {
+        SIE4Document doc = SIE4.parse(sie4SampleFile);
+        List<SIE4Item.Konto> konto = new ArrayList<>();
+        int[] counts = new int[3];
+        BigDecimal[] debit = {BigDecimal.ZERO};
+
+        SIE4.parse(sie4SampleFile, new SIE4Handler() {
+            @Override
+            public void onKonto(SIE4Item.Konto item) {
+                konto.add(item);
+            }
+
+            @Override
+            public void onVerStart(VerHeader header) {
+                counts[0]++;
+            }
+
+            @Override
+            public void onTrans(SIE4Item.Transaction.Trans trans) {
+                counts[1]++;
+                if (trans.amount().signum() > 0) {
+                    debit[0] = debit[0].add(trans.amount());
+                }
+            }
+
+            @Override
+            public void onVerEnd() {
+                counts[2]++;
+            }
+        });
+
+        assertThat(konto).isEqualTo(doc.getKonto());
+        assertThat(counts[0]).isEqualTo(doc.getVer().size());
+        assertThat(counts[2]).isEqualTo(doc.getVer().size());
+        assertThat(counts[1]).isEqualTo(doc.getVer().stream().mapToInt(v -> v.transactions().size()).sum());
+        assertThat(debit[0]).isEqualTo(doc.getVer().stream()
+                .flatMap(v -> v.transactions().stream())
+                .map(SIE4Item.Transaction::amount)
+                .filter(a -> a.signum() > 0)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    @Test
+    void parse_reportsEventsInFileOrder() {
+        String input = """
+                #FLAGGA 0
+                #VER A 1 20211125 "Sale"
+                {
+                   #TRANS 1930 {} -100.00
+                   #RTRANS 1920 {} 100.00
+                   #TRANS 1920 {} 100.00
+                }
+                #FNAMN TestCompany
+                """;
+        List<Object> events = new ArrayList<>();
+
+        SIE4.parse(stream(input), new RecordingHandler(events));
+
+        assertThat(events).containsExactly(
+                SIE4Item.Flagga.UNSET,
+                new VerHeader(LocalDate.of(2021, 11, 25), Optional.of("A"), Optional.of("1"), Optional.of("Sale"),
+                        Optional.empty(), Optional.empty()),
+                SIE4Item.Transaction.Trans.of(1930, new BigDecimal("-100.00")),
+                SIE4Item.Transaction.Rtrans.of(1920, new BigDecimal("100.00")),
+                SIE4Item.Transaction.Trans.of(1920, new BigDecimal("100.00")),
+                "VER_END",
+                new SIE4Item.Fnamn("TestCompany"),
+                "END");
+    }
+
+    @Test
+    void parse_unbalancedVer_shouldThrow() {
+        String input = "#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n#TRANS 1920 {} 90.00\n}\n";
+
+        assertThatThrownBy(() -> SIE4.parse(stream(input), new SIE4Handler() {}))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("zero sum");
+    }
+
+    @Test
+    void parse_unclosedVerBlock_shouldThrow() {
+        String input = "#VER A 1 20211125\n{\n#TRANS 1930 {} -100.00\n#TRANS 1920 {} 100.00\n";
+
+        assertThatThrownBy(() -> SIE4.parse(stream(input), new SIE4Handler() {}))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("Unclosed VER block");
+    }
+
+    @Test
+    void parse_nullHandler_shouldThrowNullPointerException() {
+        assertThatThrownBy(() -> SIE4.parse(stream("#FLAGGA 0\n"), (SIE4Handler) null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    private static InputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(SIE4.SIE4_CHARSET));
+    }
+
+    private record RecordingHandler(List<Object> events) implements SIE4Handler {
+        @Override
+        public void onFlagga(SIE4Item.Flagga flagga) {
+            events.add(flagga);
+        }
+
+        @Override
+        public void onFnamn(SIE4Item.Fnamn fnamn) {
+            events.add(fnamn);
+        }
+
+        @Override
+        public void onVerStart(VerHeader header) {
+            events.add(header);
+        }
+
+        @Override
+        public void onTrans(SIE4Item.Transaction.Trans trans) {
+            events.add(trans);
+        }
+
+        @Override
+        public void onRtrans(SIE4Item.Transaction.Rtrans rtrans) {
+            events.add(rtrans);
+        }
+
+        @Override
+        public void onVerEnd() {
+            events.add("VER_END");
+        }
+
+        @Override
+        public void onEnd() {
+            events.add("END");
+        }
+    }
+}
@@ -21,6 +21,29 @@ class SIE4ItemTest {
         assertThatThrownBy(() -> new SIE4Item.Flagga(2)).isInstanceOf(SIE4Exception.class);
     }
 
+    @Test
+    void flagga_of_returnsConstants() {
+        assertThat(SIE4Item.Flagga.of(0)).isSameAs(SIE4Item.Flagga.UNSET);
+        assertThat(SIE4Item.Flagga.of(1)).isSameAs(SIE4Item.Flagga.SET);
+        assertThatThrownBy(() -> SIE4Item.Flagga.of(2)).isInstanceOf(SIE4Exception.class);
+    }
+
+    @Test
+    void yearNumber_of_sharesRecentYears() {
+        assertThat(YearNumber.of(0)).isSameAs(YearNumber.CURRENT_YEAR);
+        assertThat(YearNumber.of(-1)).isSameAs(YearNumber.PREV_YEAR);
+        assertThat(YearNumber.of(-1000)).isEqualTo(YearNumber.of(-1000));
+        assertThatThrownBy(() -> YearNumber.of(1)).isInstanceOf(SIE4Exception.class);
+    }
+
+    @Test
+    void objectReference_of_sharesInstances() {
+        assertThat(ObjectReference.of(6, "P1")).isSameAs(ObjectReference.of(6, "P1"));
+        assertThat(ObjectReference.of(6, "P1")).isNotEqualTo(ObjectReference.of(1, "P1"));
+        assertThat(ObjectReference.of(1000, "P1")).isEqualTo(ObjectReference.of(1000, "P1"));
+        assertThat(ObjectReference.of(-1, "P1")).isEqualTo(new ObjectReference(-1, "P1"));
+    }
+
     @Test
     void ver() {
         assertThat(SIE4Item.Ver.of(LocalDate.EPOCH, "Title", createValidTransactions()))
@@ -82,6 +105,41 @@ class SIE4ItemTest {
                 .hasMessageContaining("zero sum");
     }
 
+    @Test
+    void ver_builder_matchesConstructor() {
+        VerHeader header = new VerHeader(LocalDate.of(2024, 3, 1), Optional.of("A"), Optional.of("1"), Optional.of("Text"), Optional.empty(), Optional.empty());
+        List<SIE4Item.Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            transactions.add(SIE4Item.Transaction.Trans.of(1930, new BigDecimal("10.25")));
+        }
+        transactions.add(SIE4Item.Transaction.Rtrans.of(1930, new BigDecimal("5")));
+        transactions.add(SIE4Item.Transaction.Trans.of(3010, new BigDecimal("-92.25")));
+
+        SIE4Item.Ver.Builder builder = SIE4Item.Ver.builder(header);
+        transactions.forEach(builder::add);
+        SIE4Item.Ver ver = builder.build();
+
+        assertThat(ver).isEqualTo(header.toVer(transactions));
+        assertThat(ver.transactions()).containsExactlyElementsOf(transactions);
+        assertThatThrownBy(() -> ver.transactions().add(SIE4Item.Transaction.Trans.of(1930, BigDecimal.ONE)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void ver_builderUnbalanced_shouldThrowException() {
+        VerHeader header = new VerHeader(LocalDate.of(2024, 3, 1), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+        assertThatThrownBy(() -> SIE4Item.Ver.builder(header)
+                .add(SIE4Item.Transaction.Trans.of(1930, new BigDecimal("10")))
+                .add(SIE4Item.Transaction.Trans.of(3010, new BigDecimal("-9.99")))
+                .build())
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("0.01");
+        assertThatThrownBy(() -> SIE4Item.Ver.builder(header).add(SIE4Item.Transaction.Trans.of(1930, BigDecimal.ZERO)).build())
+                .isInstanceOf(SIE4Exception.class);
+    }
+
     @Test
     void trans() {
         // Single argument static factory method
@@ -0,0 +1,107 @@
+package se.bufferoverflow.sieport.sie4;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SIE4ReaderTest {
+    private Path sie4SampleFile;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        sie4SampleFile = Path.of(SIE4ReaderTest.class.getClassLoader().getResource("./SIE4-sample.SE").toURI());
+    }
+
+    @Test
+    void readSample_returnsSameItemsAsParse() {
+        List<SIE4Item> streamed = new ArrayList<>();
+        try (SIE4Reader reader = SIE4.reader(sie4SampleFile)) {
+            reader.forEachRemaining(streamed::add);
+        }
+
+        assertThat(streamed).hasSize(2160);
+        assertThat(streamed).containsExactlyInAnyOrderElementsOf(SIE4.parse(sie4SampleFile).getItems());
+    }
+
+    @Test
+    void next_returnsCompleteVerItems() {
+        String input = """
+                #FLAGGA 0
+                #VER A 1 20211125 "Sale"
+                {
+                   #TRANS 1930 {} -100.00
+                   #TRANS 1920 {} 100.00
+                }
+                #FNAMN TestCompany
+                """;
+
+        try (SIE4Reader reader = SIE4.reader(stream(input))) {
+            assertThat(reader.next()).isEqualTo(SIE4Item.Flagga.UNSET);
+            assertThat(reader.next()).isEqualTo(SIE4Item.Ver.of(LocalDate.of(2021, 11, 25), "Sale", "A", "1", List.of(
+                    SIE4Item.Transaction.Trans.of(1930, new BigDecimal("-100.00")),
+                    SIE4Item.Transaction.Trans.of(1920, new BigDecimal("100.00")))));
+            assertThat(reader.next()).isEqualTo(new SIE4Item.Fnamn("TestCompany"));
+            assertThat(reader.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    void next_afterLastItem_shouldThrow() {
+        try (SIE4Reader reader = SIE4.reader(stream("#FLAGGA 0\n"))) {
+            reader.next();
+
+            assertThatThrownBy(reader::next).isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+    @Test
+    void hasNext_unclosedVerBlock_shouldThrow() {
+        String input = "#FLAGGA 0\n#VER A 1 20211125\n{\n   #TRANS 1930 {} -100.00\n   #TRANS 1920 {} 100.00\n";
+
+        try (SIE4Reader reader = SIE4.reader(stream(input))) {
+            assertThat(reader.next()).isEqualTo(SIE4Item.Flagga.UNSET);
+            assertThatThrownBy(reader::hasNext)
+                    .isInstanceOf(SIE4Exception.class)
+                    .hasMessageContaining("Unclosed VER block");
+        }
+    }
+
+    @Test
+    void close_inputStreamReader_shouldNotCloseStream() {
+        var closed = new boolean[]{false};
+        InputStream trackingStream = new ByteArrayInputStream("#FLAGGA 0\n".getBytes(SIE4.SIE4_CHARSET)) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        SIE4.reader(trackingStream).close();
+
+        assertThat(closed[0]).isFalse();
+    }
+
+    @Test
+    void reader_nullPath_shouldThrowNullPointerException() {
+        assertThatThrownBy(() -> SIE4.reader((Path) null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    private static InputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(SIE4.SIE4_CHARSET));
+    }
+}
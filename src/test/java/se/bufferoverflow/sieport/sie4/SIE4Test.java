@@ -5,9 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import se.bufferoverflow.sieport.sie4.validator.ValidationError;
 import se.bufferoverflow.sieport.sie4.validator.ValidationError.MissingMandatoryItems;
+import se.bufferoverflow.sieport.sie4.validator.Validator;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -15,6 +17,7 @@ import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -77,7 +80,7 @@ class SIE4Test {
 
     @Test
     void parse_unknownLabel_shouldBeIgnored() {
-        String input = "#FLAGGA 0\n#KSUMMA\n#FNAMN TestCompany\n#UNKNOWN some data\n";
+        String input = "#FLAGGA 0\n#KSUMMA\n#FNAMN TestCompany\n#UNKNOWN some data\n#KSUMMA 798620235\n";
         InputStream stream = new ByteArrayInputStream(input.getBytes(SIE4.SIE4_CHARSET));
 
         List<SIE4Item> items = SIE4.parse(stream).getItems();
@@ -163,6 +166,193 @@ class SIE4Test {
         assertThat(closed[0]).isFalse();
     }
 
+    @Test
+    void parse_singleArgumentOverloads_arePreservedForBinaryCompatibility() throws NoSuchMethodException {
+        assertThat(SIE4.class.getMethod("parse", Path.class).getReturnType()).isEqualTo(SIE4Document.class);
+        assertThat(SIE4.class.getMethod("parse", File.class).getReturnType()).isEqualTo(SIE4Document.class);
+        assertThat(SIE4.parse(sie4SampleFile.toFile()).getItems()).isEqualTo(SIE4.parse(sie4SampleFile).getItems());
+    }
+
+    @Test
+    void parse_memoryMapped_matchesStreamParse() {
+        SIE4Document mapped = SIE4.parse(sie4SampleFile, SIE4.ParseOptions.MEMORY_MAP);
+
+        assertThat(mapped.getItems()).isEqualTo(SIE4.parse(sie4Sample).getItems());
+    }
+
+    @Test
+    void parse_parallel_matchesSequentialParse() {
+        SIE4Document parallel = SIE4.parse(sie4SampleFile, SIE4.ParseOptions.PARALLEL, SIE4.ParseOptions.MEMORY_MAP);
+
+        assertThat(parallel.getItems()).isEqualTo(SIE4.parse(sie4Sample).getItems());
+    }
+
+    @Test
+    void parse_compact_matchesDefaultParse() {
+        SIE4Document compact = SIE4.parse(sie4SampleFile, SIE4.ParseOptions.COMPACT);
+
+        assertThat(compact.getVer()).allSatisfy(ver -> assertThat(ver.transactions()).isInstanceOf(CompactTransactions.class));
+        assertThat(compact.getItems()).isEqualTo(SIE4.parse(sie4Sample).getItems());
+        assertThat(SIE4.parse(sie4SampleFile, SIE4.ParseOptions.COMPACT, SIE4.ParseOptions.PARALLEL).getItems())
+                .isEqualTo(compact.getItems());
+    }
+
+    @Test
+    void parse_parallelUnclosedVerBlock_shouldThrow() throws IOException {
+        Path file = tempDir.resolve("unclosed.se");
+        Files.writeString(file, "#FLAGGA 0\n#VER A 1 20211125\n{\n   #TRANS 1930 {} -100.00\n", SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.PARALLEL))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("Unclosed VER block");
+    }
+
+    @Test
+    void parse_validate_sampleIsValid() {
+        SIE4Document validated = SIE4.parse(sie4SampleFile, SIE4.ParseOptions.VALIDATE);
+
+        assertThat(validated.getItems()).isEqualTo(SIE4.parse(sie4Sample).getItems());
+        assertThat(SIE4.parse(sie4SampleFile, SIE4.ParseOptions.VALIDATE, SIE4.ParseOptions.PARALLEL).getItems())
+                .isEqualTo(validated.getItems());
+    }
+
+    @Test
+    void parse_sample_sharesValueInstances() {
+        SIE4Document document = SIE4.parse(sie4SampleFile, SIE4.ParseOptions.PARALLEL);
+
+        assertThat(document.getIb()).extracting(SIE4Item.Ib::yearNumber)
+                .allSatisfy(yearNumber -> assertThat(yearNumber).isSameAs(YearNumber.of(yearNumber.yearNo())));
+        List<ObjectReference> references = document.getVer().stream()
+                .flatMap(ver -> ver.transactions().stream())
+                .flatMap(transaction -> transaction.objectReferences().stream())
+                .toList();
+        assertThat(references).isNotEmpty()
+                .allSatisfy(reference -> assertThat(reference).isSameAs(ObjectReference.of(reference.dimensionNo(), reference.objectNo())));
+    }
+
+    @Test
+    void parse_validateSie4iForbiddenItem_shouldThrowBeforeParsingTheRest() throws IOException {
+        Path file = tempDir.resolve("forbidden.si");
+        // the unclosed voucher would fail the parse, had it got that far
+        Files.writeString(file, "#FLAGGA 0\n#PROGRAM Test 1.0\n#FORMAT PC8\n#GEN 20240101\n#SIETYP 4\n#FNAMN Test\n"
+                + "#IB 0 1930 100.00\n#VER A 1 20240101\n{\n", SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE_SIE4I))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Validation failed: ForbiddenItemsPresent[offendingItems=[IB]]");
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE_SIE4I, SIE4.ParseOptions.COMPACT))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Validation failed: ForbiddenItemsPresent[offendingItems=[IB]]");
+    }
+
+    @Test
+    void parse_inputStreamValidateSie4iForbiddenItem_shouldThrowBeforeParsingTheRest() {
+        // the unclosed voucher would fail the parse, had it got that far
+        byte[] upload = ("#FLAGGA 0\n#PROGRAM Test 1.0\n#FORMAT PC8\n#GEN 20240101\n#SIETYP 4\n#FNAMN Test\n"
+                + "#IB 0 1930 100.00\n#VER A 1 20240101\n{\n").getBytes(SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(new ByteArrayInputStream(upload), SIE4.ParseOptions.VALIDATE_SIE4I))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Validation failed: ForbiddenItemsPresent[offendingItems=[IB]]");
+        // MEMORY_MAP does not apply to a stream
+        assertThatThrownBy(() -> SIE4.parse(new ByteArrayInputStream(upload), SIE4.ParseOptions.VALIDATE_SIE4I,
+                SIE4.ParseOptions.COMPACT, SIE4.ParseOptions.MEMORY_MAP))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Validation failed: ForbiddenItemsPresent[offendingItems=[IB]]");
+    }
+
+    @Test
+    void parse_validateSie4iParallel_shouldThrowForbiddenItem() {
+        List<SIE4Item> items = new ArrayList<>(SIE4.parse(sie4SampleFile).getItems());
+        items.removeIf(item -> !(item instanceof SIE4Item.Ver) && Validator.FORBIDDEN_ITEMS_SIE4I.contains(item.itemType())
+                && item.itemType() != SIE4ItemType.IB);
+        Path file = tempDir.resolve("forbidden.si");
+        SIE4.write(file, items, SIE4.FileOptions.SKIP_VALIDATION);
+
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE_SIE4I, SIE4.ParseOptions.PARALLEL))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Validation failed: ForbiddenItemsPresent[offendingItems=[IB]]");
+    }
+
+    @Test
+    void parse_validateMissingMandatoryItem_shouldThrowAtEndOfSection() throws IOException {
+        Path file = tempDir.resolve("missing.se");
+        Files.writeString(file, "#FLAGGA 0\n#PROGRAM Test 1.0\n#FORMAT PC8\n#GEN 20240101\n#SIETYP 4\n"
+                + "#KONTO 1930 Bank\n#VER A 1 20240101\n{\n", SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("MissingMandatoryItems")
+                .hasMessageContaining("FNAMN")
+                .hasMessageContaining("RAR")
+                .hasMessageNotContaining("IB");
+    }
+
+    @Test
+    void parse_validateSectionsOutOfOrder_acceptsWhatValidateAccepts() throws IOException {
+        Path file = tempDir.resolve("unordered.se");
+        // a current-year #IB after the first #VER is only accepted once the #ORGNR has ended the early checks
+        Files.writeString(file, "#FLAGGA 0\n#PROGRAM Test 1.0\n#FORMAT PC8\n#GEN 20240101\n#SIETYP 4\n#FNAMN Test\n"
+                + "#RAR 0 20240101 20241231\n#KONTO 1930 Bank\n#ORGNR 555555-5555\n"
+                + "#IB -1 1930 100.00\n#UB 0 1930 100.00\n#RES 0 3000 0.00\n"
+                + "#VER A 1 20240101\n{\n#TRANS 1930 {} -100.00\n#TRANS 1920 {} 100.00\n}\n#IB 0 1930 100.00\n", SIE4.SIE4_CHARSET);
+
+        SIE4Document validated = SIE4.parse(file, SIE4.ParseOptions.VALIDATE);
+
+        assertThat(validated.getItems()).isEqualTo(SIE4.parse(file).getItems());
+        assertThat(SIE4.validate(SIE4.parse(file))).isEmpty();
+    }
+
+    @Test
+    void parse_validateAtEndOfFile_shouldThrow() throws IOException {
+        Path file = tempDir.resolve("no-balances.si");
+        Files.writeString(file, "#FLAGGA 0\n#PROGRAM Test 1.0\n#FORMAT PC8\n#GEN 20240101\n#SIETYP 4\n#FNAMN Test\n",
+                SIE4.SIE4_CHARSET);
+
+        assertThat(SIE4.parse(file, SIE4.ParseOptions.VALIDATE_SIE4I).getItems()).hasSize(6);
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("MissingMandatoryItems");
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.VALIDATE, SIE4.ParseOptions.VALIDATE_SIE4I))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parse_memoryMappedWithHandler_reportsAllVouchers() {
+        var verCount = new int[]{0};
+        SIE4.parse(sie4SampleFile, new SIE4Handler() {
+            @Override
+            public void onVerEnd() {
+                verCount[0]++;
+            }
+        }, SIE4.ParseOptions.MEMORY_MAP);
+
+        assertThat(verCount[0]).isEqualTo(SIE4.parse(sie4SampleFile).getVer().size());
+    }
+
+    @Test
+    void parse_memoryMappedEmptyFile_returnsEmptyDocument() throws IOException {
+        Path empty = Files.createFile(tempDir.resolve("empty.se"));
+
+        assertThat(SIE4.parse(empty, SIE4.ParseOptions.MEMORY_MAP).getItems()).isEmpty();
+    }
+
+    @Test
+    void parse_memoryMappedUnclosedVerBlock_shouldThrow() throws IOException {
+        Path file = tempDir.resolve("unclosed.se");
+        Files.writeString(file, "#FLAGGA 0\n#VER A 1 20211125\n{\n   #TRANS 1930 {} -100.00\n", SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.MEMORY_MAP))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("Unclosed VER block");
+    }
+
+    @Test
+    void parse_memoryMappedMissingFile_shouldThrowUncheckedIOException() {
+        assertThatThrownBy(() -> SIE4.parse(tempDir.resolve("missing.se"), SIE4.ParseOptions.MEMORY_MAP))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
     @Test
     void write_validationFailure_shouldNotTruncateExistingFile() throws IOException {
         Path existingFile = tempDir.resolve("existing.se");
@@ -186,7 +376,8 @@ class SIE4Test {
         List<SIE4Item> items = List.of(new SIE4Item.Flagga(0));
 
         assertThatThrownBy(() -> SIE4.write(failingStream, items, SIE4.FileOptions.SKIP_VALIDATION))
-                .isInstanceOf(UncheckedIOException.class);
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage("Simulated disk full");
     }
 
     @Test
@@ -280,4 +471,53 @@ class SIE4Test {
         assertThatThrownBy(() -> SIE4.write((OutputStream) null, List.of()))
                 .isInstanceOf(NullPointerException.class);
     }
+
+    @Test
+    void write_ksumma_isVerifiedWhenParsed() throws IOException {
+        List<SIE4Item> items = SIE4.parse(sie4SampleFile).getItems();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        SIE4.write(baos, items, SIE4.FileOptions.KSUMMA);
+
+        List<String> lines = baos.toString(SIE4.SIE4_CHARSET).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("#FLAGGA 0");
+        assertThat(lines.get(1)).isEqualTo("#KSUMMA");
+        assertThat(lines.getLast()).matches("#KSUMMA \\d+");
+        byte[] written = baos.toByteArray();
+        assertThat(SIE4.parse(new ByteArrayInputStream(written)).getItems()).isEqualTo(items);
+        Path file = Files.write(tempDir.resolve("ksumma.se"), written);
+        assertThat(SIE4.parse(file, SIE4.ParseOptions.PARALLEL).getItems()).isEqualTo(items);
+    }
+
+    @Test
+    void parse_ksummaOfCorruptedFile_shouldThrow() {
+        List<SIE4Item> items = SIE4.parse(sie4SampleFile).getItems();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SIE4.write(baos, items, SIE4.FileOptions.KSUMMA);
+        // an account name changed in transit still parses, but no longer matches the checksum
+        String corrupted = baos.toString(SIE4.SIE4_CHARSET).replaceFirst("#KONTO (\\d+) ", "#KONTO $1 X");
+        assertThat(corrupted).isNotEqualTo(baos.toString(SIE4.SIE4_CHARSET));
+
+        assertThatThrownBy(() -> SIE4.parse(new ByteArrayInputStream(corrupted.getBytes(SIE4.SIE4_CHARSET))))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageStartingWith("#KSUMMA checksum mismatch");
+    }
+
+    @Test
+    void parse_ksummaOfTruncatedFile_shouldThrow() throws IOException {
+        List<SIE4Item> items = SIE4.parse(sie4SampleFile).getItems();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SIE4.write(baos, items, SIE4.FileOptions.KSUMMA);
+        // a file cut off in transit ends before the closing #KSUMMA
+        String written = baos.toString(SIE4.SIE4_CHARSET);
+        byte[] truncated = written.substring(0, written.lastIndexOf("#KSUMMA")).getBytes(SIE4.SIE4_CHARSET);
+
+        assertThatThrownBy(() -> SIE4.parse(new ByteArrayInputStream(truncated)))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Missing closing #KSUMMA at end of file");
+        Path file = Files.write(tempDir.resolve("truncated.se"), truncated);
+        assertThatThrownBy(() -> SIE4.parse(file, SIE4.ParseOptions.PARALLEL))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Missing closing #KSUMMA at end of file");
+    }
 }
@@ -0,0 +1,159 @@
+package se.bufferoverflow.sieport.sie4;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SIE4WriterTest {
+    private Path sie4SampleFile;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        sie4SampleFile = Path.of(SIE4WriterTest.class.getClassLoader().getResource("./SIE4-sample.SE").toURI());
+    }
+
+    @Test
+    void writeItem_sampleInSpecOrder_matchesWrite() {
+        List<SIE4Item> items = SIE4.parse(sie4SampleFile).getItems();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        SIE4.write(expected, items);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (SIE4Writer writer = SIE4.writer(actual)) {
+            items.forEach(writer::writeItem);
+        }
+
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    void writeItem_toPath_canBeParsedBack() {
+        Path file = tempDir.resolve("streamed.se");
+        SIE4Item.Ver ver = SIE4Item.Ver.of(LocalDate.of(2024, 1, 31), "Försäljning", List.of(
+                SIE4Item.Transaction.Trans.of(1930, new BigDecimal("-100.00")),
+                SIE4Item.Transaction.Trans.of(3010, new BigDecimal("100.00"))));
+
+        try (SIE4Writer writer = SIE4.writer(file)) {
+            writer.writeItem(SIE4Item.Flagga.UNSET);
+            writer.writeItem(new SIE4Item.Fnamn("Åkeri AB"));
+            writer.writeItem(ver);
+            writer.writeItem(ver);
+        }
+
+        SIE4Document doc = SIE4.parse(file);
+        assertThat(doc.getFnamn()).isEqualTo(new SIE4Item.Fnamn("Åkeri AB"));
+        assertThat(doc.getVer()).containsExactly(ver, ver);
+    }
+
+    @Test
+    void writeItem_outOfOrder_shouldThrow() {
+        try (SIE4Writer writer = SIE4.writer(new ByteArrayOutputStream())) {
+            writer.writeItem(new SIE4Item.Fnamn("Acme"));
+
+            assertThatThrownBy(() -> writer.writeItem(SIE4Item.Flagga.UNSET))
+                    .isInstanceOf(SIE4Exception.class)
+                    .hasMessage("#FLAGGA must be written before #FNAMN");
+        }
+    }
+
+    @Test
+    void writeItem_interleavedWithinASection_isWritten() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (SIE4Writer writer = SIE4.writer(baos)) {
+            writer.writeItem(SIE4Item.Flagga.UNSET);
+            writer.writeItem(new SIE4Item.Konto(1910, "Kassa"));
+            writer.writeItem(new SIE4Item.Sru(1910, 7281));
+            writer.writeItem(new SIE4Item.Konto(1920, "PlusGiro"));
+
+            assertThatThrownBy(() -> writer.writeItem(new SIE4Item.Fnamn("Acme")))
+                    .isInstanceOf(SIE4Exception.class)
+                    .hasMessage("#FNAMN must be written before #KONTO");
+        }
+
+        assertThat(baos.toString(SIE4.SIE4_CHARSET).lines())
+                .containsExactly("#FLAGGA 0", "#KONTO 1910 Kassa", "#SRU 1910 7281", "#KONTO 1920 PlusGiro");
+    }
+
+    @Test
+    void writeItem_afterClose_shouldThrow() {
+        SIE4Writer writer = SIE4.writer(new ByteArrayOutputStream());
+        writer.close();
+
+        assertThatThrownBy(() -> writer.writeItem(SIE4Item.Flagga.UNSET))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void close_outputStream_flushesButDoesNotClose() {
+        var closed = new boolean[]{false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        SIE4Writer writer = SIE4.writer(out);
+        writer.writeItem(SIE4Item.Flagga.UNSET);
+        writer.close();
+
+        assertThat(out.toString(SIE4.SIE4_CHARSET)).isEqualTo("#FLAGGA 0" + System.lineSeparator());
+        assertThat(closed[0]).isFalse();
+    }
+
+    @Test
+    void close_ioError_shouldThrow() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        SIE4Writer writer = SIE4.writer(failing);
+        writer.writeItem(SIE4Item.Flagga.UNSET);
+
+        assertThatThrownBy(writer::close)
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage("disk full");
+    }
+
+    @Test
+    void writer_missingDirectory_shouldThrowUncheckedIOException() {
+        assertThatThrownBy(() -> SIE4.writer(tempDir.resolve("missing").resolve("out.se")))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThat(Files.exists(tempDir.resolve("missing"))).isFalse();
+    }
+
+    @Test
+    void writeItem_ksumma_matchesWrite() {
+        List<SIE4Item> items = SIE4.parse(sie4SampleFile).getItems();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        SIE4.write(expected, items, SIE4.FileOptions.KSUMMA);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (SIE4Writer writer = SIE4.writer(actual, SIE4.FileOptions.KSUMMA)) {
+            items.forEach(writer::writeItem);
+        }
+
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+}
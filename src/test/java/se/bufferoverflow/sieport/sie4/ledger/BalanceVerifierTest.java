@@ -0,0 +1,167 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4Item.Transaction;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+import se.bufferoverflow.sieport.sie4.validator.ValidationError;
+import se.bufferoverflow.sieport.sie4.validator.Validator;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceVerifierTest {
+
+    private static final ObjectReference PROJECT = ObjectReference.of(6, "P1");
+
+    private static Transaction trans(int accountNo, String amount, ObjectReference... objects) {
+        return new Transaction.Trans(accountNo, new BigDecimal(amount), List.of(objects), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    private static SIE4Item.Ver ver(LocalDate date, Transaction... transactions) {
+        return new SIE4Item.Ver(date, Optional.of("A"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), List.of(transactions));
+    }
+
+    private static SIE4Document.Builder balanced() {
+        return SIE4Document.builder()
+                .addRar(new SIE4Item.Rar(YearNumber.CURRENT_YEAR, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+                        new SIE4Item.Rar(YearNumber.PREV_YEAR, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)))
+                .addIb(new SIE4Item.Ib(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1000.00"), Optional.empty()),
+                        new SIE4Item.Ib(YearNumber.PREV_YEAR, 1930, new BigDecimal("200.00"), Optional.empty()))
+                .addUb(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1250.50"), Optional.empty()),
+                        new SIE4Item.Ub(YearNumber.PREV_YEAR, 1930, new BigDecimal("1000.00"), Optional.empty()))
+                .addOib(new SIE4Item.Oib(YearNumber.CURRENT_YEAR, 1930, PROJECT, new BigDecimal("10"), Optional.empty()))
+                .addOub(new SIE4Item.Oub(YearNumber.CURRENT_YEAR, 1930, PROJECT, new BigDecimal("110"), Optional.empty()))
+                .addRes(new SIE4Item.Res(YearNumber.CURRENT_YEAR, 3010, new BigDecimal("-250.50"), Optional.empty()))
+                .addPsaldo(new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 3), 3010, Optional.empty(), new BigDecimal("-100"), Optional.empty()),
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 3), 1930, Optional.of(PROJECT), new BigDecimal("110"), Optional.empty()))
+                .addVer(ver(LocalDate.of(2024, 3, 1), trans(1930, "200", PROJECT), trans(3010, "-200")),
+                        ver(LocalDate.of(2024, 3, 15), trans(1930, "-100", PROJECT), trans(3010, "100")),
+                        ver(LocalDate.of(2024, 5, 2), trans(1930, "150.50"), trans(3010, "-150.50"),
+                                new Transaction.Rtrans(1930, new BigDecimal("99"), List.of(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()),
+                                new Transaction.Btrans(1930, new BigDecimal("99"), List.of(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())));
+    }
+
+    @Test
+    void verify_balancedDocument_hasNoErrors() {
+        assertThat(BalanceVerifier.verify(balanced().build())).isEmpty();
+    }
+
+    @Test
+    void verify_sample_hasNoErrors() {
+        SIE4Document document = SIE4.parse(BalanceVerifierTest.class.getResourceAsStream("/SIE4-sample.SE"));
+
+        assertThat(BalanceVerifier.verify(document)).isEmpty();
+    }
+
+    @Test
+    void verify_mismatches_reportStatedAndComputedBalances() {
+        SIE4Document document = balanced()
+                .ub(List.of(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1250.00"), Optional.empty())))
+                .res(List.of(new SIE4Item.Res(YearNumber.CURRENT_YEAR, 3010, new BigDecimal("-250"), Optional.empty())))
+                .oub(List.of(new SIE4Item.Oub(YearNumber.CURRENT_YEAR, 1930, PROJECT, new BigDecimal("100"), Optional.empty())))
+                .psaldo(List.of(new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 5), 3010, Optional.empty(), new BigDecimal("-150"), Optional.empty()),
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 3), 1930, Optional.of(PROJECT), new BigDecimal("0"), Optional.empty())))
+                .build();
+
+        List<ValidationError> errors = BalanceVerifier.verify(document);
+
+        assertThat(errors).containsExactlyInAnyOrder(
+                new ValidationError.BalanceMismatch(SIE4ItemType.UB, YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1250.00"), new BigDecimal("1250.50")),
+                new ValidationError.BalanceMismatch(SIE4ItemType.RES, YearNumber.CURRENT_YEAR, 3010, new BigDecimal("-250"), new BigDecimal("-250.50")),
+                new ValidationError.ObjectBalanceMismatch(YearNumber.CURRENT_YEAR, 1930, PROJECT, new BigDecimal("100"), new BigDecimal("110.00")),
+                new ValidationError.PeriodBalanceMismatch(YearNumber.CURRENT_YEAR, Period.of(2024, 5), 3010, Optional.empty(), new BigDecimal("-150"), new BigDecimal("-150.50")),
+                new ValidationError.PeriodBalanceMismatch(YearNumber.CURRENT_YEAR, Period.of(2024, 3), 1930, Optional.of(PROJECT), new BigDecimal("0"), new BigDecimal("110.00")));
+        assertThat(errors.getFirst().offendingItems()).containsExactly(SIE4ItemType.UB);
+    }
+
+    @Test
+    void verify_psaldoOfBalanceAccount_isTheBalanceAtTheEndOfThePeriod() {
+        SIE4Document document = balanced()
+                .addKtyp(new SIE4Item.Ktyp(1930, SIE4Item.Ktyp.AccountType.T), new SIE4Item.Ktyp(3010, SIE4Item.Ktyp.AccountType.I))
+                .psaldo(List.of(
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 1), 1930, Optional.empty(), new BigDecimal("1000.00"), Optional.empty()),
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 3), 1930, Optional.empty(), new BigDecimal("1100.00"), Optional.empty()),
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 5), 1930, Optional.empty(), new BigDecimal("1100.00"), Optional.empty()),
+                        new SIE4Item.Psaldo(YearNumber.CURRENT_YEAR, Period.of(2024, 5), 3010, Optional.empty(), new BigDecimal("-150.50"), Optional.empty())))
+                .build();
+
+        // the balance account includes its #IB and the months before the period, the result account does not
+        assertThat(BalanceVerifier.verify(document)).containsExactly(
+                new ValidationError.PeriodBalanceMismatch(YearNumber.CURRENT_YEAR, Period.of(2024, 5), 1930, Optional.empty(),
+                        new BigDecimal("1100.00"), new BigDecimal("1250.50")));
+        assertThat(Validator.of(BalanceVerifier::new).validate(document.getItems()))
+                .isEqualTo(BalanceVerifier.verify(document));
+    }
+
+    @Test
+    void verify_yearWithoutVouchers_isNotVerified() {
+        SIE4Document document = balanced()
+                .addVer(ver(LocalDate.of(2022, 6, 1), trans(1930, "5"), trans(3010, "-5")))
+                .build();
+
+        // the 2023 #UB differs from its #IB, but the file has no vouchers for 2023, and 2022 is outside every year
+        assertThat(BalanceVerifier.verify(document)).isEmpty();
+    }
+
+    @Test
+    void verify_withoutRar_countsVouchersInCurrentYear() {
+        SIE4Document document = SIE4Document.builder()
+                .addUb(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("5"), Optional.empty()))
+                .addVer(ver(LocalDate.of(1999, 1, 1), trans(1930, "7"), trans(3010, "-7")))
+                .build();
+
+        assertThat(BalanceVerifier.verify(document)).containsExactly(
+                new ValidationError.BalanceMismatch(SIE4ItemType.UB, YearNumber.CURRENT_YEAR, 1930, new BigDecimal("5"), new BigDecimal("7.00")));
+    }
+
+    @Test
+    void verify_manyVouchers_sumsInParallelLikeTheSequentialRule(@TempDir Path tempDir) {
+        List<SIE4Item.Ver> vers = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < 50_000; i++) {
+            long amount = i % 997 + 1;
+            total += amount;
+            String text = BigDecimal.valueOf(amount, 2).toPlainString();
+            vers.add(ver(LocalDate.of(2024, 1 + i % 12, 1), trans(1930, text, PROJECT), trans(3010, "-" + text)));
+        }
+        SIE4Document document = balanced()
+                .ver(vers)
+                .ub(List.of(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1000.00"), Optional.empty())))
+                .build();
+        SIE4.write(tempDir.resolve("many.se"), document, SIE4.FileOptions.SKIP_VALIDATION);
+        SIE4Document compact = SIE4.parse(tempDir.resolve("many.se"), SIE4.ParseOptions.COMPACT);
+
+        List<ValidationError> errors = BalanceVerifier.verify(document);
+
+        assertThat(errors).contains(
+                new ValidationError.BalanceMismatch(SIE4ItemType.UB, YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1000.00"), BigDecimal.valueOf(100_000 + total, 2)));
+        assertThat(BalanceVerifier.verify(compact)).isEqualTo(errors);
+        assertThat(Validator.of(BalanceVerifier::new).validate(document.getItems())).isEqualTo(errors);
+    }
+
+    @Test
+    void visit_balanceItemsAfterVouchers_areReportedAsNotVerified() {
+        List<SIE4Item> items = new ArrayList<>(balanced().build().getItems());
+        items.add(new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 2440, BigDecimal.ONE, Optional.empty()));
+
+        List<ValidationError> errors = Validator.of(BalanceVerifier::new).validate(items);
+
+        assertThat(errors).singleElement()
+                .isInstanceOfSatisfying(ValidationError.RuleViolation.class,
+                        e -> assertThat(e.offendingItems()).isEqualTo(Set.of(SIE4ItemType.UB)));
+    }
+}
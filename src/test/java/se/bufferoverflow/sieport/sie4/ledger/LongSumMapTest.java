@@ -0,0 +1,70 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongSumMapTest {
+
+    @Test
+    void add_matchesHashMap() {
+        Random random = new Random(4711);
+        LongSumMap map = new LongSumMap();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5000) - 2500L << random.nextInt(40);
+            long amount = random.nextInt(1_000_000) - 500_000;
+            map.add(key, amount);
+            expected.merge(key, amount, Long::sum);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertThat(map.sum(i)).isEqualTo(expected.get(map.key(i)));
+        }
+        assertThat(map.get(Long.MIN_VALUE)).isZero();
+    }
+
+    @Test
+    void addAll_mergesSums() {
+        LongSumMap a = new LongSumMap();
+        a.add(1, 10);
+        a.add(2, 20);
+        LongSumMap b = new LongSumMap(1);
+        b.add(2, 5);
+        b.add(3, 7);
+
+        a.addAll(b);
+
+        assertThat(a.size()).isEqualTo(3);
+        assertThat(a.get(1)).isEqualTo(10);
+        assertThat(a.get(2)).isEqualTo(25);
+        assertThat(a.get(3)).isEqualTo(7);
+    }
+
+    @Test
+    void add_overflow_shouldThrow() {
+        LongSumMap map = new LongSumMap();
+        map.add(1, Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> map.add(1, 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void intern_assignsIndexesInInsertionOrder() {
+        LongSumMap map = new LongSumMap();
+        map.add(42, 5);
+
+        assertThat(map.intern(7)).isEqualTo(1);
+        assertThat(map.intern(42)).isZero();
+        assertThat(map.indexOf(7)).isEqualTo(1);
+        assertThat(map.indexOf(8)).isEqualTo(-1);
+        assertThat(map.get(7)).isZero();
+        assertThat(map.get(42)).isEqualTo(5);
+    }
+}
@@ -0,0 +1,147 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4Item.Transaction;
+import se.bufferoverflow.sieport.sie4.SIE4Reader;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionTableTest {
+
+    private static SIE4Document sample() {
+        return SIE4.parse(TransactionTableTest.class.getResourceAsStream("/SIE4-sample.SE"));
+    }
+
+    @Test
+    void from_document_containsAllTransRows() {
+        SIE4Document document = sample();
+
+        TransactionTable table = TransactionTable.from(document);
+
+        long transCount = document.getVer().stream()
+                .flatMap(ver -> ver.transactions().stream())
+                .filter(t -> t instanceof Transaction.Trans)
+                .count();
+        assertThat(table.size()).isEqualTo((int) transCount);
+        assertThat(table.verCount()).isEqualTo(document.getVer().size());
+        assertThat(table.sum()).isZero();
+    }
+
+    @Test
+    void sumByAccount_matchesRecordScan() {
+        SIE4Document document = sample();
+        Map<Integer, Long> expected = new HashMap<>();
+        for (SIE4Item.Ver ver : document.getVer()) {
+            for (Transaction t : ver.transactions()) {
+                if (t instanceof Transaction.Trans) {
+                    expected.merge(t.accountNo(), t.amount().movePointRight(2).longValueExact(), Long::sum);
+                }
+            }
+        }
+
+        assertThat(TransactionTable.from(document).sumByAccount()).isEqualTo(expected);
+    }
+
+    @Test
+    void sumByAccountAndPeriod_matchesRecordScan() {
+        SIE4Document document = sample();
+        Map<Integer, Map<Period, Long>> expected = new HashMap<>();
+        for (SIE4Item.Ver ver : document.getVer()) {
+            for (Transaction t : ver.transactions()) {
+                if (t instanceof Transaction.Trans) {
+                    LocalDate date = t.transactionDate().orElse(ver.date());
+                    expected.computeIfAbsent(t.accountNo(), a -> new HashMap<>())
+                            .merge(Period.of(date.getYear(), date.getMonthValue()), t.amount().movePointRight(2).longValueExact(), Long::sum);
+                }
+            }
+        }
+
+        Map<Integer, Map<Period, Long>> actual = TransactionTable.from(document).sumByAccountAndPeriod();
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(List.copyOf(actual.keySet())).isSorted();
+    }
+
+    @Test
+    void from_reader_matchesDocument() throws Exception {
+        TransactionTable fromDocument = TransactionTable.from(sample());
+        TransactionTable fromReader;
+        try (InputStream is = getClass().getResourceAsStream("/SIE4-sample.SE");
+             SIE4Reader reader = SIE4.reader(is)) {
+            fromReader = TransactionTable.from(reader);
+        }
+
+        assertThat(fromReader.size()).isEqualTo(fromDocument.size());
+        assertThat(fromReader.sumByAccountAndPeriod()).isEqualTo(fromDocument.sumByAccountAndPeriod());
+    }
+
+    @Test
+    void from_compactDocument_matchesDocument() throws Exception {
+        TransactionTable expected = TransactionTable.from(sample());
+        TransactionTable compact = TransactionTable.from(
+                SIE4.parse(Path.of(getClass().getResource("/SIE4-sample.SE").toURI()), SIE4.ParseOptions.COMPACT));
+
+        assertThat(compact.size()).isEqualTo(expected.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertThat(compact.accountNo(row)).isEqualTo(expected.accountNo(row));
+            assertThat(compact.amount(row)).isEqualTo(expected.amount(row));
+            assertThat(compact.date(row)).isEqualTo(expected.date(row));
+            assertThat(compact.text(row)).isEqualTo(expected.text(row));
+            assertThat(compact.verIndex(row)).isEqualTo(expected.verIndex(row));
+        }
+    }
+
+    @Test
+    void rowAccessors() {
+        SIE4Item.Ver ver = new SIE4Item.Ver(LocalDate.of(2024, 3, 15), Optional.of("A"), Optional.of("1"), Optional.empty(),
+                Optional.empty(), Optional.empty(), List.of(
+                new Transaction.Trans(1930, new BigDecimal("-1250.5"), List.of(), Optional.empty(), Optional.of("Bank"), Optional.empty(), Optional.empty()),
+                new Transaction.Trans(3010, new BigDecimal("1250.50"), List.of(), Optional.of(LocalDate.of(2024, 4, 1)), Optional.empty(), Optional.empty(), Optional.empty()),
+                Transaction.Btrans.of(1910, new BigDecimal("99"))));
+        SIE4Item.Ver other = SIE4Item.Ver.of(LocalDate.of(2024, 3, 16), List.of(
+                new Transaction.Trans(1930, BigDecimal.ONE, List.of(), Optional.empty(), Optional.of("Bank"), Optional.empty(), Optional.empty()),
+                Transaction.Trans.of(1910, BigDecimal.ONE.negate())));
+
+        TransactionTable table = TransactionTable.builder().add(ver).add(other).build();
+
+        assertThat(table.size()).isEqualTo(4);
+        assertThat(table.accountNo(0)).isEqualTo(1930);
+        assertThat(table.amount(0)).isEqualTo(-125050L);
+        assertThat(table.date(0)).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(table.date(1)).isEqualTo(LocalDate.of(2024, 4, 1));
+        assertThat(table.text(0)).isEqualTo("Bank");
+        assertThat(table.text(1)).isNull();
+        assertThat(table.text(2)).isEqualTo("Bank");
+        assertThat(table.series(0)).isEqualTo("A");
+        assertThat(table.series(2)).isNull();
+        assertThat(table.verIndex(1)).isZero();
+        assertThat(table.verIndex(3)).isEqualTo(1);
+        assertThatThrownBy(() -> table.accountNo(4)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void add_amountWithMoreThanTwoDecimals_shouldThrow() {
+        SIE4Item.Ver ver = SIE4Item.Ver.of(LocalDate.of(2024, 1, 1), List.of(
+                Transaction.Trans.of(1930, new BigDecimal("0.001")),
+                Transaction.Trans.of(1910, new BigDecimal("-0.001"))));
+
+        assertThatThrownBy(() -> TransactionTable.builder().add(ver))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("minor units");
+    }
+}
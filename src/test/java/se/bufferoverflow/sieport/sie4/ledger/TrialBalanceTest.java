@@ -0,0 +1,155 @@
+package se.bufferoverflow.sieport.sie4.ledger;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.Period;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Document;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.SIE4Item.Transaction;
+import se.bufferoverflow.sieport.sie4.SIE4Item.Transaction.Trans;
+import se.bufferoverflow.sieport.sie4.YearNumber;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrialBalanceTest {
+
+    private static Map<Integer, TrialBalance.Totals> expectedByAccount(List<SIE4Item.Ver> vers) {
+        Map<Integer, TrialBalance.Totals> expected = new HashMap<>();
+        for (SIE4Item.Ver ver : vers) {
+            for (Transaction t : ver.transactions()) {
+                if (t instanceof Transaction.Trans) {
+                    long amount = t.amount().movePointRight(2).longValueExact();
+                    TrialBalance.Totals totals = amount >= 0 ? new TrialBalance.Totals(amount, 0) : new TrialBalance.Totals(0, -amount);
+                    expected.merge(t.accountNo(), totals, (a, b) -> new TrialBalance.Totals(a.debit() + b.debit(), a.credit() + b.credit()));
+                }
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    void from_sample_matchesRecordScan() {
+        SIE4Document document = SIE4.parse(getClass().getResourceAsStream("/SIE4-sample.SE"));
+
+        TrialBalance trialBalance = TrialBalance.from(document.getVer());
+
+        assertThat(trialBalance.byAccount()).containsExactlyInAnyOrderEntriesOf(expectedByAccount(document.getVer()));
+        assertThat(trialBalance.totals().net()).isZero();
+        assertThat(trialBalance.accountNos()).isSorted();
+    }
+
+    @Test
+    void from_document_includesAccountsWithOnlyAnOpeningBalance() {
+        SIE4Document document = SIE4.parse(getClass().getResourceAsStream("/SIE4-sample.SE"));
+        SIE4Item.Ib ib = document.getIb().stream()
+                .filter(it -> it.yearNumber().equals(YearNumber.CURRENT_YEAR))
+                .filter(it -> !expectedByAccount(document.getVer()).containsKey(it.accountNo()))
+                .findFirst()
+                .orElseThrow();
+
+        TrialBalance trialBalance = TrialBalance.from(document);
+
+        assertThat(trialBalance.accountNos()).contains(ib.accountNo());
+        assertThat(trialBalance.totals(ib.accountNo())).isEqualTo(TrialBalance.Totals.ZERO);
+        assertThat(trialBalance.closingBalance(ib.accountNo())).isEqualTo(ib.balance().movePointRight(2).longValueExact());
+    }
+
+    @Test
+    void closingBalance_sample_matchesUb() {
+        SIE4Document document = SIE4.parse(getClass().getResourceAsStream("/SIE4-sample.SE"));
+
+        TrialBalance trialBalance = TrialBalance.from(document);
+
+        assertThat(document.getUb()).filteredOn(ub -> ub.yearNumber().equals(YearNumber.CURRENT_YEAR))
+                .isNotEmpty()
+                .allSatisfy(ub -> assertThat(trialBalance.closingBalance(ub.accountNo()))
+                        .isEqualTo(ub.balance().movePointRight(2).longValueExact()));
+    }
+
+    @Test
+    void from_document_countsOnlyVouchersOfTheCurrentYear() {
+        SIE4Document document = SIE4Document.builder()
+                .addRar(new SIE4Item.Rar(YearNumber.CURRENT_YEAR, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+                        new SIE4Item.Rar(YearNumber.PREV_YEAR, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)))
+                .addIb(new SIE4Item.Ib(YearNumber.CURRENT_YEAR, 1930, new BigDecimal("1000.00"), Optional.empty()))
+                .addVer(SIE4Item.Ver.of(LocalDate.of(2023, 12, 31),
+                                List.of(Trans.of(1930, new BigDecimal("500")), Trans.of(3010, new BigDecimal("-500")))),
+                        SIE4Item.Ver.of(LocalDate.of(2024, 1, 1),
+                                List.of(Trans.of(1930, new BigDecimal("100")), Trans.of(3010, new BigDecimal("-100")))),
+                        SIE4Item.Ver.of(LocalDate.of(2025, 1, 1),
+                                List.of(Trans.of(1930, new BigDecimal("7")), Trans.of(3010, new BigDecimal("-7")))))
+                .build();
+
+        TrialBalance trialBalance = TrialBalance.from(document);
+
+        assertThat(trialBalance.closingBalance(1930)).isEqualTo(110_000L);
+        assertThat(trialBalance.totals(3010)).isEqualTo(new TrialBalance.Totals(0, 10_000));
+        assertThat(trialBalance.byAccountAndPeriod().get(1930)).containsOnlyKeys(Period.of(2024, 1));
+    }
+
+    @Test
+    void byAccountAndPeriod_addsUpToAccountTotals() {
+        TrialBalance trialBalance = TrialBalance.from(SIE4.parse(getClass().getResourceAsStream("/SIE4-sample.SE")));
+
+        Map<Integer, Map<Period, TrialBalance.Totals>> byPeriod = trialBalance.byAccountAndPeriod();
+
+        assertThat(List.copyOf(byPeriod.keySet())).isSorted();
+        byPeriod.forEach((accountNo, periods) -> {
+            assertThat(List.copyOf(periods.keySet())).isSortedAccordingTo((a, b) -> a.year() != b.year() ? a.year() - b.year() : a.month() - b.month());
+            assertThat(periods.values().stream().mapToLong(TrialBalance.Totals::debit).sum()).isEqualTo(trialBalance.totals(accountNo).debit());
+            assertThat(periods.values().stream().mapToLong(TrialBalance.Totals::credit).sum()).isEqualTo(trialBalance.totals(accountNo).credit());
+            periods.forEach((period, totals) -> assertThat(trialBalance.totals(accountNo, period)).isEqualTo(totals));
+        });
+    }
+
+    @Test
+    void from_manyVouchers_matchesRecordScan() {
+        Random random = new Random(4711);
+        List<SIE4Item.Ver> vers = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, 2);
+            vers.add(SIE4Item.Ver.of(LocalDate.of(2020 + i % 3, 1 + i % 12, 1),
+                    List.of(Trans.of(1000 + random.nextInt(50), amount), Trans.of(3000 + random.nextInt(50), amount.negate()))));
+        }
+
+        TrialBalance trialBalance = TrialBalance.from(vers);
+
+        assertThat(trialBalance.byAccount()).containsExactlyInAnyOrderEntriesOf(expectedByAccount(vers));
+        assertThat(trialBalance.totals().net()).isZero();
+        assertThat(trialBalance.byAccountAndPeriod().get(1000)).containsKeys(Period.of(2020, 1), Period.of(2022, 12));
+    }
+
+    @Test
+    void totals_unknownAccountOrPeriod_isZero() {
+        TrialBalance trialBalance = TrialBalance.from(List.of(SIE4Item.Ver.of(LocalDate.of(2024, 3, 1),
+                List.of(Trans.of(1930, new BigDecimal("100.50")), Trans.of(3010, new BigDecimal("-100.50"))))));
+
+        assertThat(trialBalance.totals(1930)).isEqualTo(new TrialBalance.Totals(10050, 0));
+        assertThat(trialBalance.totals(3010).net()).isEqualTo(-10050);
+        assertThat(trialBalance.totals(2440)).isEqualTo(TrialBalance.Totals.ZERO);
+        assertThat(trialBalance.totals(1930, Period.of(2024, 4))).isEqualTo(TrialBalance.Totals.ZERO);
+        assertThat(trialBalance.openingBalance(1930)).isZero();
+        assertThat(trialBalance.closingBalance(1930)).isEqualTo(10050);
+    }
+
+    @Test
+    void from_amountWithMoreThanTwoDecimals_shouldThrow() {
+        List<SIE4Item.Ver> vers = List.of(SIE4Item.Ver.of(LocalDate.of(2024, 1, 1),
+                List.of(Trans.of(1930, new BigDecimal("0.001")), Trans.of(3010, new BigDecimal("-0.001")))));
+
+        assertThatThrownBy(() -> TrialBalance.from(vers))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("0.001");
+    }
+}
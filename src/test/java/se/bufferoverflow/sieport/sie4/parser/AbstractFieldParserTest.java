@@ -2,15 +2,81 @@ package se.bufferoverflow.sieport.sie4.parser;
 
 import org.junit.jupiter.api.Test;
 import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.SIE4;
 import se.bufferoverflow.sieport.sie4.SIE4Exception;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AbstractFieldParserTest {
+    // The regular expression tokenizer that tokenizeFields replaced, kept as reference implementation
+    private static final Pattern FIELD_PATTERN = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"|(?:\\{([^{}]*)})|(\\S+)");
+
+    private static List<String> tokenizeFieldsWithRegex(String fields) {
+        List<String> tokens = new ArrayList<>();
+        Matcher m = FIELD_PATTERN.matcher(fields);
+        while (m.find()) {
+            if (m.group(1) != null) {
+                tokens.add(m.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+            } else if (m.group(2) != null) {
+                tokens.add(m.group(2));
+            } else {
+                tokens.add(m.group(3));
+            }
+        }
+        return tokens;
+    }
+
+    @Test
+    void tokenizeFields_sampleFile_matchesRegexTokenizer() throws IOException {
+        try (InputStream is = AbstractFieldParserTest.class.getClassLoader().getResourceAsStream("./SIE4-sample.SE")) {
+            List<String> lines = new String(is.readAllBytes(), SIE4.SIE4_CHARSET).lines().toList();
+
+            assertThat(lines).hasSizeGreaterThan(4000);
+            for (String line : lines) {
+                String fields = line.strip().replaceFirst("^\\S+", "");
+                assertEquals(tokenizeFieldsWithRegex(fields), AbstractFieldParser.tokenizeFields(fields), line);
+            }
+        }
+    }
+
+    @Test
+    void tokenizeFields_fuzzedInput_matchesRegexTokenizer() {
+        char[] alphabet = {'"', '"', '\\', '\\', '{', '}', ' ', ' ', '\t', 'a', '1', '-', '.', '\u00f6', '#'};
+        Random random = new Random(4711);
+
+        for (int n = 0; n < 100_000; n++) {
+            char[] chars = new char[random.nextInt(24)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String fields = new String(chars);
+            assertEquals(tokenizeFieldsWithRegex(fields), AbstractFieldParser.tokenizeFields(fields), fields);
+        }
+    }
+
+    @Test
+    void shouldTokenizeUnclosedQuotesAndBracesAsPlainTokens() {
+        assertThat(AbstractFieldParser.tokenizeFields("\"ab cd {ef gh}")).containsExactly("\"ab", "cd", "ef gh");
+        assertThat(AbstractFieldParser.tokenizeFields("{ij {kl} \"m\\\"")).containsExactly("{ij", "kl", "\"m\\\"");
+    }
+
+    @Test
+    void shouldKeepUnknownEscapesInQuotedFields() {
+        List<String> tokens = AbstractFieldParser.tokenizeFields("\"C:\\ProgramData\\\\x\"");
+
+        assertThat(tokens).containsExactly("C:\\ProgramData\\x");
+    }
+
     @Test
     void shouldTokenizeQuotedFieldsCorrectly() {
         String fields = "\"ab\" \"cd ef\" \"gh\\\"i j\"";
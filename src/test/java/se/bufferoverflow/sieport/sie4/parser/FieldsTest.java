@@ -0,0 +1,176 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.ObjectReference;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldsTest {
+
+    @Test
+    void get_decodesCp437() {
+        Fields fields = Fields.of("1910 \"Kassa och bank åäö ÅÄÖ\"");
+
+        assertThat(fields.size()).isEqualTo(2);
+        assertThat(fields.get(1)).isEqualTo("Kassa och bank åäö ÅÄÖ");
+    }
+
+    @Test
+    void tokenize_respectsRange() {
+        byte[] line = "#KONTO 1910 \"Kassa\"".getBytes(SIE4.SIE4_CHARSET);
+
+        Fields fields = Fields.tokenize(line, 7, line.length);
+
+        assertThat(fields.toList()).containsExactly("1910", "Kassa");
+        assertThat(fields.toString()).isEqualTo("1910 \"Kassa\"");
+    }
+
+    @Test
+    void getInt_matchesIntegerParseInt() {
+        Fields fields = Fields.of("0 -1 +42 1910 999999999 2147483647 -2147483648 0001");
+
+        for (int i = 0; i < fields.size(); i++) {
+            assertThat(fields.getInt(i)).isEqualTo(Integer.parseInt(fields.get(i)));
+        }
+    }
+
+    @Test
+    void getInt_invalid_throwsNumberFormatException() {
+        Fields fields = Fields.of("12a - + 2147483648 \"\" 1.5");
+
+        for (int i = 0; i < fields.size(); i++) {
+            int index = i;
+            assertThrows(NumberFormatException.class, () -> fields.getInt(index));
+        }
+    }
+
+    @Test
+    void getDecimal_matchesBigDecimalConstructor() {
+        Fields fields = Fields.of("0 -1234.50 1e3 .5 +7.00 12345678901234567890.123 -0.00 5. 007.10 "
+                + "999999999999999999 -9999999999999999.99 1234567890123456789 -350000.00");
+
+        for (int i = 0; i < fields.size(); i++) {
+            // equals, not compareTo: the scale must be preserved as well
+            assertThat(fields.getDecimal(i)).isEqualTo(new BigDecimal(fields.get(i)));
+        }
+    }
+
+    @Test
+    void getDecimal_randomAmounts_matchesBigDecimalConstructor() {
+        Random random = new Random(4711);
+        for (int n = 0; n < 100_000; n++) {
+            StringBuilder amount = new StringBuilder();
+            if (random.nextInt(4) == 0) {
+                amount.append(random.nextBoolean() ? '-' : '+');
+            }
+            amount.append(digits(random, random.nextInt(22)));
+            if (random.nextBoolean()) {
+                amount.append('.').append(digits(random, random.nextInt(5)));
+            }
+            if (amount.isEmpty() || amount.toString().matches("[-+]?\\.?")) {
+                continue;
+            }
+            Fields fields = Fields.of(amount.toString());
+
+            assertThat(fields.getDecimal(0)).as(amount.toString()).isEqualTo(new BigDecimal(amount.toString()));
+        }
+    }
+
+    private static String digits(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void getDecimal_invalid_throwsNumberFormatException() {
+        Fields fields = Fields.of("12,50 abc - . 1.2.3 1-2");
+
+        for (int i = 0; i < fields.size(); i++) {
+            int index = i;
+            assertThrows(NumberFormatException.class, () -> fields.getDecimal(index));
+        }
+    }
+
+    @Test
+    void getDate_matchesFormatter() {
+        Fields fields = Fields.of("20240101 20241231 20240229 20230229 20230431 00010101 99991231 \"20240315\"");
+
+        for (int i = 0; i < fields.size(); i++) {
+            assertThat(fields.getDate(i)).isEqualTo(LocalDate.parse(fields.get(i), SIE4.SIE4_DATE_FORMATTER));
+        }
+        assertThat(fields.getDate(0)).isSameAs(Fields.of("20240101").getDate(0));
+    }
+
+    @Test
+    void getDate_everyDayOfTwoYears_matchesFormatter() {
+        for (LocalDate date = LocalDate.of(2023, 1, 1); date.getYear() < 2025; date = date.plusDays(1)) {
+            String text = date.format(SIE4.SIE4_DATE_FORMATTER);
+            assertThat(Fields.of(text).getDate(0)).isEqualTo(date);
+        }
+    }
+
+    @Test
+    void getDate_invalid_throwsDateTimeException() {
+        Fields fields = Fields.of("20241301 20240100 20240132 00000101 2024011 202401011 2024-1-1 2024o101 \"\"");
+
+        for (int i = 0; i < fields.size(); i++) {
+            int index = i;
+            assertThrows(DateTimeException.class, () -> fields.getDate(index));
+        }
+    }
+
+    @Test
+    void getOptionalDate_emptyToken_isEmpty() {
+        Fields fields = Fields.of("\"\" 20240301");
+
+        assertThat(fields.getOptionalDate(0)).isEmpty();
+        assertThat(fields.getOptionalDate(1)).contains(LocalDate.of(2024, 3, 1));
+    }
+
+    @Test
+    void getObjectReferences_parsesPairs() {
+        Fields fields = Fields.of("3010 {1 \"Nord\" 6 \"Projekt Å\"} 100.00");
+
+        assertThat(fields.getObjectReferences(1)).containsExactly(
+                new ObjectReference(1, "Nord"),
+                new ObjectReference(6, "Projekt Å"));
+        assertThat(Fields.of("{}").getObjectReferences(0)).isEmpty();
+    }
+
+    @Test
+    void getObjectReferences_oddCount_throws() {
+        Fields fields = Fields.of("{1 \"Nord\" 6}");
+
+        SIE4Exception e = assertThrows(SIE4Exception.class, () -> fields.getObjectReferences(0));
+        assertThat(e.getMessage()).contains("Invalid object reference list");
+    }
+
+    @Test
+    void isEmpty_emptyToken() {
+        Fields fields = Fields.of("\"\" {} x");
+
+        assertThat(fields.isEmpty(0)).isTrue();
+        assertThat(fields.isEmpty(1)).isTrue();
+        assertThat(fields.isEmpty(2)).isFalse();
+        assertThat(Fields.of("   ").isEmpty()).isTrue();
+    }
+
+    @Test
+    void get_outOfBounds_throws() {
+        Fields fields = Fields.of("a b");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> fields.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> fields.getInt(-1));
+    }
+}
@@ -9,6 +9,7 @@ import se.bufferoverflow.sieport.sie4.CompanyType;
 import se.bufferoverflow.sieport.sie4.ObjectReference;
 import se.bufferoverflow.sieport.sie4.Period;
 import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.VerHeader;
 import se.bufferoverflow.sieport.sie4.YearNumber;
 
 import java.math.BigDecimal;
@@ -34,6 +35,18 @@ class InFieldMapperTest {
         assertThat(model).isEqualTo(expectedModel);
     }
 
+    @Test
+    void toModel_unicodeWhitespace_isStripped() {
+        assertThat(InFieldMapper.toModel("\u2003#BKOD 82300\u3000")).isEqualTo(new SIE4Item.Bkod(82300));
+    }
+
+    @Test
+    void toModel_characterNotInCp437_shouldThrow() {
+        assertThatThrownBy(() -> InFieldMapper.toModel("#FNAMN \"Łódź AB\""))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessageContaining("not representable in CP437");
+    }
+
     @Test
     void toModel_bkod() {
         String bkodLine = "#BKOD 82300";
@@ -478,6 +491,31 @@ class InFieldMapperTest {
         );
     }
 
+    @Test
+    void toVerHeader() {
+        VerHeader header = InFieldMapper.toVerHeader("#VER F 12 20211223 \"Lön\" 20211130 \"AB\"");
+
+        assertThat(header).isEqualTo(new VerHeader(
+                LocalDate.of(2021, 12, 23),
+                Optional.of("F"),
+                Optional.of("12"),
+                Optional.of("Lön"),
+                Optional.of(LocalDate.of(2021, 11, 30)),
+                Optional.of("AB")));
+    }
+
+    @Test
+    void toVerHeader_invalidDate_shouldThrowSIE4Exception() {
+        assertThatThrownBy(() -> InFieldMapper.toVerHeader("#VER F 12 2021-12-23"))
+                .isInstanceOf(SIE4Exception.class);
+    }
+
+    @Test
+    void toVerHeader_otherLabel_shouldThrowSIE4Exception() {
+        assertThatThrownBy(() -> InFieldMapper.toVerHeader("#TRANS 1930 {} -10.00"))
+                .isInstanceOf(SIE4Exception.class);
+    }
+
     @Test
     void toModel_trans_missingAmount_shouldThrowDescriptiveSIE4Exception() {
         assertThatThrownBy(() -> InFieldMapper.toModel("#TRANS 1930 {}"))
@@ -0,0 +1,89 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Exception;
+
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KsummaChecksumTest {
+
+    private static long checksum(String... lines) {
+        KsummaChecksum checksum = new KsummaChecksum();
+        for (String line : lines) {
+            byte[] bytes = line.getBytes(SIE4.SIE4_CHARSET);
+            checksum.update(bytes, 0, bytes.length);
+        }
+        return checksum.getValue();
+    }
+
+    private static long crc(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(SIE4.SIE4_CHARSET));
+        return crc.getValue();
+    }
+
+    @Test
+    void update_skipsWhitespaceQuotesAndBraces() {
+        assertThat(checksum("#TRANS 1930 {1 \"100\" 6 P1} -10.00 20240101 \"Kaffe och bulle\""))
+                .isEqualTo(crc("#TRANS193011006P1-10.0020240101Kaffe och bulle"));
+    }
+
+    @Test
+    void update_resolvesEscapes() {
+        assertThat(checksum("#FNAMN \"Svensson \\\"Bygg\\\" \\\\ AB\""))
+                .isEqualTo(crc("#FNAMNSvensson \"Bygg\" \\ AB"));
+    }
+
+    @Test
+    void update_unclosedQuote_isOrdinaryByte() {
+        assertThat(checksum("#FNAMN \"Acme AB")).isEqualTo(crc("#FNAMN\"AcmeAB"));
+    }
+
+    @Test
+    void update_isIndependentOfLineBreaksAndVerBraces() {
+        long split = checksum("#VER A 1 20240101", "{", "   #TRANS 1930 {} -1", "   #TRANS 3010 {} 1", "}");
+        long joined = checksum("#VER A 1 20240101\r\n{\n#TRANS 1930 {} -1\n#TRANS 3010 {} 1\n}\n");
+
+        assertThat(split).isEqualTo(joined).isEqualTo(crc("#VERA120240101#TRANS1930-1#TRANS30101"));
+    }
+
+    @Test
+    void isKsummaLine_matchesLabelOnly() {
+        assertThat(isKsummaLine("#KSUMMA")).isTrue();
+        assertThat(isKsummaLine("#ksumma 123")).isTrue();
+        assertThat(isKsummaLine("#KSUMMA\t123")).isTrue();
+        assertThat(isKsummaLine("#KSUMMAX 123")).isFalse();
+        assertThat(isKsummaLine("#KSUMM")).isFalse();
+        assertThat(isKsummaLine("#FNAMN KSUMMA")).isFalse();
+    }
+
+    @Test
+    void value_parsesUnsignedChecksum() {
+        assertThat(value("#KSUMMA")).isEqualTo(KsummaChecksum.NO_VALUE);
+        assertThat(value("#KSUMMA 4294967295")).isEqualTo(4294967295L);
+        assertThat(value("#KSUMMA 0")).isZero();
+    }
+
+    @Test
+    void value_invalid_shouldThrow() {
+        assertThatThrownBy(() -> value("#KSUMMA abc"))
+                .isInstanceOf(SIE4Exception.class)
+                .hasMessage("Invalid #KSUMMA checksum: abc");
+        assertThatThrownBy(() -> value("#KSUMMA 4294967296")).isInstanceOf(SIE4Exception.class);
+        assertThatThrownBy(() -> value("#KSUMMA -1")).isInstanceOf(SIE4Exception.class);
+    }
+
+    private static boolean isKsummaLine(String line) {
+        byte[] bytes = line.getBytes(SIE4.SIE4_CHARSET);
+        return KsummaChecksum.isKsummaLine(bytes, 0, bytes.length);
+    }
+
+    private static long value(String line) {
+        byte[] bytes = line.getBytes(SIE4.SIE4_CHARSET);
+        return KsummaChecksum.value(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,37 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import org.junit.jupiter.api.Test;
+import se.bufferoverflow.sieport.sie4.SIE4ItemType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LabelsTest {
+
+    private static SIE4ItemType recognize(String label) {
+        byte[] line = ("#" + label + " 1").getBytes(StandardCharsets.ISO_8859_1);
+        return Labels.recognize(line, 1, 1 + label.length());
+    }
+
+    @Test
+    void recognize_everyItemType() {
+        for (SIE4ItemType type : SIE4ItemType.values()) {
+            assertThat(recognize(type.name())).isEqualTo(type);
+            assertThat(recognize(type.name().toLowerCase(Locale.ROOT))).isEqualTo(type);
+        }
+        assertThat(recognize("Konto")).isEqualTo(SIE4ItemType.KONTO);
+    }
+
+    @Test
+    void recognize_unknownLabels_returnsNull() {
+        assertThat(recognize("")).isNull();
+        assertThat(recognize("KONT")).isNull();
+        assertThat(recognize("KONTOS")).isNull();
+        assertThat(recognize("UNKNOWN")).isNull();
+        assertThat(recognize("VERYLONGLABEL")).isNull();
+        assertThat(recognize("KÖNTO")).isNull();
+        assertThat(recognize("KONTO".replace('O', '0'))).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package se.bufferoverflow.sieport.sie4.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.bufferoverflow.sieport.sie4.SIE4;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SIE4LineReaderTest {
+
+    private static List<String> readLines(SIE4LineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        while (reader.nextLine()) {
+            lines.add(reader.lineAsString());
+        }
+        return lines;
+    }
+
+    private static List<String> readLines(byte[] bytes) throws IOException {
+        return readLines(new SIE4LineReader(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void nextLine_sampleFile_matchesBufferedReader() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (InputStream is = getClass().getResourceAsStream("/SIE4-sample.SE")) {
+            new BufferedReader(new InputStreamReader(is, SIE4.SIE4_CHARSET)).lines()
+                    .map(String::strip)
+                    .forEach(expected::add);
+        }
+
+        List<String> actual;
+        try (InputStream is = getClass().getResourceAsStream("/SIE4-sample.SE")) {
+            actual = readLines(new SIE4LineReader(is));
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void nextLine_mappedFile_matchesStream(@TempDir Path tempDir) throws IOException {
+        byte[] input = ("#FLAGGA 0\r\n#FNAMN \"Företag\"\r\n" + "#PROGRAM x 1\n".repeat(20_000) + "#SIETYP 4")
+                .getBytes(SIE4.SIE4_CHARSET);
+        Path file = Files.write(tempDir.resolve("mapped.se"), input);
+
+        List<String> actual;
+        try (FileChannel channel = FileChannel.open(file)) {
+            actual = readLines(new SIE4LineReader(channel));
+        }
+
+        assertThat(actual).isEqualTo(readLines(input));
+    }
+
+    @Test
+    void nextLine_mixedLineTerminators() throws IOException {
+        byte[] input = "#FLAGGA 0\r\n#PROGRAM x\r#FORMAT PC8\n\n  #GEN 20240101  \r\n".getBytes(SIE4.SIE4_CHARSET);
+
+        assertThat(readLines(input)).containsExactly("#FLAGGA 0", "#PROGRAM x", "#FORMAT PC8", "", "#GEN 20240101");
+    }
+
+    @Test
+    void nextLine_lastLineWithoutTerminator() throws IOException {
+        assertThat(readLines("#FLAGGA 0\n#SIETYP 4".getBytes(SIE4.SIE4_CHARSET)))
+                .containsExactly("#FLAGGA 0", "#SIETYP 4");
+    }
+
+    @Test
+    void nextLine_emptyInput() throws IOException {
+        assertThat(readLines(new byte[0])).isEmpty();
+    }
+
+    @Test
+    void nextLine_crLfSplitAcrossReads_isOneTerminator() throws IOException {
+        byte[] input = "#FLAGGA 0\r\n#SIETYP 4\r\n".getBytes(SIE4.SIE4_CHARSET);
+        // hand out a single byte per read so that \r and \n arrive in separate reads
+        InputStream trickle = new ByteArrayInputStream(input) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        assertThat(readLines(new SIE4LineReader(trickle))).containsExactly("#FLAGGA 0", "#SIETYP 4");
+    }
+
+    @Test
+    void nextLine_lineLongerThanBuffer_growsBuffer() throws IOException {
+        String longText = "x".repeat(200_000);
+        byte[] input = ("#FNAMN \"" + longText + "\"\n#FLAGGA 0\n").getBytes(SIE4.SIE4_CHARSET);
+
+        assertThat(readLines(input)).containsExactly("#FNAMN \"" + longText + "\"", "#FLAGGA 0");
+    }
+
+    @Test
+    void lineAsString_decodesCp437() throws IOException {
+        byte[] input = "#FNAMN \"Företag Åäö\"".getBytes(SIE4.SIE4_CHARSET);
+
+        assertThat(readLines(input)).containsExactly("#FNAMN \"Företag Åäö\"");
+    }
+
+    @Test
+    void isBlank_whitespaceOnlyLine() throws IOException {
+        SIE4LineReader reader = new SIE4LineReader(new ByteArrayInputStream(" \t \n".getBytes(SIE4.SIE4_CHARSET)));
+
+        assertThat(reader.nextLine()).isTrue();
+        assertThat(reader.isBlank()).isTrue();
+        assertThat(reader.nextLine()).isFalse();
+    }
+}
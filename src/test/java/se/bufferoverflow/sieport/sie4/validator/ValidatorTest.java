@@ -7,10 +7,14 @@ import se.bufferoverflow.sieport.sie4.YearNumber;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ValidatorTest {
 
@@ -182,4 +186,162 @@ class ValidatorTest {
 
         assertThat(result).isEmpty();
     }
+
+    @Test
+    void validateSie4e_missingCurrentYearItems_onlyForPresentTypes() {
+        List<SIE4Item> items = List.of(
+                new SIE4Item.Ib(YearNumber.of(-1), 1930, BigDecimal.ZERO, Optional.empty()),
+                new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, BigDecimal.ZERO, Optional.empty())
+        );
+
+        List<ValidationError> result = Validator.validateSie4e(items);
+
+        assertThat(result)
+                .filteredOn(e -> e instanceof ValidationError.MissingCurrentYearItems)
+                .singleElement()
+                .satisfies(e -> assertThat(e.offendingItems()).containsExactly(SIE4ItemType.IB));
+        assertThat(result.getFirst().offendingItems()).contains(SIE4ItemType.RES).doesNotContain(SIE4ItemType.IB);
+    }
+
+    @Test
+    void withRule_customRule_reportsAfterBuiltInRules() {
+        Validator validator = Validator.sie4i().withRule(() -> new ValidationRule() {
+            private int count;
+
+            @Override
+            public Set<SIE4ItemType> itemTypes() {
+                return EnumSet.of(SIE4ItemType.KONTO);
+            }
+
+            @Override
+            public void visit(SIE4Item item) {
+                count++;
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+                if (count > 1) {
+                    errors.add(new ValidationError.RuleViolation("Too many accounts: " + count, itemTypes()));
+                }
+            }
+        });
+        List<SIE4Item> items = List.of(
+                new SIE4Item.Konto(1930, "Bank"),
+                new SIE4Item.Konto(2440, "Leverantörsskulder"));
+
+        List<ValidationError> result = validator.validate(items);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.getFirst()).isInstanceOf(ValidationError.MissingMandatoryItems.class);
+        assertThat(result.getLast()).isEqualTo(
+                new ValidationError.RuleViolation("Too many accounts: 2", Set.of(SIE4ItemType.KONTO)));
+        assertThat(validator.validate(items)).isEqualTo(result);
+    }
+
+    @Test
+    void validate_ruleOnlyVisitsItsItemTypes() {
+        List<SIE4ItemType> visited = new ArrayList<>();
+        Validator validator = Validator.of(() -> new ValidationRule() {
+            @Override
+            public Set<SIE4ItemType> itemTypes() {
+                return EnumSet.of(SIE4ItemType.FNAMN);
+            }
+
+            @Override
+            public void visit(SIE4Item item) {
+                visited.add(item.itemType());
+            }
+
+            @Override
+            public void finish(List<ValidationError> errors) {
+            }
+        });
+
+        List<ValidationError> result = validator.validate(List.of(
+                SIE4Item.Flagga.UNSET,
+                new SIE4Item.Fnamn("TestCompany"),
+                new SIE4Item.Konto(1930, "Bank")));
+
+        assertThat(result).isEmpty();
+        assertThat(visited).containsExactly(SIE4ItemType.FNAMN);
+    }
+
+    @Test
+    void start_feedsItemsOneAtATime() {
+        Validator.Validation validation = Validator.sie4i().start();
+        validation.accept(new SIE4Item.Flagga(1));
+        validation.accept(new SIE4Item.Bkod(12345678));
+
+        List<ValidationError> result = validation.finish();
+
+        assertThat(result).hasSize(3);
+        assertThat(result.get(1)).isEqualTo(new ValidationError.ForbiddenItemsPresent(Set.of(SIE4ItemType.BKOD)));
+        assertThat(result.get(2)).isInstanceOf(ValidationError.InvalidFlaggaValue.class);
+        assertThatThrownBy(() -> validation.accept(SIE4Item.Flagga.UNSET)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(validation::finish).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void startFailFast_reportsErrorsAsSoonAsTheyAreCertain() {
+        Validator.Validation validation = Validator.sie4e().startFailFast();
+
+        validation.accept(new SIE4Item.Fnamn("TestCompany"));
+        assertThat(validation.errors()).isEmpty();
+
+        validation.accept(new SIE4Item.Flagga(1));
+        assertThat(validation.errors()).containsExactly(new ValidationError.InvalidFlaggaValue());
+
+        validation.accept(new SIE4Item.Konto(1930, "Bank"));
+        assertThat(validation.errors()).hasSize(2);
+        assertThat(validation.errors().getLast().offendingItems())
+                .containsExactlyInAnyOrder(SIE4ItemType.PROGRAM, SIE4ItemType.FORMAT, SIE4ItemType.GEN, SIE4ItemType.SIETYP, SIE4ItemType.RAR);
+
+        validation.accept(new SIE4Item.Ib(YearNumber.PREV_YEAR, 1930, BigDecimal.ZERO, Optional.empty()));
+        assertThat(validation.errors()).hasSize(2);
+
+        List<ValidationError> result = validation.finish();
+
+        assertThat(result.subList(0, 2)).isEqualTo(validation.errors());
+        assertThat(result.subList(2, result.size())).containsExactly(
+                new ValidationError.MissingMandatoryItems(Set.of(SIE4ItemType.UB, SIE4ItemType.RES)),
+                new ValidationError.MissingCurrentYearItems(Set.of(SIE4ItemType.IB)));
+    }
+
+    @Test
+    void startFailFast_itemOfAnEarlierSection_leavesTheRestToFinish() {
+        List<SIE4Item> items = List.of(
+                SIE4Item.Flagga.UNSET,
+                SIE4Item.Format.pc8(),
+                new SIE4Item.Sietyp(4),
+                new SIE4Item.Program("TestProgram", "1.0"),
+                new SIE4Item.Gen(LocalDate.now(), Optional.empty()),
+                new SIE4Item.Fnamn("TestCompany"),
+                new SIE4Item.Rar(YearNumber.CURRENT_YEAR, LocalDate.MIN, LocalDate.MAX),
+                new SIE4Item.Konto(1930, "konto"),
+                new SIE4Item.OrgNr("555555-5555", Optional.empty(), Optional.empty()),
+                new SIE4Item.Ib(YearNumber.PREV_YEAR, 1930, BigDecimal.ZERO, Optional.empty()),
+                new SIE4Item.Ub(YearNumber.CURRENT_YEAR, 1930, BigDecimal.ZERO, Optional.empty()),
+                new SIE4Item.Res(YearNumber.CURRENT_YEAR, 1930, BigDecimal.ZERO, Optional.empty()),
+                SIE4Item.Ver.of(LocalDate.of(2021, 11, 25), List.of(
+                        SIE4Item.Transaction.Trans.of(1930, BigDecimal.TEN), SIE4Item.Transaction.Trans.of(1910, BigDecimal.TEN.negate()))),
+                new SIE4Item.Ib(YearNumber.CURRENT_YEAR, 1930, BigDecimal.ZERO, Optional.empty())
+        );
+        Validator.Validation validation = Validator.sie4e().startFailFast();
+
+        items.forEach(validation);
+
+        assertThat(validation.errors()).isEmpty();
+        assertThat(validation.finish()).isEqualTo(Validator.validateSie4e(items)).isEmpty();
+    }
+
+    @Test
+    void startFailFast_forbiddenItem_isReportedOnce() {
+        Validator.Validation validation = Validator.sie4i().startFailFast();
+
+        validation.accept(new SIE4Item.Bkod(12345678));
+        validation.accept(new SIE4Item.Bkod(12345678));
+
+        assertThat(validation.errors()).containsExactly(new ValidationError.ForbiddenItemsPresent(Set.of(SIE4ItemType.BKOD)));
+        assertThat(validation.finish()).filteredOn(e -> e instanceof ValidationError.ForbiddenItemsPresent).hasSize(1);
+    }
 }
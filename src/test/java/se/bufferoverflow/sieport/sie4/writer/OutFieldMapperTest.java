@@ -473,4 +473,49 @@ class OutFieldMapperTest {
 
         assertThat(InFieldMapper.toModel(result)).isEqualTo(item);
     }
+
+    @Test
+    void appendFileString_appendsToExistingContent() {
+        StringBuilder out = new StringBuilder("#FLAGGA 0\n");
+
+        OutFieldMapper.appendFileString(new SIE4Item.Fnamn("Acme AB"), out);
+
+        assertThat(out).hasToString("#FLAGGA 0\n#FNAMN \"Acme AB\"");
+    }
+
+    @Test
+    void appendFileString_matchesToFileString() {
+        SIE4Item.Ver ver = new SIE4Item.Ver(LocalDate.of(2024, 1, 5), Optional.of("A"), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.of("AN"), List.of(
+                new SIE4Item.Transaction.Trans(1930, new BigDecimal("-10.50"), List.of(ObjectReference.of(1, "Ö 1")),
+                        Optional.of(LocalDate.of(2024, 1, 6)), Optional.empty(), Optional.of(new BigDecimal("2")), Optional.empty()),
+                SIE4Item.Transaction.Trans.of(3010, new BigDecimal("10.50"))));
+        StringBuilder out = new StringBuilder();
+
+        OutFieldMapper.appendFileString(ver, out);
+
+        assertThat(out).hasToString(OutFieldMapper.toFileString(ver));
+        assertThat(out).hasToString("""
+                #VER A "" 20240105 "" "" AN
+                {
+                   #TRANS 1930 {1 "Ö 1"} -10.50 20240106 "" 2
+                   #TRANS 3010 {} 10.50
+                }""");
+    }
+
+    @Test
+    void toFileString_yearsOutsideFourDigits_formatLikeDateFormatter() {
+        assertThat(OutFieldMapper.toFileString(new SIE4Item.Omfattn(LocalDate.of(999, 2, 3)))).isEqualTo("#OMFATTN 09990203");
+        assertThat(OutFieldMapper.toFileString(new SIE4Item.Omfattn(LocalDate.of(10000, 1, 1)))).isEqualTo("#OMFATTN +100000101");
+        assertThat(OutFieldMapper.toFileString(new SIE4Item.Psaldo(YearNumber.of(0), Period.of(10000, 1), 1930,
+                Optional.empty(), BigDecimal.ONE, Optional.empty()))).isEqualTo("#PSALDO 0 +1000001 1930 {} 1");
+    }
+
+    @Test
+    void toFileString_trailingEmptyFields_areTrimmed() {
+        assertThat(OutFieldMapper.toFileString(new SIE4Item.Gen(LocalDate.of(2024, 1, 1), Optional.of(""))))
+                .isEqualTo("#GEN 20240101");
+        assertThat(OutFieldMapper.toFileString(new SIE4Item.Ib(YearNumber.of(0), 1930, new BigDecimal("1E+3"), Optional.empty())))
+                .isEqualTo("#IB 0 1930 1E+3");
+    }
 }
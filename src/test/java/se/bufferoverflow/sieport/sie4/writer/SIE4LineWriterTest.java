@@ -0,0 +1,160 @@
+package se.bufferoverflow.sieport.sie4.writer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.bufferoverflow.sieport.sie4.SIE4;
+import se.bufferoverflow.sieport.sie4.SIE4Item;
+import se.bufferoverflow.sieport.sie4.parser.KsummaChecksum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SIE4LineWriterTest {
+    private static final String NL = System.lineSeparator();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeItem_encodesLikeCharset() throws IOException {
+        StringBuilder all = new StringBuilder();
+        for (char c = 0x20; c < 0x3000; c++) {
+            if (c != '"' && c != '\\' && !Character.isSurrogate(c)) {
+                all.append(c);
+            }
+        }
+        // a surrogate pair, lone surrogates and chars without a CP437 mapping
+        String odd = "a😀b\uD800c\uDC00d€中";
+        List<SIE4Item> items = List.of(new SIE4Item.Prosa(all.toString()), new SIE4Item.Fnamn(odd),
+                new SIE4Item.Fnamn("x\uD83D"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        SIE4LineWriter writer = new SIE4LineWriter(out);
+        for (SIE4Item item : items) {
+            writer.writeItem(item);
+        }
+        writer.flush();
+
+        StringBuilder expected = new StringBuilder();
+        items.forEach(item -> expected.append(OutFieldMapper.toFileString(item)).append(NL));
+        assertThat(out.toByteArray()).isEqualTo(expected.toString().getBytes(SIE4.SIE4_CHARSET));
+    }
+
+    @Test
+    void writeItem_writesOnlyWhenBufferIsFull() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        SIE4LineWriter writer = new SIE4LineWriter(out);
+
+        for (int i = 0; i < 1000; i++) {
+            writer.writeItem(new SIE4Item.Konto(1000 + i, "Konto " + i));
+        }
+        assertThat(out.writes).isZero();
+
+        writer.flush();
+        assertThat(out.writes).isEqualTo(1);
+        assertThat(out.flushes).isEqualTo(1);
+    }
+
+    @Test
+    void writeItem_moreThanBuffer_toChannel() throws IOException {
+        List<SIE4Item> items = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            items.add(SIE4Item.Ver.of(LocalDate.of(2024, 1, 1 + i % 28), "Försäljning " + i, List.of(
+                    SIE4Item.Transaction.Trans.of(1930, new BigDecimal("-125.00")),
+                    SIE4Item.Transaction.Trans.of(3010, new BigDecimal("125.00")))));
+        }
+        Path file = tempDir.resolve("out.se");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            SIE4LineWriter writer = new SIE4LineWriter(channel);
+            for (SIE4Item item : items) {
+                writer.writeItem(item);
+            }
+            writer.flush();
+        }
+
+        StringBuilder expected = new StringBuilder();
+        items.forEach(item -> expected.append(OutFieldMapper.toFileString(item)).append(NL));
+        byte[] written = Files.readAllBytes(file);
+        assertThat(written.length).isGreaterThan(256 * 1024);
+        assertThat(written).isEqualTo(expected.toString().getBytes(SIE4.SIE4_CHARSET));
+    }
+
+    @Test
+    void endChecksum_coversLinesAcrossBufferBoundaries() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SIE4LineWriter writer = new SIE4LineWriter(out);
+
+        writer.writeItem(SIE4Item.Flagga.UNSET);
+        writer.beginChecksum();
+        for (int i = 0; i < 20_000; i++) {
+            writer.writeItem(new SIE4Item.Konto(1000 + i, "Konto \"" + i + "\" för Åke"));
+        }
+        writer.endChecksum();
+        writer.flush();
+
+        List<String> lines = out.toString(SIE4.SIE4_CHARSET).lines().toList();
+        assertThat(out.size()).isGreaterThan(2 * 256 * 1024);
+        assertThat(lines.get(1)).isEqualTo("#KSUMMA");
+        KsummaChecksum expected = new KsummaChecksum();
+        for (String line : lines.subList(2, lines.size() - 1)) {
+            byte[] bytes = line.getBytes(SIE4.SIE4_CHARSET);
+            expected.update(bytes, 0, bytes.length);
+        }
+        assertThat(lines.getLast()).isEqualTo("#KSUMMA " + expected.getValue());
+    }
+
+    @Test
+    void beginChecksum_twice_shouldThrow() throws IOException {
+        SIE4LineWriter writer = new SIE4LineWriter(new ByteArrayOutputStream());
+        writer.beginChecksum();
+
+        assertThatThrownBy(writer::beginChecksum).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void flush_failingStream_throwsOriginalException() throws IOException {
+        IOException failure = new IOException("disk full");
+        SIE4LineWriter writer = new SIE4LineWriter(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw failure;
+            }
+        });
+        writer.writeItem(SIE4Item.Flagga.UNSET);
+
+        assertThatThrownBy(writer::flush).isSameAs(failure);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        int writes;
+        int flushes;
+
+        @Override
+        public void write(int b) {
+            writes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}